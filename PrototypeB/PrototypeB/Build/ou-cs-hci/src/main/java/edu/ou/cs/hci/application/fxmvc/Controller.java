@@ -15,6 +15,7 @@ package edu.ou.cs.hci.application.fxmvc;
 
 //import java.lang.*;
 import java.util.ArrayList;
+import java.util.Map;
 
 //******************************************************************************
 
@@ -91,6 +92,14 @@ public final class Controller
 		return model.getValue(key);
 	}
 
+	// For views and their background work to read several data values as
+	// they were at one moment. Can be called from any thread, as can get()
+	// and set().
+	public Model.Snapshot	getSnapshot()
+	{
+		return model.getSnapshot();
+	}
+
 	// For views to modify data values whenever they want, usually after
 	// changes have been calculated in response to an interaction.
 	public void	set(String key, Object value)
@@ -100,6 +109,14 @@ public final class Controller
 		model.setValue(key, value);
 	}
 
+	// For views to modify several data values that must change together.
+	public void	set(Map<String, Object> values)
+	{
+		System.out.println("controller: set " + values);
+
+		model.setValues(values);
+	}
+
 	// This a placeholder, here to suggest reponsiveness to interactions that
 	// trigger state transitions, such as button presses. In practice, the
 	// trigger would indicate to the model to perform (or initiate a query to
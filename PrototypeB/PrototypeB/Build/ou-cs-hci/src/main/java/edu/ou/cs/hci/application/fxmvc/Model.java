@@ -15,13 +15,21 @@
 package edu.ou.cs.hci.application.fxmvc;
 
 //import java.lang.*;
-import java.util.HashMap;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
 import javafx.application.Platform;
 
 //******************************************************************************
 
 /**
- * The <CODE>Model</CODE> class.
+ * The <CODE>Model</CODE> class keeps its values in immutable, versioned
+ * snapshots. Any thread can read the current snapshot without locking, and
+ * sees all of its values as they were at one moment. Any thread can submit
+ * changes. They go into a queue that one writer thread drains, making a new
+ * snapshot from each batch of changes and swapping it in. The views hear
+ * about the changed keys on the JavaFX thread, once per key no matter how many
+ * times it changed since they last heard, with the values in the snapshot
+ * current at the time.
  *
  * @author  Chris Weaver
  * @version %I%, %G%
@@ -35,8 +43,19 @@ public final class Model
 	// Master of the program, manager of the data, mediator of all updates
 	private final Controller				controller;
 
-	// Easy, extensible way to store multiple simple, independent parameters
-	private final HashMap<String, Object>	properties;
+	// Easy, extensible way to store multiple simple, independent parameters.
+	// Replaced as a whole, and only by the writer thread.
+	private volatile Snapshot				snapshot;
+
+	// Changes waiting for the writer, in the order submitted
+	private final LinkedBlockingQueue<Change>	queue;
+	private final Thread					writer;
+
+	// Keys changed since the views last heard, in the order first changed.
+	// A delivery is posted to the JavaFX thread whenever this goes from
+	// empty to not empty.
+	private final Object					lock = new Object();
+	private final LinkedHashSet<String>	changed;
 
 	//**********************************************************************
 	// Constructors and Finalizer
@@ -46,7 +65,7 @@ public final class Model
 	{
 		this.controller = controller;
 
-		properties = new HashMap<String, Object>();
+		HashMap<String, Object>	properties = new HashMap<String, Object>();
 
 		// Parameters accessed and/or modified by GalleryPane controls
 		properties.put("lions",		Boolean.FALSE);
@@ -63,27 +82,55 @@ public final class Model
 
 		// Parameters accessed and/or modified by Image/Float/CyclePanes
 		properties.put("itemIndex",	0);
+		properties.put("canvasMode",	Boolean.FALSE);	// Draw items on a canvas
+
+		snapshot = new Snapshot(0L, properties);
+		queue = new LinkedBlockingQueue<Change>();
+		changed = new LinkedHashSet<String>();
+
+		writer = new Thread(this::write, "model-writer");
+		writer.setDaemon(true);
+		writer.start();
 	}
 
 	//**********************************************************************
 	// Public Methods (Controller)
 	//**********************************************************************
 
+	// The current values. Safe to call from any thread.
+	public Snapshot	getSnapshot()
+	{
+		return snapshot;
+	}
+
 	public Object	getValue(String key)
 	{
-		return properties.get(key);
+		return snapshot.get(key);
 	}
 
+	// Submits a change. Safe to call from any thread. The change shows up in
+	// the snapshot once the writer gets to it, and in the views after that.
 	public void	setValue(String key, Object value)
 	{
-		if (properties.containsKey(key) &&
-			properties.get(key).equals(value))
+		queue.add(new Change(new String[] { key }, new Object[] { value }));
+	}
+
+	// Submits changes to several keys that must show up together, in the
+	// same snapshot.
+	public void	setValues(Map<String, Object> values)
+	{
+		String[]	keys = new String[values.size()];
+		Object[]	objects = new Object[values.size()];
+		int		i = 0;
+
+		for (Map.Entry<String, Object> entry : values.entrySet())
 		{
-			System.out.println("  model: value not changed");
-			return;
+			keys[i] = entry.getKey();
+			objects[i] = entry.getValue();
+			i++;
 		}
 
-		Platform.runLater(new Updater(key, value));
+		queue.add(new Change(keys, objects));
 	}
 
 	public void	trigger(String name)
@@ -91,26 +138,141 @@ public final class Model
 		System.out.println("  model: (not!) calculating function: " + name);
 	}
 
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	// Runs on the writer thread. Takes all of the changes waiting each time,
+	// so a burst of changes makes one new snapshot instead of many.
+	private void	write()
+	{
+		ArrayList<Change>	batch = new ArrayList<Change>();
+
+		while (true)
+		{
+			try
+			{
+				batch.add(queue.take());
+			}
+			catch (InterruptedException ex)
+			{
+				return;
+			}
+
+			queue.drainTo(batch);
+			apply(batch);
+			batch.clear();
+		}
+	}
+
+	private void	apply(List<Change> batch)
+	{
+		Snapshot				old = snapshot;
+		HashMap<String, Object>	values = null;		// Copied on first change
+		ArrayList<String>		keys = new ArrayList<String>();
+
+		for (Change change : batch)
+		{
+			for (int i=0; i<change.keys.length; i++)
+			{
+				String				key = change.keys[i];
+				Object				value = change.values[i];
+				Map<String, Object>	current = ((values != null) ? values :
+												   old.values);
+
+				if (current.containsKey(key) && current.get(key).equals(value))
+				{
+					System.out.println("  model: value not changed");
+					continue;
+				}
+
+				if (values == null)
+					values = new HashMap<String, Object>(old.values);
+
+				values.put(key, value);
+				keys.add(key);
+			}
+		}
+
+		if (values == null)
+			return;
+
+		snapshot = new Snapshot(old.version + 1L, values);
+
+		synchronized (lock)
+		{
+			boolean	idle = changed.isEmpty();
+
+			changed.addAll(keys);
+
+			if (idle)
+				Platform.runLater(this::deliver);
+		}
+	}
+
+	// Runs on the JavaFX thread. Tells the views about each key changed since
+	// the last delivery, with its value in the latest snapshot.
+	private void	deliver()
+	{
+		String[]	keys;
+
+		synchronized (lock)
+		{
+			keys = changed.toArray(new String[changed.size()]);
+			changed.clear();
+		}
+
+		Snapshot	current = snapshot;
+
+		for (String key : keys)
+			controller.update(key, current.get(key));
+	}
+
 	//**********************************************************************
 	// Inner Classes
 	//**********************************************************************
 
-	private class Updater
-		implements Runnable
+	/**
+	 * The values of the model at one moment. Never changes once made.
+	 */
+	public static final class Snapshot
 	{
-		private final String	key;
-		private final Object	value;
+		private final long						version;
+		private final HashMap<String, Object>	values;
+
+		private Snapshot(long version, HashMap<String, Object> values)
+		{
+			this.version = version;
+			this.values = values;
+		}
+
+		// Counts up by one with each snapshot the writer makes.
+		public long	getVersion()
+		{
+			return version;
+		}
+
+		public Object	get(String key)
+		{
+			return values.get(key);
+		}
 
-		public Updater(String key, Object value)
+		public Set<String>	getKeys()
 		{
-			this.key = key;
-			this.value = value;
+			return Collections.unmodifiableSet(values.keySet());
 		}
+	}
+
+	// Values for one or more keys, applied together.
+	private static final class Change
+	{
+		private final String[]	keys;
+		private final Object[]	values;
 
-		public void	run()
+		public Change(String[] keys, Object[] values)
 		{
-			properties.put(key, value);
-			controller.update(key, value);
+			this.keys = keys;
+			this.values = values;
 		}
 	}
 }
@@ -17,8 +17,11 @@ package edu.ou.cs.hci.application.fxmvc;
 //import java.lang.*;
 import java.util.ArrayList;
 import java.net.URL;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
+import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.stage.*;
 import edu.ou.cs.hci.application.fxmvc.pane.*;
@@ -42,9 +45,15 @@ public final class View
 
 	// Handlers
 	private final WindowHandler			windowHandler;
+	private final ShowingHandler			showingHandler;
 
 	// Layout
 	private final ArrayList<AbstractPane>	panes;
+	private final ArrayList<Tab>			tabs;		// Of the panes, in order
+	private final Stage					stage;
+
+	// Which panes were last told they're seen
+	private boolean[]						showing;
 
 	//**********************************************************************
 	// Constructors and Finalizer
@@ -58,6 +67,9 @@ public final class View
 		// Handle WINDOW_CLOSE_REQUESTs
 		windowHandler = new WindowHandler();
 
+		// Handle changes to which panes can be seen
+		showingHandler = new ShowingHandler();
+
 		// Create a set of panes to include
 		panes = new ArrayList<AbstractPane>();
 
@@ -73,8 +85,12 @@ public final class View
 		// Create a tab pane with tabs for the set of included panes
 		TabPane	tabPane = new TabPane();
 
+		tabs = new ArrayList<Tab>();
+
 		for (AbstractPane pane : panes)
-			tabPane.getTabs().add(pane.createTab());
+			tabs.add(pane.createTab());
+
+		tabPane.getTabs().addAll(tabs);
 
 		// Create a scene with an initial size, and attach a style sheet to it
 		Scene		scene = new Scene(tabPane, 800, 600);
@@ -84,7 +100,7 @@ public final class View
 		scene.getStylesheets().add(surl);
 
 		// Create a window/stage with a name and an initial position on screen
-		Stage		stage = new Stage();
+		stage = new Stage();
 
 		stage.setOnHiding(windowHandler);
 		stage.setScene(scene);
@@ -104,12 +120,32 @@ public final class View
 	{
 		for (AbstractPane pane : panes)
 			pane.initialize();
+
+		showing = new boolean[panes.size()];
+
+		stage.showingProperty().addListener(showingHandler);
+		stage.iconifiedProperty().addListener(showingHandler);
+
+		for (Tab tab : tabs)
+			tab.selectedProperty().addListener(showingHandler);
+
+		updateShowing();
 	}
 
 	// The controller calls this method when it removes a view.
 	// Unregister event and property listeners for the nodes in the view.
 	public void	terminate()
 	{
+		stage.showingProperty().removeListener(showingHandler);
+		stage.iconifiedProperty().removeListener(showingHandler);
+
+		for (Tab tab : tabs)
+			tab.selectedProperty().removeListener(showingHandler);
+
+		for (int i=0; i<panes.size(); i++)
+			if (showing[i])
+				panes.get(i).setShowing(false);
+
 		for (AbstractPane pane : panes)
 			pane.terminate();
 	}
@@ -122,6 +158,28 @@ public final class View
 			pane.update(key, value);
 	}
 
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	// A pane is seen when its tab is selected in a window that is showing and
+	// not minimized. Tells the panes that changed.
+	private void	updateShowing()
+	{
+		boolean	open = (stage.isShowing() && !stage.isIconified());
+
+		for (int i=0; i<panes.size(); i++)
+		{
+			boolean	seen = (open && tabs.get(i).isSelected());
+
+			if (seen != showing[i])
+			{
+				showing[i] = seen;
+				panes.get(i).setShowing(seen);
+			}
+		}
+	}
+
 	//**********************************************************************
 	// Inner Classes (Event Handlers)
 	//**********************************************************************
@@ -135,6 +193,15 @@ public final class View
 				controller.removeView(View.this);
 		}
 	}
+
+	private final class ShowingHandler
+		implements InvalidationListener
+	{
+		public void	invalidated(Observable observable)
+		{
+			updateShowing();
+		}
+	}
 }
 
 //******************************************************************************
@@ -23,6 +23,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.layout.*;
 import edu.ou.cs.hci.application.fxmvc.Controller;
 import edu.ou.cs.hci.resources.Resources;
+import edu.ou.cs.hci.resources.Thumbnails;
 
 //******************************************************************************
 
@@ -45,6 +46,20 @@ public abstract class AbstractPane
 
 	public static final String	FX_TEXT	= "example/fx/text/";
 
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	// Images shared by all icons of the same file and size
+	private static final HashMap<String, Image>	FX_IMAGES =
+		new HashMap<String, Image>();
+
+	// Data and items shared by all panes that load the same file
+	private static final HashMap<String, List<List<String>>>	FX_DATA =
+		new HashMap<String, List<List<String>>>();
+	private static final HashMap<String, List<List<String>>>	FX_ITEMS =
+		new HashMap<String, List<List<String>>>();
+
 	//**********************************************************************
 	// Private Members
 	//**********************************************************************
@@ -127,6 +142,13 @@ public abstract class AbstractPane
 	{
 	}
 
+	// The view calls this method whenever the pane starts or stops being seen,
+	// as its tab is selected or not, and as its window is shown, minimized, or
+	// hidden. Panes with animations pause them while they aren't seen.
+	public void	setShowing(boolean showing)
+	{
+	}
+
 	//**********************************************************************
 	// Public Class Methods (Resources)
 	//**********************************************************************
@@ -144,9 +166,32 @@ public abstract class AbstractPane
 	// relative to the FX_ICON package. See static member definitions above.
 	public static ImageView	createFXIcon(String url, double w, double h)
 	{
-		Image	image = new Image(FX_ICON + url, w, h, false, true);
+		return new ImageView(getFXImage(url, w, h));
+	}
 
-		return new ImageView(image);
+	// Like createFXImage(), but loads each file at each size only once, and
+	// shares the image among all callers. Must be called on the FX thread.
+	public static Image	getFXImage(String url, double w, double h)
+	{
+		String	key = url + "@" + w + "x" + h;
+		Image	image = FX_IMAGES.get(key);
+
+		if (image == null)
+		{
+			image = createFXImage(url, w, h);
+			FX_IMAGES.put(key, image);
+		}
+
+		return image;
+	}
+
+	// Convenience method to load an image located in resources relative to
+	// the FX_ICON package, scaled to w x h. Decodes the smallest pre-scaled
+	// thumbnail that is large enough, rather than the full-size image.
+	public static Image	createFXImage(String url, double w, double h)
+	{
+		return new Image(Thumbnails.getURL(FX_ICON + url, w, h),
+						 w, h, false, true);
 	}
 
 	public static List<List<String>>	loadFXData(String url)
@@ -168,6 +213,60 @@ public abstract class AbstractPane
 		return data;
 	}
 
+	// Like loadFXData(), but loads each file only once, and shares the data
+	// among all callers. The data can't be changed. Must be called on the FX
+	// thread.
+	public static List<List<String>>	getFXData(String url)
+	{
+		List<List<String>>	data = FX_DATA.get(url);
+
+		if (data == null)
+		{
+			List<List<String>>	records = loadFXData(url);
+
+			for (int i=0; i<records.size(); i++)
+				records.set(i, Collections.unmodifiableList(records.get(i)));
+
+			data = Collections.unmodifiableList(records);
+			FX_DATA.put(url, data);
+		}
+
+		return data;
+	}
+
+	// Like loadFXItems(), but shares the items like getFXData().
+	public static List<List<String>>	getFXItems(String url)
+	{
+		List<List<String>>	items = FX_ITEMS.get(url);
+
+		if (items == null)
+		{
+			items = Collections.unmodifiableList(loadFXItems(url));
+			FX_ITEMS.put(url, items);
+		}
+
+		return items;
+	}
+
+	// Loads items like loadFXData(). To try panes with more items than the
+	// file has, set the fxmvc.items system property to the number wanted,
+	// and the items will be repeated up to that many.
+	public static List<List<String>>	loadFXItems(String url)
+	{
+		List<List<String>>	data = getFXData(url);
+		int					n = Integer.getInteger("fxmvc.items", 0);
+
+		if ((n <= 0) || data.isEmpty())
+			return data;
+
+		List<List<String>>	items = new ArrayList<List<String>>(n);
+
+		for (int i=0; i<n; i++)
+			items.add(data.get(i % data.size()));
+
+		return items;
+	}
+
 	//**********************************************************************
 	// Public Class Methods (Layout)
 	//**********************************************************************
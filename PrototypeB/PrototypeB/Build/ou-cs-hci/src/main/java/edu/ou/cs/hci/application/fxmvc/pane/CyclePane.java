@@ -17,10 +17,15 @@ package edu.ou.cs.hci.application.fxmvc.pane;
 //import java.lang.*;
 import java.util.List;
 import javafx.animation.*;
-import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.value.ObservableValue;
-import javafx.geometry.Insets;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.geometry.*;
 import javafx.scene.*;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.effect.*;
 import javafx.scene.image.ImageView;
@@ -62,9 +67,13 @@ public final class CyclePane extends AbstractPane
 	// Private Class Members (Animation)
 	//**********************************************************************
 
-	private static final double	FRAMERATE = 40.0;
+	private static final double	FRAMERATE = 60.0;
 	private static final Duration	DURATION = Duration.seconds(0.6);
 
+	// Turns the cycle in every window, while any of them is seen
+	private static final SharedClock	ANGLE = new SharedClock(0.0);
+	private static double				target;	// Angle it's turning to
+
 	//**********************************************************************
 	// Private Class Members (Effects)
 	//**********************************************************************
@@ -89,6 +98,20 @@ public final class CyclePane extends AbstractPane
 	private static final Reflection		REFLECTION =
 		new Reflection(10.0, 0.25, 0.50, 0.0);
 
+	// Items blur more toward the bottom of the cycle. The blur is rounded to
+	// one of a few levels, so a few blurs can be shared by all items, and an
+	// item's blur only changes when it crosses to another level.
+	private static final int				BLUR_LEVELS = 8;
+	private static final double			MAX_BLUR = 8.0 * Math.sqrt(0.5);
+	private static final GaussianBlur[]	BLURS = createBlurs();
+
+	// Bytes of sprites kept for drawing in canvas mode
+	private static final long				SPRITE_BUDGET = 64L * 1024L * 1024L;
+
+	// Sprites look the same in every window, so they're made once for all
+	private static final SpriteCache		SPRITES =
+		new SpriteCache(SPRITE_BUDGET);
+
 	//**********************************************************************
 	// Private Members
 	//**********************************************************************
@@ -101,13 +124,32 @@ public final class CyclePane extends AbstractPane
 	private Rectangle				fill;
 	private Group					core;
 	private Group					all;
+	private ItemCanvas				canvas;	// Draws items in canvas mode
+	private boolean				canvasMode;
+
+	// Parts of each item, by index, so layout doesn't search for them
+	private Node[]					items;		// Bordered labels in all
+	private Shape[]				shapes;	// Item borders
+	private Label[]				labels;	// Item labels
+	private Node[]					titles;	// Large labels in core
+
+	// Cosine and sine of each item's angle around the cycle
+	private double[]				cosines;
+	private double[]				sines;
+
+	// What's been applied to the items, so only changes touch them
+	private int[]					blurs;		// Blur level of each item
+	private int					shownTitle = -1;
+	private int					selected = -1;
 
 	// Effects
 	private Light.Spot				spot;
 
 	// Animation
-	private Animation				animation;
-	private SimpleDoubleProperty	angle;
+	private final InvalidationListener		angleHandler = this::changeAngle;
+	private final EventHandler<ActionEvent>	finishedHandler =
+		this::handleAnimationFinished;
+	private final FrameMeter		meter;
 
 	//**********************************************************************
 	// Constructors and Finalizer
@@ -117,7 +159,7 @@ public final class CyclePane extends AbstractPane
 	{
 		super(controller, NAME, HINT);
 
-		angle = new SimpleDoubleProperty();
+		meter = new FrameMeter();
 
 		setBase(buildPane());
 	}
@@ -136,8 +178,8 @@ public final class CyclePane extends AbstractPane
 		scene.widthProperty().addListener(this::changeWidth);
 		scene.heightProperty().addListener(this::changeHeight);
 
-		// Register a method to handle changes to the angle by the animation
-		angle.addListener(this::changeAngle);
+		// Register a method to report on each rotation by the animation
+		ANGLE.addFinishedHandler(finishedHandler);
 
 		// Set up initial background, spotlight, and items based on scene size
 		double		w = scene.getWidth();
@@ -152,7 +194,7 @@ public final class CyclePane extends AbstractPane
 		spot.setPointsAtY(OFFSET);
 
 		updateItemEffects();
-		updateLayout();
+		setCanvasMode((Boolean)controller.get("canvasMode"));
 	}
 
 	// The controller calls this method when it removes a view.
@@ -164,7 +206,8 @@ public final class CyclePane extends AbstractPane
 		scene.widthProperty().removeListener(this::changeWidth);
 		scene.heightProperty().removeListener(this::changeHeight);
 
-		angle.removeListener(this::changeAngle);
+		ANGLE.detach(angleHandler);
+		ANGLE.removeFinishedHandler(finishedHandler);
 	}
 
 	// The controller calls this method whenever something changes in the model.
@@ -173,17 +216,54 @@ public final class CyclePane extends AbstractPane
 	{
 		if ("itemIndex".equals(key))
 		{
-			if (animation != null)					// Restart animation, since
-				animation.stop();					// toAngle has changed.
-
 			int	index = (Integer)value;
 			int	n = all.getChildren().size();
 			double	ninv = 1.0 / n;				// One-nth of the way around
 			double	toAngle = index * ninv;		// New angle to go to
 
-			animation = createAnimation(toAngle);	// Prepare to go there...
-			animation.play();						// ...then go!
+			// The first pane to hear of the change turns the cycle for all,
+			// replacing the animation in case it's still turning elsewhere.
+			if (toAngle != target)
+			{
+				target = toAngle;
+				ANGLE.play(createAnimation(toAngle));
+			}
+
+			updateItemEffects();
+		}
+		else if ("canvasMode".equals(key))
+		{
+			setCanvasMode((Boolean)value);
+		}
+	}
+
+	// The view calls this method whenever the pane starts or stops being seen.
+	public void	setShowing(boolean showing)
+	{
+		if (showing)
+		{
+			ANGLE.attach(angleHandler);
 		}
+		else
+		{
+			ANGLE.detach(angleHandler);
+			meter.stop();
+		}
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	// Level 0 is no blur at all.
+	private static GaussianBlur[]	createBlurs()
+	{
+		GaussianBlur[]	blurs = new GaussianBlur[BLUR_LEVELS];
+
+		for (int i=1; i<BLUR_LEVELS; i++)
+			blurs[i] = new GaussianBlur(MAX_BLUR * i / (BLUR_LEVELS - 1));
+
+		return blurs;
 	}
 
 	//**********************************************************************
@@ -192,18 +272,31 @@ public final class CyclePane extends AbstractPane
 
 	private Pane	buildPane()
 	{
-		data = loadFXData("list-movies.txt");
+		data = getFXItems("list-movies.txt");
 
 		all = new Group();		// Small labels, positioned around the ring
 		core = new Group();	// Large labels, only one visible at a time
 
-		for (List<String> item : data)
+		int	n = data.size();
+
+		items = new Node[n];
+		shapes = new Shape[n];
+		labels = new Label[n];
+		titles = new Node[n];
+		cosines = new double[n];
+		sines = new double[n];
+		blurs = new int[n];
+
+		for (int i=0; i<n; i++)
 		{
+			List<String>	item = data.get(i);
+
 			// Create a small, radially-positioned label for each item
 			ImageView	icon = createFXIcon(item.get(1), W, H);
 			Label		label = new Label(item.get(0), icon);
 
 			label.setTextFill(Color.WHITE);
+			label.setEffect(COLOR_ADJUST);
 			label.setContentDisplay(ContentDisplay.TOP);
 			label.setPrefWidth(W);
 
@@ -230,6 +323,10 @@ public final class CyclePane extends AbstractPane
 
 			all.getChildren().add(one);
 
+			items[i] = one;
+			shapes[i] = shape;
+			labels[i] = label;
+
 			// Create a large, centrally-positioned label for each item
 			ImageView	image = createFXIcon(item.get(1), W * S, H * S);
 
@@ -249,7 +346,15 @@ public final class CyclePane extends AbstractPane
 			// Add padding at the top to offset space used for the reflection
 			title.setPadding(new Insets(H * 0.25, 0.0, 0.0, 0.0));
 
+			title.setVisible(false);
 			core.getChildren().add(title);
+			titles[i] = title;
+
+			// Items are spaced evenly around the cycle
+			double	phi = 2.0 * Math.PI * i / n;
+
+			cosines[i] = Math.cos(phi);
+			sines[i] = Math.sin(phi);
 		}
 
 		// Add a spotlight that looks like the top position is lit by the title
@@ -266,6 +371,12 @@ public final class CyclePane extends AbstractPane
 		// Stack the background, spotlight, titles, and items
 		base = new StackPane(fill, core, all);
 
+		// Or the background and a canvas to draw the titles and items on
+		canvas = new ItemCanvas(n, W + 8.0, H + 28.0);
+		canvas.setCursor(Cursor.HAND);
+		canvas.addEventHandler(MouseEvent.MOUSE_CLICKED,
+							   this::handleCanvasClicked);
+
 		// Try to keep the keyboard focus to allow keypress navigation
 		base.setFocusTraversable(true);
 		base.addEventFilter(KeyEvent.KEY_PRESSED, this::handleKeyPressed);
@@ -275,91 +386,212 @@ public final class CyclePane extends AbstractPane
 		return base;
 	}
 
+	// Brightens the selected item and darkens the one selected before it.
+	// Other items are already dark.
 	private void	updateItemEffects()
 	{
 		int	index = (Integer)controller.get("itemIndex");
-		int	i = 0;
-
-		// For each item, calculate effects for its border and label
-		for (Node one : all.getChildren())
-		{
-			Shape	shape = (Shape)getDescendant(one, 0);
-			Label	label = (Label)getDescendant(one, 1);
-
-			if (i == index)	// Make the selected item brighter
-			{
-				shape.setFill(WHITE_75);
 
-				label.setTextFill(Color.BLACK);
-				label.setEffect(GLOW);
+		if (index == selected)
+			return;
 
-			}
-			else				// Make all other items darker
-			{
-				shape.setFill(WHITE_25);
-
-				label.setTextFill(Color.WHITE);
-				label.setEffect(COLOR_ADJUST);
-			}
+		if ((selected >= 0) && (selected < items.length))
+		{
+			shapes[selected].setFill(WHITE_25);
+			labels[selected].setTextFill(Color.WHITE);
+			labels[selected].setEffect(COLOR_ADJUST);
+		}
 
-			i++;
+		if ((index >= 0) && (index < items.length))
+		{
+			shapes[index].setFill(WHITE_75);
+			labels[index].setTextFill(Color.BLACK);
+			labels[index].setEffect(GLOW);
 		}
+
+		selected = index;
 	}
 
+	// Runs every frame while the cycle rotates. Each item's angle is the
+	// cycle's angle less the item's own, so the cosine and sine come from
+	// the cycle's and the item's by the angle difference identities.
 	private void	updateLayout()
 	{
-		int	n = all.getChildren().size();		// Number of items to layout
-		double	ninv = 1.0 / n;					// One-nth of the way around
+		if (canvasMode)
+		{
+			drawItems();
+			return;
+		}
+
+		int	n = items.length;						// Number of items to layout
 		double	a = 0.45 * (fill.getWidth() - W);	// A bit less than pane w/2
 		double	b = 0.45 * (fill.getHeight() - H);	// A bit less than pane h/2
-		int	i = 0;								// Item number
 
-		// For each item, calculate its angle, position, size, and blurring
-		for (Node one : all.getChildren())
+		// Items are arranged in a cycle, clockwise from the top
+		double	theta = 2.0 * Math.PI * (0.25 + ANGLE.get());
+		double	cos = Math.cos(theta);
+		double	sin = Math.sin(theta);
+
+		// For each item, calculate its position, size, and blurring
+		for (int i=0; i<n; i++)
 		{
-			// Items are arranged in a cycle, clockwise from the top
-			double	phase = 0.25 + angle.get() - i * ninv;	// Normalized angle
-			double	theta = 2.0 * Math.PI * phase;			// Angle in radians
+			Node	one = items[i];
+			double	c = cos * cosines[i] + sin * sines[i];
+			double	d = sin * cosines[i] - cos * sines[i];
 
 			// Position items relative to the center of the pane
-			double	x = a * (1 + Math.cos(theta));			// [0.0, 2.0]
-			double	y = b * (1 - Math.sin(theta));			// [0.0, 2.0]
-
-			one.setTranslateX(x);
-			one.setTranslateY(y);
+			one.setTranslateX(a * (1 + c));		// [0.0, 2.0]
+			one.setTranslateY(b * (1 - d));		// [0.0, 2.0]
 
 			// Size items smaller toward the bottom of the cycle
-			double	s = 0.25 * (3.0 + Math.sin(theta));	// [0.5, 1.0]
+			double	s = 0.25 * (3.0 + d);			// [0.5, 1.0]
 
 			one.setScaleX(s);
 			one.setScaleY(s);
 
 			// Gradually blur items toward bottom of the cycle
-			one.setEffect(new GaussianBlur(8.0 * Math.sqrt(1.0 - s)));
+			double	r = 8.0 * Math.sqrt(Math.max(0.0, 1.0 - s));
+			int		level = (int)Math.round(r / MAX_BLUR * (BLUR_LEVELS - 1));
 
-			i++;
+			if (level != blurs[i])
+			{
+				blurs[i] = level;
+				one.setEffect(BLURS[level]);
+			}
 		}
 
-		int	j = 0;								// Title number
+		// Show only the title of the item closest to the top
+		int	top = getTopItem();
 
-		// There are ninv segments around the cycle, one for each item.
-		// Hide all titles except the one for the item closest to the top.
-		for (Node one : core.getChildren())
+		if (top != shownTitle)
 		{
-			// Angular position of the item around the cycle
-			double	phase = angle.get() - j * ninv;
+			if (shownTitle >= 0)
+				titles[shownTitle].setVisible(false);
+
+			titles[top].setVisible(true);
+			shownTitle = top;
+		}
+	}
+
+	// The item closest to the top of the cycle.
+	private int	getTopItem()
+	{
+		int	n = items.length;
+		int	top = (int)Math.round(ANGLE.get() * n) % n;
+
+		return ((top < 0) ? (top + n) : top);
+	}
 
-			// Half of the top item's segment is at the *end* of the cycle
-			if (phase > 1.0 - ninv)
-				phase -= 1.0;
+	//**********************************************************************
+	// Private Methods (Canvas Mode)
+	//**********************************************************************
+
+	// Shows the items as nodes, or draws them on the canvas. The nodes are
+	// kept either way, but are only in the scene graph when shown.
+	private void	setCanvasMode(boolean canvasMode)
+	{
+		this.canvasMode = canvasMode;
 
-			// Make the title of the top item visible, all others invisible
-			one.setVisible(Math.abs(phase) < 0.5 * ninv);
+		if (canvasMode)
+			base.getChildren().setAll(fill, canvas);
+		else
+			base.getChildren().setAll(fill, core, all);
+
+		updateLayout();
+	}
 
-			j++;
+	// Draws the same layout as updateLayout() does with nodes. Each item is
+	// a sprite of its border and icon, with its effects and blur level, and
+	// sprites are shared by items with the same icon. The cycle is centered
+	// the way the stack pane centers the group of item nodes.
+	private void	drawItems()
+	{
+		int	n = items.length;
+		double	w = fill.getWidth();
+		double	h = fill.getHeight();
+		double	a = 0.45 * (w - W);
+		double	b = 0.45 * (h - H);
+		double	ox = 0.5 * w - a;
+		double	oy = 0.5 * h - b;
+
+		double	theta = 2.0 * Math.PI * (0.25 + ANGLE.get());
+		double	cos = Math.cos(theta);
+		double	sin = Math.sin(theta);
+
+		canvas.setWidth(w);
+		canvas.setHeight(h);
+		canvas.clear();
+
+		// Draw the title of the item closest to the top
+		int						top = getTopItem();
+		SpriteCache.Sprite		title = SPRITES.get("title:" +
+			data.get(top).get(1), () -> createTitleSprite(top));
+		GraphicsContext			gc = canvas.getGraphicsContext2D();
+		double					th = title.getImage().getHeight();
+
+		gc.drawImage(title.getImage(), 0.5 * w - title.getCenterX(),
+					 0.5 * h - title.getCenterY() - 12.0);
+		gc.setFont(FONT);
+		gc.setFill(Color.WHITE);
+		gc.fillText(data.get(top).get(0), 0.5 * w,
+					0.5 * h - title.getCenterY() - 12.0 + th + 4.0, W * S);
+		gc.setFont(Font.getDefault());
+
+		for (int i=0; i<n; i++)
+		{
+			double	c = cos * cosines[i] + sin * sines[i];
+			double	d = sin * cosines[i] - cos * sines[i];
+			double	s = 0.25 * (3.0 + d);
+			double	r = 8.0 * Math.sqrt(Math.max(0.0, 1.0 - s));
+			int		level = (int)Math.round(r / MAX_BLUR * (BLUR_LEVELS - 1));
+			boolean	on = (i == selected);
+			String	icon = data.get(i).get(1);
+
+			SpriteCache.Sprite	sprite = SPRITES.get("item:" + icon + ":" +
+				on + ":" + level, () -> createItemSprite(icon, on, level));
+
+			canvas.draw(i, sprite, ox + a * (1 + c), oy + b * (1 - d), s,
+						data.get(i).get(0), 0.5 * H + 6.0,
+						(on ? Color.BLACK : Color.WHITE));
 		}
 	}
 
+	// An item's border and icon, without the label text. Captions are drawn
+	// separately, since they're different for every item.
+	private Node	createItemSprite(String icon, boolean on, int level)
+	{
+		Rectangle	shape = new Rectangle(W + 4.0, H + 24.0);
+
+		shape.setArcWidth(4.0);
+		shape.setArcHeight(4.0);
+		shape.setFill(on ? WHITE_75 : WHITE_25);
+		shape.setStroke(WHITE_75);
+		shape.setStrokeType(StrokeType.OUTSIDE);
+		shape.setStrokeWidth(2.0);
+
+		ImageView	view = createFXIcon(icon, W, H);
+
+		view.setEffect(on ? GLOW : COLOR_ADJUST);
+
+		StackPane	one = new StackPane(shape, view);
+
+		StackPane.setAlignment(view, Pos.TOP_CENTER);
+		StackPane.setMargin(view, new Insets(2.0, 0.0, 0.0, 0.0));
+		one.setEffect(BLURS[level]);
+
+		return one;
+	}
+
+	private Node	createTitleSprite(int i)
+	{
+		ImageView	image = createFXIcon(data.get(i).get(1), W * S, H * S);
+
+		image.setOpacity(0.75);
+		image.setEffect(REFLECTION);
+
+		return image;
+	}
+
 	//**********************************************************************
 	// Private Methods (Animation)
 	//**********************************************************************
@@ -370,6 +602,7 @@ public final class CyclePane extends AbstractPane
 	{
 		Timeline		timeline = new Timeline(FRAMERATE);
 		List<KeyFrame>	kfs = timeline.getKeyFrames();
+		DoubleProperty	angle = ANGLE.valueProperty();
 		double			fromAngle = angle.get();
 
 		kfs.add(new KeyFrame(DURATION,			// Rotate to destination
@@ -384,6 +617,7 @@ public final class CyclePane extends AbstractPane
 	{
 		Timeline		timeline = new Timeline(FRAMERATE);
 		List<KeyFrame>	kfs = timeline.getKeyFrames();
+		DoubleProperty	angle = ANGLE.valueProperty();
 		double			fromAngle = angle.get();
 		double			delta = Math.abs(toAngle - fromAngle);
 
@@ -454,11 +688,18 @@ public final class CyclePane extends AbstractPane
 
 	// Whenever the angle changes, update positions and features of all items.
 	// The animation repeatedly calls this method with interpolated angles.
-	private void	changeAngle(ObservableValue<? extends Number> observable,
-								Number oldValue, Number newValue)
+	// Listens for invalidation, so values aren't boxed for each frame.
+	private void	changeAngle(Observable observable)
 	{
-		updateItemEffects();
+		meter.begin();
 		updateLayout();
+		meter.end();
+	}
+
+	// Report how smoothly each rotation ran, if this pane saw any of it.
+	private void	handleAnimationFinished(ActionEvent e)
+	{
+		meter.report("cycle");
 	}
 
 	//**********************************************************************
@@ -473,6 +714,15 @@ public final class CyclePane extends AbstractPane
 		int		m = (e.isShiftDown() ? 5 : 1);	// Number of items to rotate
 		int		index = (Integer)controller.get("itemIndex");
 
+		// Switch between drawing items as nodes and on a canvas
+		if (code == KeyCode.C)
+		{
+			controller.set("canvasMode", !canvasMode);
+			e.consume();
+
+			return;
+		}
+
 		switch (code)
 		{
 			case HOME:		index =  0;	break;	// Put first item at the top
@@ -492,6 +742,17 @@ public final class CyclePane extends AbstractPane
 		e.consume();
 	}
 
+	// Rotate the cycle to put the clicked item at the top
+	private void	handleCanvasClicked(MouseEvent e)
+	{
+		int	index = canvas.pick(e.getX(), e.getY());
+
+		if (index >= 0)
+			controller.set("itemIndex", index);
+
+		e.consume();
+	}
+
 	// Try to hold the keyboard focus (the parent TabPane likes to claim it)
 	private void	handleMouseEntered(MouseEvent e)
 	{
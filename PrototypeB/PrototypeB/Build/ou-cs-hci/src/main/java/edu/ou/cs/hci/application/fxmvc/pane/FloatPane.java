@@ -17,12 +17,15 @@ package edu.ou.cs.hci.application.fxmvc.pane;
 //import java.lang.*;
 import java.util.List;
 import javafx.animation.*;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.*;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.effect.*;
 import javafx.scene.image.ImageView;
-import javafx.scene.input.MouseEvent;
+import javafx.scene.input.*;
 import javafx.scene.paint.*;
 import javafx.scene.shape.*;
 import javafx.scene.text.*;
@@ -60,9 +63,12 @@ public final class FloatPane extends AbstractPane
 	// Private Class Members (Animation)
 	//**********************************************************************
 
-	private static final double	FRAMERATE = 40.0;
+	private static final double	FRAMERATE = 60.0;
 	private static final Duration	DURATION = Duration.seconds(5.0);
 
+	// Moves the items in every window, while any of them is seen
+	private static final SharedClock	PHASE = new SharedClock(0.0);
+
 	//**********************************************************************
 	// Private Class Members (Effects)
 	//**********************************************************************
@@ -82,6 +88,13 @@ public final class FloatPane extends AbstractPane
 	private static final Reflection		REFLECTION =
 		new Reflection(10.0, 0.25, 0.50, 0.0);
 
+	// Bytes of sprites kept for drawing in canvas mode
+	private static final long				SPRITE_BUDGET = 64L * 1024L * 1024L;
+
+	// Sprites look the same in every window, so they're made once for all
+	private static final SpriteCache		SPRITES =
+		new SpriteCache(SPRITE_BUDGET);
+
 	//**********************************************************************
 	// Private Members
 	//**********************************************************************
@@ -93,9 +106,23 @@ public final class FloatPane extends AbstractPane
 	private StackPane				base;
 	private Rectangle				fill;
 	private Group					all;
+	private ItemCanvas				canvas;	// Draws items in canvas mode
+	private boolean				canvasMode;
+	private int					selected = -1;
+
+	// Items, in the same order as the data
+	private StackPane[]			items;
+	private Label[]				labels;
+
+	// Start and end points of each item, as translations of its node
+	private double[]				x1;
+	private double[]				y1;
+	private double[]				x2;
+	private double[]				y2;
 
 	// Animation
-	private Animation				animation;
+	private final InvalidationListener	phaseHandler = this::changePhase;
+	private final FrameMeter		meter;
 
 	//**********************************************************************
 	// Constructors and Finalizer
@@ -105,6 +132,8 @@ public final class FloatPane extends AbstractPane
 	{
 		super(controller, NAME, HINT);
 
+		meter = new FrameMeter();
+
 		setBase(buildPane());
 	}
 
@@ -126,16 +155,19 @@ public final class FloatPane extends AbstractPane
 		scene.heightProperty().addListener(this::changeHeight);
 
 		updateItemEffects();
+		updatePoints();
+		setCanvasMode((Boolean)controller.get("canvasMode"));
 
-		animation = createAnimation();
-		animation.play();
+		if (!PHASE.hasAnimation())
+			PHASE.play(createAnimation());
 	}
 
 	// The controller calls this method when it removes a view.
 	// Unregister event and property listeners for the nodes in the view.
 	public void	terminate()
 	{
-		animation.stop();
+		PHASE.detach(phaseHandler);
+		reportMeter();
 
 		Scene	scene = fill.getScene();
 
@@ -148,7 +180,30 @@ public final class FloatPane extends AbstractPane
 	public void	update(String key, Object value)
 	{
 		if ("itemIndex".equals(key))
+		{
 			updateItemEffects();
+
+			if (canvasMode)
+				drawItems();
+		}
+		else if ("canvasMode".equals(key))
+		{
+			setCanvasMode((Boolean)value);
+		}
+	}
+
+	// The view calls this method whenever the pane starts or stops being seen.
+	public void	setShowing(boolean showing)
+	{
+		if (showing)
+		{
+			PHASE.attach(phaseHandler);
+		}
+		else
+		{
+			PHASE.detach(phaseHandler);
+			reportMeter();
+		}
 	}
 
 	//**********************************************************************
@@ -157,12 +212,23 @@ public final class FloatPane extends AbstractPane
 
 	private Pane	buildPane()
 	{
-		data = loadFXData("list-movies.txt");
+		data = getFXItems("list-movies.txt");
+
+		int	n = data.size();
 
 		all = new Group();		// Small labels, moving back and forth randomly
+		items = new StackPane[n];
+		labels = new Label[n];
 
-		for (List<String> item : data)
+		x1 = new double[n];
+		y1 = new double[n];
+		x2 = new double[n];
+		y2 = new double[n];
+
+		for (int i=0; i<n; i++)
 		{
+			List<String>	item = data.get(i);
+
 			// Create a small, randomly-positioned label for each item
 			ImageView		icon = createFXIcon(item.get(1), W, H);
 			Label			label = new Label(item.get(0), icon);
@@ -177,20 +243,13 @@ public final class FloatPane extends AbstractPane
 			label.addEventHandler(MouseEvent.MOUSE_CLICKED,
 								  this::handleMouseClicked);
 
-			// Add a circular halo around each item
-			Circle	shape = new Circle(W + 12.0);
-
-			shape.setFill(WHITE_25);
-
-			shape.setStroke(WHITE_75);
-			shape.setStrokeType(StrokeType.OUTSIDE);
-			shape.setStrokeWidth(2);
-			shape.setEffect(REFLECTION);
-
 			// Put the border and label together, and add it to the set of items
-			StackPane	one = new StackPane(shape, label);
+			StackPane	one = new StackPane(createHalo(), label);
 
 			all.getChildren().add(one);
+
+			items[i] = one;
+			labels[i] = label;
 		}
 
 		// Add a top-to-bottom background gradient
@@ -200,54 +259,154 @@ public final class FloatPane extends AbstractPane
 		// Stack the background, spotlight, titles, and items
 		base = new StackPane(fill, all);
 
+		// Or the background and a canvas to draw the items on
+		canvas = new ItemCanvas(n, 2.0 * (W + 14.0), 2.0 * (W + 14.0));
+		canvas.setCursor(Cursor.HAND);
+		canvas.addEventHandler(MouseEvent.MOUSE_CLICKED,
+							   this::handleCanvasClicked);
+
+		// Keep the keyboard focus, to switch modes
+		base.setFocusTraversable(true);
+		base.addEventFilter(KeyEvent.KEY_PRESSED, this::handleKeyPressed);
+		base.addEventFilter(MouseEvent.MOUSE_ENTERED, this::handleMouseEntered);
+
 		return base;
 	}
 
+	// Add a circular halo around each item
+	private Circle	createHalo()
+	{
+		Circle	shape = new Circle(W + 12.0);
+
+		shape.setFill(WHITE_25);
+
+		shape.setStroke(WHITE_75);
+		shape.setStrokeType(StrokeType.OUTSIDE);
+		shape.setStrokeWidth(2);
+		shape.setEffect(REFLECTION);
+
+		return shape;
+	}
+
+	// Only the old and new selections change.
 	private void	updateItemEffects()
 	{
 		int	index = (Integer)controller.get("itemIndex");
-		int	i = 0;
 
-		// For each item, calculate effects for its node
-		for (Node one : all.getChildren())
+		if (selected >= 0)
+			items[selected].setEffect(null);
+
+		selected = index;
+		items[selected].setEffect(SHADOW);
+	}
+
+	// Calculate random start and end points inside the pane
+	private void	updatePoints()
+	{
+		for (int i=0; i<items.length; i++)
 		{
-			Label	label = (Label)getDescendant(one, 1);
+			x1[i] = W * 0.5 + Math.random() * (fill.getWidth() - INSET);
+			y1[i] = H * 0.5 + Math.random() * (fill.getHeight() - INSET);
+			x2[i] = W * 0.5 + Math.random() * (fill.getWidth() - INSET);
+			y2[i] = H * 0.5 + Math.random() * (fill.getHeight() - INSET);
+		}
+	}
+
+	// Move each item between its start and end points by the current phase.
+	private void	updateLayout()
+	{
+		if (canvasMode)
+		{
+			drawItems();
+			return;
+		}
 
-			if (i == index)
-				one.setEffect(SHADOW);
-			else
-				one.setEffect(null);
+		double	p = PHASE.get();
 
-			i++;
+		for (int i=0; i<items.length; i++)
+		{
+			items[i].setTranslateX(x1[i] + p * (x2[i] - x1[i]));
+			items[i].setTranslateY(y1[i] + p * (y2[i] - y1[i]));
 		}
 	}
 
+	//**********************************************************************
+	// Private Methods (Canvas Mode)
+	//**********************************************************************
+
+	// Shows the items as nodes, or draws them on the canvas. The nodes are
+	// kept either way, but are only in the scene graph when shown.
+	private void	setCanvasMode(boolean canvasMode)
+	{
+		this.canvasMode = canvasMode;
+
+		if (canvasMode)
+			base.getChildren().setAll(fill, canvas);
+		else
+			base.getChildren().setAll(fill, all);
+
+		updateLayout();
+	}
+
+	// Draws the same layout as updateLayout() does with nodes. Each item is
+	// a sprite of its halo and icon, shared by items with the same icon. The
+	// offsets approximate where the stack pane centers the group of nodes,
+	// which spans the random points plus the size of an item.
+	private void	drawItems()
+	{
+		double	p = PHASE.get();
+		double	dx = 0.5 * (INSET - W);
+		double	dy = 0.5 * (INSET - H);
+
+		canvas.setWidth(fill.getWidth());
+		canvas.setHeight(fill.getHeight());
+		canvas.clear();
+
+		for (int i=0; i<items.length; i++)
+		{
+			boolean	on = (i == selected);
+			String	icon = data.get(i).get(1);
+
+			SpriteCache.Sprite	sprite = SPRITES.get("item:" + icon + ":" +
+				on, () -> createItemSprite(icon, on));
+
+			canvas.draw(i, sprite, dx + x1[i] + p * (x2[i] - x1[i]),
+						dy + y1[i] + p * (y2[i] - y1[i]), 1.0,
+						data.get(i).get(0), 0.5 * H + 6.5, Color.WHITE);
+		}
+	}
+
+	// An item's halo and icon, without the label text, placed where the
+	// label puts its icon above the text. Captions are drawn separately.
+	private Node	createItemSprite(String icon, boolean on)
+	{
+		ImageView	view = createFXIcon(icon, W, H);
+
+		view.setTranslateY(-10.5);
+
+		StackPane	one = new StackPane(createHalo(), view);
+
+		one.setEffect(on ? SHADOW : null);
+
+		return one;
+	}
+
 	//**********************************************************************
 	// Private Methods (Animation)
 	//**********************************************************************
 
+	// Animates one phase for all items, rather than a pair of key values for
+	// each one, so the timeline doesn't grow with the number of items.
 	private Animation	createAnimation()
 	{
 		Timeline		timeline = new Timeline(FRAMERATE);
 		List<KeyFrame>	kfs = timeline.getKeyFrames();
 
-		for (Node one : all.getChildren())
-		{
-			// Calculate random start and end points inside the pane
-			double	x1 = W * 0.5 + Math.random() * (fill.getWidth() - INSET);
-			double	y1 = H * 0.5 + Math.random() * (fill.getHeight() - INSET);
-			double	x2 = W * 0.5 + Math.random() * (fill.getWidth() - INSET);
-			double	y2 = H * 0.5 + Math.random() * (fill.getHeight() - INSET);
-
-			kfs.add(new KeyFrame(Duration.ZERO,		// Random start point
-						new KeyValue(one.translateXProperty(), x1),
-						new KeyValue(one.translateYProperty(), y1)));
-			kfs.add(new KeyFrame(DURATION,				// Random end point
-						new KeyValue(one.translateXProperty(), x2,
-									 Interpolator.EASE_BOTH),
-						new KeyValue(one.translateYProperty(), y2,
-									 Interpolator.EASE_BOTH)));
-		}
+		kfs.add(new KeyFrame(Duration.ZERO,			// Start points
+							 new KeyValue(PHASE.valueProperty(), 0.0)));
+		kfs.add(new KeyFrame(DURATION,					// End points
+							 new KeyValue(PHASE.valueProperty(), 1.0,
+										  Interpolator.EASE_BOTH)));
 
 		timeline.setAutoReverse(true);					// Move back and forth
 		timeline.setCycleCount(Animation.INDEFINITE);	// Repeat indefinitely
@@ -259,32 +418,78 @@ public final class FloatPane extends AbstractPane
 	// Private Methods (Change Handlers)
 	//**********************************************************************
 
-	// Whenever the scene resizes, update background and restart animation.
+	// Whenever the scene resizes, update background and item movements.
 	private void	changeWidth(ObservableValue<? extends Number> observable,
 								Number oldValue, Number newValue)
 	{
 		fill.setWidth((Double)newValue);
-
-		animation.stop();					// Restart the animation, since
-		animation = createAnimation();		// item movements depend on size
-		animation.play();
+		updateMovements();
 	}
 
-	// Whenever the scene resizes, update background and restart animation.
+	// Whenever the scene resizes, update background and item movements.
 	private void	changeHeight(ObservableValue<? extends Number> observable,
 								 Number oldValue, Number newValue)
 	{
 		fill.setHeight((Double)newValue - OFFSET);
+		updateMovements();
+	}
 
-		animation.stop();					// Restart the animation, since
-		animation = createAnimation();		// item movements depend on size
-		animation.play();
+	// Pick new points, since item movements depend on size. The shared phase
+	// keeps going, so the items move on from wherever it is.
+	private void	updateMovements()
+	{
+		updatePoints();
+		updateLayout();
+	}
+
+	// The animation repeatedly calls this method with interpolated phases.
+	// Listens for invalidation, so values aren't boxed for each frame.
+	private void	changePhase(Observable observable)
+	{
+		meter.begin();
+		updateLayout();
+		meter.end();
+	}
+
+	// Report how smoothly the items moved while they could be seen. The
+	// animation never finishes, so this happens when the pane is hidden.
+	private void	reportMeter()
+	{
+		meter.report("float");
 	}
 
 	//**********************************************************************
 	// Private Methods (Input Handlers)
 	//**********************************************************************
 
+	// Switch between drawing items as nodes and on a canvas
+	private void	handleKeyPressed(KeyEvent e)
+	{
+		if (e.getCode() != KeyCode.C)
+			return;
+
+		controller.set("canvasMode", !canvasMode);
+
+		e.consume();
+	}
+
+	// Highlight the clicked item
+	private void	handleCanvasClicked(MouseEvent e)
+	{
+		int	index = canvas.pick(e.getX(), e.getY());
+
+		if (index >= 0)
+			controller.set("itemIndex", index);
+
+		e.consume();
+	}
+
+	// Try to hold the keyboard focus (the parent TabPane likes to claim it)
+	private void	handleMouseEntered(MouseEvent e)
+	{
+		base.requestFocus();
+	}
+
 	// Highlight the clicked item
 	private void	handleMouseClicked(MouseEvent e)
 	{
@@ -292,15 +497,8 @@ public final class FloatPane extends AbstractPane
 		int		index = 0;
 
 		// Find the index of the item that has the event source as its label
-		for (Node one : all.getChildren())
-		{
-			Label	label = (Label)getDescendant(one, 1);
-
-			if (label == source)					// Found it!
-				break;
-
-			index++;								// Keep going...
-		}
+		while ((index < labels.length) && (labels[index] != source))
+			index++;
 
 		controller.set("itemIndex", index);
 
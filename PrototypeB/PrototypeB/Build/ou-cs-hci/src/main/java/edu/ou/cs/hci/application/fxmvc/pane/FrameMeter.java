@@ -0,0 +1,131 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.application.fxmvc.pane;
+
+//import java.lang.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>FrameMeter</CODE> class times the frames of an animation. Call
+ * begin() and end() around the work done for each frame, and stop() when the
+ * animation ends. The meter keeps the time between frames, which shows the
+ * frame rate actually reached, and the time spent in each frame's work, which
+ * shows how much of the frame budget the pane itself uses. Panes report
+ * their meters only if the fxmvc.meter system property is set to true.
+ *
+ * @version %I%, %G%
+ */
+public final class FrameMeter
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final boolean	REPORT = Boolean.getBoolean("fxmvc.meter");
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private long	last;			// When the last frame began, or 0
+	private long	start;			// When this frame's work began
+
+	private int	frames;
+	private int	intervals;
+	private long	intervalSum;	// Nanoseconds between frames
+	private long	intervalMax;
+	private long	workSum;		// Nanoseconds of work in frames
+	private long	workMax;
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	public void	begin()
+	{
+		start = System.nanoTime();
+
+		if (last != 0L)
+		{
+			long	interval = start - last;
+
+			intervals++;
+			intervalSum += interval;
+			intervalMax = Math.max(intervalMax, interval);
+		}
+
+		last = start;
+	}
+
+	public void	end()
+	{
+		long	work = System.nanoTime() - start;
+
+		frames++;
+		workSum += work;
+		workMax = Math.max(workMax, work);
+	}
+
+	// Ends the animation. The next frame starts a new interval.
+	public void	stop()
+	{
+		last = 0L;
+	}
+
+	// Ends the animation, prints what the meter saw if reports are on and
+	// there was anything to see, and starts over.
+	public void	report(String name)
+	{
+		stop();
+
+		if (REPORT && (frames > 0))
+			System.out.println(name + ": " + this);
+
+		reset();
+	}
+
+	public void	reset()
+	{
+		last = 0L;
+		frames = 0;
+		intervals = 0;
+		intervalSum = 0L;
+		intervalMax = 0L;
+		workSum = 0L;
+		workMax = 0L;
+	}
+
+	public int	getFrameCount()
+	{
+		return frames;
+	}
+
+	// Average frames per second between frames, or 0 if not known yet.
+	public double	getFrameRate()
+	{
+		return ((intervalSum > 0L) ? (1e9 * intervals / intervalSum) : 0.0);
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		double	k = Math.max(1, intervals);
+		double	m = Math.max(1, frames);
+
+		return String.format("%d frames at %.1f fps, %.2f ms apart " +
+							 "(worst %.2f), %.3f ms of work (worst %.3f)",
+							 frames, getFrameRate(),
+							 intervalSum / k / 1e6, intervalMax / 1e6,
+							 workSum / m / 1e6, workMax / 1e6);
+	}
+}
+
+//******************************************************************************
@@ -17,8 +17,8 @@ package edu.ou.cs.hci.application.fxmvc.pane;
 //import java.lang.*;
 import java.util.List;
 import javafx.animation.*;
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.value.ObservableValue;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.event.*;
 import javafx.geometry.Pos;
 import javafx.scene.*;
@@ -61,6 +61,9 @@ public final class ImagePane extends AbstractPane
 	private static final double	FRAMERATE = 40.0;
 	private static final Duration	DURATION = Duration.seconds(3.0);
 
+	// Scales the selected tile in every window, while any of them is seen
+	private static final SharedClock	SCALE = new SharedClock(1.0);
+
 	//**********************************************************************
 	// Private Class Members (Effects)
 	//**********************************************************************
@@ -80,11 +83,12 @@ public final class ImagePane extends AbstractPane
 
 	// Layout
 	private StackPane				base;
+	private ScrollPane				scrollPane;
 	private TilePane				all;
+	private int					selected = -1;	// Index of styled tile
 
 	// Animation
-	private Animation				animation;
-	private SimpleDoubleProperty	scale;
+	private final InvalidationListener	scaleHandler = this::changeScale;
 
 	// Handlers
 	private final ActionHandler	actionHandler;
@@ -97,8 +101,6 @@ public final class ImagePane extends AbstractPane
 	{
 		super(controller, NAME, HINT);
 
-		scale = new SimpleDoubleProperty(1.0);
-
 		actionHandler = new ActionHandler();
 
 		setBase(buildPane());
@@ -112,19 +114,17 @@ public final class ImagePane extends AbstractPane
 	// Set up the nodes in the view with data accessed through the controller.
 	public void	initialize()
 	{
-		scale.addListener(this::changeScale);
-
 		updateItemEffects();
 
-		animation = createAnimation();
-		animation.play();
+		if (!SCALE.hasAnimation())
+			SCALE.play(createAnimation());
 	}
 
 	// The controller calls this method when it removes a view.
 	// Unregister event and property listeners for the nodes in the view.
 	public void	terminate()
 	{
-		animation.stop();
+		SCALE.detach(scaleHandler);
 	}
 
 	// The controller calls this method whenever something changes in the model.
@@ -135,13 +135,22 @@ public final class ImagePane extends AbstractPane
 			updateItemEffects();
 	}
 
+	// The view calls this method whenever the pane starts or stops being seen.
+	public void	setShowing(boolean showing)
+	{
+		if (showing)
+			SCALE.attach(scaleHandler);
+		else
+			SCALE.detach(scaleHandler);
+	}
+
 	//**********************************************************************
 	// Private Methods (Layout)
 	//**********************************************************************
 
 	private Pane	buildPane()
 	{
-		data = loadFXData("list-movies.txt");
+		data = getFXItems("list-movies.txt");
 
 		all = new TilePane(8.0, 8.0);
 
@@ -155,53 +164,69 @@ public final class ImagePane extends AbstractPane
 			button.setContentDisplay(ContentDisplay.TOP);
 			button.setPrefWidth(H);	// *Want* height here (not a mistake!)
 
+			// Start unselected; updateItemEffects() styles the selection
+			button.setTextFill(Color.GRAY);
+			icon.setEffect(COLOR_ADJUST);
+
 			button.setOnAction(actionHandler);
 
 			all.getChildren().add(button);
 		}
 
 		// Put the box full width in a scroll pane set for vertical scrolling
-		ScrollPane		scrollPane = new ScrollPane(all);
+		scrollPane = new ScrollPane(all);
 
 		scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.ALWAYS);
 		scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
 		scrollPane.setFitToWidth(true);
 
+		// Stop the skin caching the tiles as one image, whenever it makes one
+		scrollPane.skinProperty().addListener(this::changeSkin);
+
 		base = new StackPane(scrollPane);
 
 		return base;
 	}
 
+	// Only the old and new selections change. Every other tile keeps the
+	// unselected style it was built with.
 	private void	updateItemEffects()
 	{
 		int	index = (Integer)controller.get("itemIndex");
-		int	i = 0;
 
-		// For each item, calculate effects for its node
-		for (Node one : all.getChildren())
+		if (index == selected)
+			return;
+
+		if (selected >= 0)
 		{
-			Button		button = (Button)one;
+			Button		button = (Button)all.getChildren().get(selected);
 			ImageView	icon = (ImageView)button.getGraphic();
 
-			if (i == index)
-			{
-				button.setTextFill(Color.BLACK);
+			button.setTextFill(Color.GRAY);
 
-				icon.setOpacity(Math.abs(scale.get()));
-				icon.setScaleX(scale.get());
-				icon.setEffect(GLOW);
-			}
-			else
-			{
-				button.setTextFill(Color.GRAY);
+			icon.setOpacity(1.0);
+			icon.setScaleX(1.0);
+			icon.setEffect(COLOR_ADJUST);
+		}
 
-				icon.setOpacity(1.0);
-				icon.setScaleX(1.0);
-				icon.setEffect(COLOR_ADJUST);
-			}
+		selected = index;
 
-			i++;
-		}
+		Button	button = (Button)all.getChildren().get(selected);
+
+		button.setTextFill(Color.BLACK);
+		((ImageView)button.getGraphic()).setEffect(GLOW);
+
+		updateSelectedScale();
+	}
+
+	// The animation only flips the icon of the selected tile.
+	private void	updateSelectedScale()
+	{
+		Button		button = (Button)all.getChildren().get(selected);
+		ImageView	icon = (ImageView)button.getGraphic();
+
+		icon.setOpacity(Math.abs(SCALE.get()));
+		icon.setScaleX(SCALE.get());
 	}
 
 	//**********************************************************************
@@ -214,7 +239,8 @@ public final class ImagePane extends AbstractPane
 		List<KeyFrame>	kfs = timeline.getKeyFrames();
 
 		kfs.add(new KeyFrame(DURATION,
-					new KeyValue(scale, -1.0, Interpolator.EASE_BOTH)));
+					new KeyValue(SCALE.valueProperty(), -1.0,
+								 Interpolator.EASE_BOTH)));
 
 		timeline.setAutoReverse(true);					// Scale back and forth
 		timeline.setCycleCount(Animation.INDEFINITE);	// ...indefinitely!
@@ -226,10 +252,24 @@ public final class ImagePane extends AbstractPane
 	// Private Methods (Change Handlers)
 	//**********************************************************************
 
-	private void	changeScale(ObservableValue<? extends Number> observable,
-								Number oldValue, Number newValue)
+	// Listens for invalidation, so values aren't boxed for each frame.
+	private void	changeScale(Observable observable)
 	{
-		updateItemEffects();
+		updateSelectedScale();
+	}
+
+	// The scroll pane's skin caches its viewport, so any change to a tile,
+	// even scaling one icon, repaints the cache by rendering every tile. Not
+	// caching lets each frame repaint only the selected tile.
+	private void	changeSkin(Observable observable)
+	{
+		if (scrollPane.getSkin() == null)
+			return;
+
+		Node	viewport = scrollPane.lookup(".viewport");
+
+		if (viewport != null)
+			viewport.setCache(false);
 	}
 
 	//**********************************************************************
@@ -0,0 +1,115 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.application.fxmvc.pane;
+
+//import java.lang.*;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.*;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>ItemCanvas</CODE> class draws the items of an item pane, such as
+ * the CyclePane or FloatPane, as sprites on one canvas instead of as nodes.
+ * Each item is a sprite with a caption under it, drawn at a center and scale.
+ * The canvas remembers where it drew each item in the last frame, so clicks
+ * can be mapped back to items, topmost first.
+ *
+ * @version %I%, %G%
+ */
+public final class ItemCanvas extends Canvas
+{
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final double	hw;		// Half of an item's width
+	private final double	hh;		// Half of an item's height
+
+	// Items in the order drawn, and where they were drawn
+	private final int[]	order;
+	private final double[]	x;
+	private final double[]	y;
+	private final double[]	s;
+	private int			count;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	// For n items, each w x h at full scale.
+	public ItemCanvas(int n, double w, double h)
+	{
+		hw = 0.5 * w;
+		hh = 0.5 * h;
+
+		order = new int[n];
+		x = new double[n];
+		y = new double[n];
+		s = new double[n];
+
+		GraphicsContext	gc = getGraphicsContext2D();
+
+		gc.setTextAlign(TextAlignment.CENTER);
+		gc.setTextBaseline(VPos.BASELINE);
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// Starts a frame.
+	public void	clear()
+	{
+		GraphicsContext	gc = getGraphicsContext2D();
+
+		gc.setTransform(1.0, 0.0, 0.0, 1.0, 0.0, 0.0);
+		gc.clearRect(0.0, 0.0, getWidth(), getHeight());
+		count = 0;
+	}
+
+	// Draws item i centered at (cx, cy) at scale k. The caption is drawn
+	// centered at ty below the center, before scaling.
+	public void	draw(int i, SpriteCache.Sprite sprite, double cx, double cy,
+					 double k, String caption, double ty, Paint paint)
+	{
+		GraphicsContext	gc = getGraphicsContext2D();
+
+		gc.setTransform(k, 0.0, 0.0, k, cx, cy);
+		gc.drawImage(sprite.getImage(), -sprite.getCenterX(),
+					 -sprite.getCenterY());
+
+		if (caption != null)
+		{
+			gc.setFill(paint);
+			gc.fillText(caption, 0.0, ty, 2.0 * hw);
+		}
+
+		gc.setTransform(1.0, 0.0, 0.0, 1.0, 0.0, 0.0);
+
+		order[count] = i;
+		x[count] = cx;
+		y[count] = cy;
+		s[count] = k;
+		count++;
+	}
+
+	// The topmost item drawn at (px, py) in the last frame, or -1 if none.
+	public int	pick(double px, double py)
+	{
+		for (int j=count-1; j>=0; j--)
+			if ((Math.abs(px - x[j]) <= hw * s[j]) &&
+				(Math.abs(py - y[j]) <= hh * s[j]))
+				return order[j];
+
+		return -1;
+	}
+}
+
+//******************************************************************************
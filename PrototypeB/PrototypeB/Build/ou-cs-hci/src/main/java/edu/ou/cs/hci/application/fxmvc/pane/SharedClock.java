@@ -0,0 +1,150 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.application.fxmvc.pane;
+
+//import java.lang.*;
+import java.util.ArrayList;
+import javafx.animation.Animation;
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+
+//******************************************************************************
+
+/**
+ * The <CODE>SharedClock</CODE> class animates one value for all the panes of
+ * a kind, in every window, so each window doesn't run a timeline of its own.
+ * A pane attaches a listener to the value while it can be seen, and detaches
+ * it while it can't, such as when its tab isn't selected or its window is
+ * minimized. The animation only runs while some pane is attached, and picks
+ * up where it left off when one attaches again. A pane that attaches hears
+ * about the value right away, to catch up on changes it missed. Must be used
+ * on the JavaFX thread.
+ *
+ * @version %I%, %G%
+ */
+public final class SharedClock
+{
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final SimpleDoubleProperty						value;
+	private final ArrayList<InvalidationListener>			listeners;
+	private final ArrayList<EventHandler<ActionEvent>>		finishers;
+
+	private Animation										animation;
+	private boolean										pending;	// Not done
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public SharedClock(double initial)
+	{
+		value = new SimpleDoubleProperty(initial);
+		listeners = new ArrayList<InvalidationListener>();
+		finishers = new ArrayList<EventHandler<ActionEvent>>();
+	}
+
+	//**********************************************************************
+	// Getters and Setters
+	//**********************************************************************
+
+	// The animations given to play() should animate this property.
+	public DoubleProperty	valueProperty()
+	{
+		return value;
+	}
+
+	public double	get()
+	{
+		return value.get();
+	}
+
+	public boolean	hasAnimation()
+	{
+		return (animation != null);
+	}
+
+	public boolean	isAttached()
+	{
+		return !listeners.isEmpty();
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// Replaces the animation. It plays now if any pane is attached, or as soon
+	// as one attaches.
+	public void	play(Animation animation)
+	{
+		if (this.animation != null)
+			this.animation.stop();
+
+		this.animation = animation;
+		pending = true;
+
+		animation.setOnFinished(this::handleFinished);
+
+		if (isAttached())
+			animation.play();
+	}
+
+	public void	attach(InvalidationListener listener)
+	{
+		if (listeners.contains(listener))
+			return;
+
+		listeners.add(listener);
+		value.addListener(listener);
+		listener.invalidated(value);
+
+		if ((listeners.size() == 1) && pending)
+			animation.play();
+	}
+
+	public void	detach(InvalidationListener listener)
+	{
+		if (!listeners.remove(listener))
+			return;
+
+		value.removeListener(listener);
+
+		if (listeners.isEmpty() && pending)
+			animation.pause();
+	}
+
+	// Handlers hear when an animation finishes, whether attached or not.
+	public void	addFinishedHandler(EventHandler<ActionEvent> handler)
+	{
+		finishers.add(handler);
+	}
+
+	public void	removeFinishedHandler(EventHandler<ActionEvent> handler)
+	{
+		finishers.remove(handler);
+	}
+
+	//**********************************************************************
+	// Private Methods (Event Handlers)
+	//**********************************************************************
+
+	private void	handleFinished(ActionEvent e)
+	{
+		pending = false;
+
+		for (EventHandler<ActionEvent> handler :
+				 new ArrayList<EventHandler<ActionEvent>>(finishers))
+			handler.handle(e);
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,188 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.application.fxmvc.pane;
+
+//import java.lang.*;
+import java.util.*;
+import java.util.function.Supplier;
+import javafx.geometry.Bounds;
+import javafx.scene.*;
+import javafx.scene.image.*;
+import javafx.scene.paint.Color;
+
+//******************************************************************************
+
+/**
+ * The <CODE>SpriteCache</CODE> class keeps images of nodes, such as an item
+ * drawn with its border and effects, for drawing onto a canvas. A sprite is
+ * made by taking a snapshot of a node the first time it's asked for, and is
+ * shared by every item that asks for it with the same key. Each sprite knows
+ * where the center of its node's layout is in it, since effects such as
+ * reflections and shadows make the image larger than the node on some sides.
+ * Sprites are kept least recently used first, and evicted once their pixels
+ * take more than a budget. Must be used on the JavaFX thread.
+ *
+ * @version %I%, %G%
+ */
+public final class SpriteCache
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final SnapshotParameters	PARAMETERS =
+		new SnapshotParameters();
+
+	static
+	{
+		PARAMETERS.setFill(Color.TRANSPARENT);
+	}
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final LinkedHashMap<String, Sprite>	cache;
+	private final long							budget;	// Bytes of pixels
+	private long								bytes;
+
+	// Statistics
+	private long								hits;
+	private long								misses;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public SpriteCache(long budget)
+	{
+		this.budget = budget;
+
+		cache = new LinkedHashMap<String, Sprite>(256, 0.75f, true);
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// The sprite for the key, made from the supplied node if it isn't cached.
+	public Sprite	get(String key, Supplier<Node> factory)
+	{
+		Sprite	sprite = cache.get(key);
+
+		if (sprite != null)
+		{
+			hits++;
+			return sprite;
+		}
+
+		misses++;
+		sprite = createSprite(factory.get());
+		cache.put(key, sprite);
+		bytes += sizeOf(sprite.image);
+
+		// Evict least recently used sprites until back under budget
+		Iterator<Sprite>	it = cache.values().iterator();
+
+		while ((bytes > budget) && it.hasNext())
+		{
+			Sprite	old = it.next();
+
+			if (old == sprite)
+				continue;
+
+			bytes -= sizeOf(old.image);
+			it.remove();
+		}
+
+		return sprite;
+	}
+
+	public void	clear()
+	{
+		cache.clear();
+		bytes = 0L;
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return cache.size() + " sprites, " + (bytes / 1024L) + " of " +
+			(budget / 1024L) + " KB, " + hits + " hits, " + misses + " misses";
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	// Lays out the node in a scene of its own, since it isn't shown, then
+	// takes a snapshot of everything it draws, effects included.
+	private static Sprite	createSprite(Node node)
+	{
+		Group	root = new Group(node);
+
+		new Scene(root);
+		root.applyCss();
+		root.layout();
+
+		Bounds	drawn = node.getBoundsInParent();
+		Bounds	laid = node.getLayoutBounds();
+		Image	image = node.snapshot(PARAMETERS, null);
+
+		return new Sprite(image,
+			node.getLayoutX() + laid.getMinX() + 0.5 * laid.getWidth() -
+			drawn.getMinX(),
+			node.getLayoutY() + laid.getMinY() + 0.5 * laid.getHeight() -
+			drawn.getMinY());
+	}
+
+	private static long	sizeOf(Image image)
+	{
+		return 4L * (long)image.getWidth() * (long)image.getHeight();
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	/**
+	 * An image of a node, and where the center of the node's layout is in it.
+	 */
+	public static final class Sprite
+	{
+		private final Image	image;
+		private final double	x;
+		private final double	y;
+
+		private Sprite(Image image, double x, double y)
+		{
+			this.image = image;
+			this.x = x;
+			this.y = y;
+		}
+
+		public Image	getImage()
+		{
+			return image;
+		}
+
+		public double	getCenterX()
+		{
+			return x;
+		}
+
+		public double	getCenterY()
+		{
+			return y;
+		}
+	}
+}
+
+//******************************************************************************
@@ -17,13 +17,13 @@ package edu.ou.cs.hci.application.fxmvc.pane;
 //import java.lang.*;
 import java.util.List;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.*;
 import javafx.event.*;
 import javafx.geometry.*;
 import javafx.scene.*;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.effect.*;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
@@ -132,7 +132,7 @@ public final class TablePane extends AbstractPane
 
 	private Pane	buildPane()
 	{
-		data = loadFXData("list-movies.txt");
+		data = getFXData("list-movies.txt");
 
 		// Transfer the data into an ObservableList to use as the table model
 		ObservableList<Record>	records = FXCollections.observableArrayList();
@@ -147,7 +147,7 @@ public final class TablePane extends AbstractPane
 		nameColumn.setEditable(false);
 		nameColumn.setPrefWidth(250);
 		nameColumn.setCellValueFactory(
-			new PropertyValueFactory<Record, String>("name"));
+			p -> p.getValue().nameProperty());
 		nameColumn.setCellFactory(new NameCellFactory());
 
 		// Create a column for movie posters
@@ -157,7 +157,7 @@ public final class TablePane extends AbstractPane
 		iconColumn.setEditable(false);
 		iconColumn.setPrefWidth(W + 16.0);
 		iconColumn.setCellValueFactory(
-			new PropertyValueFactory<Record, String>("icon"));
+			p -> p.getValue().iconProperty());
 		iconColumn.setCellFactory(new IconCellFactory());
 
 		// Create the table from the columns
@@ -245,6 +245,16 @@ public final class TablePane extends AbstractPane
 		{
 			this.icon.set(v);
 		}
+
+		public StringProperty	nameProperty()
+		{
+			return name;
+		}
+
+		public StringProperty	iconProperty()
+		{
+			return icon;
+		}
 	}
 
 	//**********************************************************************
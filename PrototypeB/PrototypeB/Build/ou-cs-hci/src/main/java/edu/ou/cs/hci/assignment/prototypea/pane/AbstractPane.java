@@ -46,6 +46,14 @@ public abstract class AbstractPane
 
 	public static final String	FX_TEXT	= "example/fx/text/";
 
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	// Images shared by all icons of the same file and size, in every window
+	private static final HashMap<String, Image>	FX_IMAGES =
+		new HashMap<String, Image>();
+
 	//**********************************************************************
 	// Private Members
 	//**********************************************************************
@@ -145,9 +153,23 @@ public abstract class AbstractPane
 	// relative to the FX_ICON package. See static member definitions above.
 	public static ImageView	createFXIcon(String url, double w, double h)
 	{
-		Image	image = new Image(FX_ICON + url, w, h, false, true);
+		return new ImageView(getFXImage(url, w, h));
+	}
 
-		return new ImageView(image);
+	// Loads each file at each size only once, and shares the image among all
+	// callers. Must be called on the FX thread.
+	public static Image	getFXImage(String url, double w, double h)
+	{
+		String	key = url + "@" + w + "x" + h;
+		Image	image = FX_IMAGES.get(key);
+
+		if (image == null)
+		{
+			image = new Image(FX_ICON + url, w, h, false, true);
+			FX_IMAGES.put(key, image);
+		}
+
+		return image;
 	}
 
 	// Convenience method to slurp a basic comma separated values (CSV) file
@@ -0,0 +1,756 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.io.*;
+import java.util.*;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.*;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Callback;
+import edu.ou.cs.hci.assignment.prototypeb.MovieStore.Row;
+import edu.ou.cs.hci.resources.Resources;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Benchmark</CODE> class runs rough, standalone measurements of the
+ * data structures behind PrototypeB, without starting the user interface. Pass
+ * the names of the benchmarks to run as arguments, or nothing to run them all.
+ * Results are only indicative. Run with a fixed heap (-Xms = -Xmx) for more
+ * stable memory numbers.
+ *
+ * @version %I%, %G%
+ */
+public final class Benchmark
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final int	ROWS = 100000;
+
+	// Movies searched, and the distinct extra title words spread over them
+	private static final int	SEARCH_ROWS = 1000000;
+	private static final int	SEARCH_WORDS = 50000;
+
+	// Movies sorted, small and large
+	private static final int[]	SORT_ROWS = { 100000, 1000000 };
+
+	// Queries as typed one key at a time, then a few whole ones
+	private static final String[]	QUERIES =
+	{
+		"b", "bo", "bon", "bond", "bond c", "bond ca", "bond cas",
+		"m", "ma", "mat", "math", "agent", "the", "w123",
+	};
+
+	// Visible rows and columns in a typical CollectionPane table
+	private static final int	VISIBLE_ROWS = 40;
+
+	// Keys handled by each pane, about as many as EditorPane handles
+	private static final int	KEYS_PER_PANE = 20;
+
+	// Changes dispatched per timing
+	private static final int	CHANGES = 200000;
+
+	//**********************************************************************
+	// Main
+	//**********************************************************************
+
+	public static void	main(String[] args)
+	{
+		List<String>	names = Arrays.asList(args);
+		boolean		all = names.isEmpty();
+
+		if (all || names.contains("movies"))
+			benchmarkMovies(ROWS);
+
+		if (all || names.contains("dispatch"))
+			benchmarkDispatch();
+
+		if (all || names.contains("search"))
+			benchmarkSearch(SEARCH_ROWS);
+
+		if (all || names.contains("facets"))
+			benchmarkFacets(SEARCH_ROWS);
+
+		if (all || names.contains("sort"))
+			for (int n : SORT_ROWS)
+				benchmarkSort(n);
+
+		if (all || names.contains("cells"))
+			benchmarkCells(ROWS);
+
+		if (all || names.contains("catalog"))
+			benchmarkCatalog(SEARCH_ROWS);
+	}
+
+	//**********************************************************************
+	// Private Class Methods (Benchmarks)
+	//**********************************************************************
+
+	// Compares the heap retained by movies built in eager and lazy mode. The
+	// lazy case is also measured after creating properties for the cells of
+	// a screenful of table rows, which is what the CollectionPane does. The
+	// movies are the row views of a store, which is what the application
+	// uses, measured apart from the store's columns.
+	private static void	benchmarkMovies(int n)
+	{
+		System.out.println("movies: " + n + " rows");
+
+		for (int pass=0; pass<2; pass++)		// First pass warms up
+		{
+			long[]	eager = measureRows(n, true);
+			long[]	lazy = measureRows(n, false);
+
+			report(pass, "eager", eager[0], n);
+			report(pass, "lazy", lazy[0], n);
+			report(pass, "lazy+visible", lazy[1], n);
+		}
+	}
+
+	// Compares the cost of passing a change to every pane in every view, each
+	// checking the key against its own list, with routing it only to the panes
+	// that subscribe to it. Each pane here subscribes to its own key prefix,
+	// like EditorPane does with "movie.*".
+	private static void	benchmarkDispatch()
+	{
+		int[]	viewCounts = { 1, 4, 16 };
+		int[]	paneCounts = { 2, 8, 32 };
+
+		System.out.println("dispatch: " + KEYS_PER_PANE + " keys per pane");
+		System.out.printf("  %5s %5s %14s %14s%n",
+						  "views", "panes", "broadcast ns", "routed ns");
+
+		for (int pass=0; pass<2; pass++)		// First pass warms up
+		{
+			for (int v : viewCounts)
+			{
+				for (int p : paneCounts)
+				{
+					Handler[][]		handlers = new Handler[v][p];
+					Router<Handler>	router = new Router<Handler>();
+
+					for (int i=0; i<v; i++)
+					{
+						for (int j=0; j<p; j++)
+						{
+							handlers[i][j] = new Handler(j);
+							router.subscribe(handlers[i][j], "pane" + j + ".*");
+						}
+					}
+
+					String[]	changes = createChanges(p);
+					long		t0 = System.nanoTime();
+
+					for (String key : changes)
+						for (int i=0; i<v; i++)
+							for (int j=0; j<p; j++)
+								handlers[i][j].update(key, key);
+
+					long		t1 = System.nanoTime();
+
+					for (String key : changes)
+						for (int slot : router.route(key))
+							router.getSubscriber(slot).update(key, key);
+
+					long		t2 = System.nanoTime();
+
+					if (pass == 1)
+						System.out.printf("  %5d %5d %14.1f %14.1f%n", v, p,
+										  (t1 - t0) / (double)CHANGES,
+										  (t2 - t1) / (double)CHANGES);
+				}
+			}
+		}
+	}
+
+	// Times searches as the CollectionPane does them while the user types:
+	// finding the matching rows in the index, then putting those rows into
+	// the list behind the table.
+	private static void	benchmarkSearch(int n)
+	{
+		MovieStore		store = buildStore(n);
+		List<String>	genres = Resources.getLines(Catalog.GENRES);
+		List<String>	ratings = Resources.getLines(Catalog.RATINGS);
+
+		long		m0 = usedMemory();
+		MovieIndex	index = new MovieIndex(store, genres.size(), ratings);
+		long		m1 = usedMemory();
+
+		System.out.println("search: " + index + ", ~" +
+						   ((m1 - m0) / 1024L) + " KB");
+
+		ObservableList<Row>	shown =
+			FXCollections.observableArrayList(store.asList());
+
+		System.out.printf("  %-10s %8s %10s %10s%n",
+						  "query", "hits", "search ms", "show ms");
+
+		for (int pass=0; pass<3; pass++)		// First passes warm up
+		{
+			for (String query : QUERIES)
+				timeSearch(pass == 2, index, store, shown, query, 0, 0);
+
+			// Facets alone, then facets with text
+			timeSearch(pass == 2, index, store, shown, "", 1 << 7, 1 << 2);
+			timeSearch(pass == 2, index, store, shown, "the", 1 << 7, 1 << 2);
+			timeSearch(pass == 2, index, store, shown, "", 0, 0);
+		}
+
+		if (shown.size() != n)
+			System.out.println("  unexpected size " + shown.size());
+	}
+
+	private static void	timeSearch(boolean print, MovieIndex index,
+									MovieStore store, ObservableList<Row> shown,
+									String query, int genres, int ratings)
+	{
+		MovieFacets.Query	q = new MovieFacets.Query(genres, false, 0,
+								ratings, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+		long			t0 = System.nanoTime();
+		MovieIndex.Hits	hits = index.search(query, q);
+		long			t1 = System.nanoTime();
+
+		int[]	rows = hits.toRows();
+		Row[]	items = new Row[rows.length];
+
+		for (int j=0; j<rows.length; j++)
+			items[j] = store.getRow(rows[j]);
+
+		shown.setAll(items);
+
+		long			t2 = System.nanoTime();
+
+		if (print)
+			System.out.printf("  %-10s %8d %10.2f %10.2f%n",
+							  "\"" + query + "\"" +
+							  ((genres != 0) ? "+facets" : ""),
+							  hits.size(), (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+	}
+
+	// Compares finding movies and counting their facets with bitmaps to
+	// doing the same by looking at every row, for a few sidebar selections.
+	private static void	benchmarkFacets(int n)
+	{
+		MovieStore		store = buildStore(n);
+		List<String>	genres = Resources.getLines(Catalog.GENRES);
+		List<String>	ratings = Resources.getLines(Catalog.RATINGS);
+
+		long			t0 = System.nanoTime();
+		long			m0 = usedMemory();
+		MovieFacets		facets = new MovieFacets(store, genres.size(), ratings);
+		long			m1 = usedMemory();
+		long			t1 = System.nanoTime();
+
+		System.out.println("facets: " + facets + " built in " +
+						   ((t1 - t0) / 1000000L) + " ms, ~" +
+						   ((m1 - m0) / 1024L) + " KB");
+
+		int	scifiAction = (1 << 7) | (1 << 0);
+		int	color = (1 << MovieStore.IS_COLOR);
+		int	colorDirecting = color | (1 << MovieStore.AWARD_DIRECTING);
+
+		MovieFacets.Query[]	queries = new MovieFacets.Query[]
+		{
+			new MovieFacets.Query(0, false, 0, 0, 1900, 2040),
+			new MovieFacets.Query(1 << 3, false, 0, 0, 1900, 2040),
+			new MovieFacets.Query(scifiAction, true, color, 0, 1900, 2040),
+			new MovieFacets.Query(1 << 3, true, colorDirecting, 0, 1900, 2040),
+			new MovieFacets.Query((1 << 1) | (1 << 6), false, 0, 0x6,
+								  1900, 2040),
+			new MovieFacets.Query(0, false, 1 << MovieStore.IS_ANIMATED, 0,
+								  2000, 2004),
+		};
+
+		System.out.printf("  %-8s %8s %10s %10s%n",
+						  "query", "hits", "bitmap ms", "scan ms");
+
+		for (int pass=0; pass<10; pass++)		// First passes warm up
+		{
+			for (int k=0; k<queries.length; k++)
+			{
+				long				s0 = System.nanoTime();
+				MovieFacets.Result	result = facets.select(queries[k], null);
+				long				s1 = System.nanoTime();
+				int				hits = scanFacets(store, queries[k], ratings,
+												  genres.size());
+				long				s2 = System.nanoTime();
+
+				int	count = 0;
+
+				for (long w : result.getBits())
+					count += Long.bitCount(w);
+
+				if (count != hits)
+					System.out.println("  mismatch " + count + " " + hits);
+
+				if (pass == 9)
+					System.out.printf("  %-8s %8d %10.2f %10.2f%n",
+									  "#" + k, count, (s1 - s0) / 1e6,
+									  (s2 - s1) / 1e6);
+			}
+		}
+	}
+
+	// Finds and counts facets the slow way, for comparison.
+	private static int	scanFacets(MovieStore store, MovieFacets.Query q,
+								   List<String> ratings, int genreCount)
+	{
+		int		genres = q.getGenres();
+		boolean	genresAll = q.isGenresAll();
+		int		flags = q.getFlags();
+		int		rmask = q.getRatings();
+		int		yearMin = q.getYearMin();
+		int		yearMax = q.getYearMax();
+
+		int[]	gcounts = new int[genreCount];
+		int[]	fcounts = new int[MovieStore.FLAG_COUNT];
+		int[]	rcounts = new int[ratings.size()];
+		int		hits = 0;
+
+		for (int i=0; i<store.size(); i++)
+		{
+			int		genre = store.getGenre(i);
+			int		rating = ratings.indexOf(store.getRating(i));
+			int		year = store.getYear(i);
+			boolean	g = ((genres == 0) || (genresAll ?
+				((genre & genres) == genres) : ((genre & genres) != 0)));
+			boolean	r = ((rmask == 0) ||
+				((rating >= 0) && ((rmask & (1 << rating)) != 0)));
+			boolean	f = true;
+
+			for (int k=0; k<MovieStore.FLAG_COUNT; k++)
+				if (((flags & (1 << k)) != 0) && !store.getFlag(k, i))
+					f = false;
+
+			if (!g || !r || !f || (year < yearMin) || (year > yearMax))
+				continue;
+
+			hits++;
+
+			for (int k=0; k<genreCount; k++)
+				if ((genre & (1 << k)) != 0)
+					gcounts[k]++;
+
+			for (int k=0; k<MovieStore.FLAG_COUNT; k++)
+				if (store.getFlag(k, i))
+					fcounts[k]++;
+
+			if (rating >= 0)
+				rcounts[rating]++;
+		}
+
+		return hits;
+	}
+
+	// Times sorting all rows by the table's columns, with the keys made once
+	// by a MovieSorter, and the same sorts done the way a SortedList behind
+	// the table would do them, through cell value factories.
+	private static void	benchmarkSort(int n)
+	{
+		MovieStore		store = buildStore(n);
+		List<String>	genres = Resources.getLines(Catalog.GENRES);
+
+		store.setGenreLabels(new GenreLabels(genres));
+
+		long			m0 = usedMemory();
+		MovieSorter		sorter = new MovieSorter(store);
+		long			m1 = usedMemory();
+
+		System.out.println("sort: " + sorter + ", ~" +
+						   ((m1 - m0) / 1024L) + " KB");
+
+		int[]	rows = new int[n];
+
+		for (int i=0; i<n; i++)
+			rows[i] = i;
+
+		int[][]		columns = new int[][]
+		{
+			{ MovieSorter.TITLE },
+			{ MovieSorter.YEAR, MovieSorter.TITLE },
+			{ MovieSorter.GENRE, MovieSorter.DIRECTOR, MovieSorter.YEAR },
+			{ MovieSorter.DIRECTOR },
+		};
+		boolean[][]	descending = new boolean[][]
+		{
+			{ false },
+			{ true, false },
+			{ false, false, false },
+			{ true },
+		};
+		String[]	names = new String[]
+		{
+			"title", "-year,title", "genre,director,year", "-director",
+		};
+
+		System.out.printf("  %-20s %10s%n", "columns", "sort ms");
+
+		for (int pass=0; pass<5; pass++)		// First passes warm up
+		{
+			for (int k=0; k<columns.length; k++)
+			{
+				long	t0 = System.nanoTime();
+				int[]	sorted = sorter.sort(rows, columns[k], descending[k]);
+				long	t1 = System.nanoTime();
+
+				if (sorted.length != n)
+					System.out.println("  unexpected size " + sorted.length);
+
+				if (pass == 4)
+					System.out.printf("  %-20s %10.2f%n", names[k],
+									  (t1 - t0) / 1e6);
+			}
+		}
+
+		// The old way, once, since it's slow: compare cell values fetched
+		// through reflection, boxed, for every comparison
+		PropertyValueFactory<Row, String>	titles =
+			new PropertyValueFactory<Row, String>("title");
+		PropertyValueFactory<Row, Integer>	years =
+			new PropertyValueFactory<Row, Integer>("year");
+		ArrayList<Row>						list =
+			new ArrayList<Row>(store.asList());
+
+		long	t0 = System.nanoTime();
+
+		list.sort(Comparator.comparing(
+			(Row row) -> cellValue(titles, row)));
+
+		long	t1 = System.nanoTime();
+
+		list.sort(Comparator.comparing((Row row) -> cellValue(years, row),
+									   Comparator.reverseOrder())
+				  .thenComparing(row -> cellValue(titles, row)));
+
+		long	t2 = System.nanoTime();
+
+		System.out.printf("  %-20s %10.2f%n", "title (cells)",
+						  (t1 - t0) / 1e6);
+		System.out.printf("  %-20s %10.2f%n", "-year,title (cells)",
+						  (t2 - t1) / 1e6);
+	}
+
+	// Compares getting cell values through a PropertyValueFactory, which
+	// finds the property method by name for each row's class, against the
+	// MovieColumns factories, which call it directly. The table gets a value
+	// this way for every cell it updates while scrolling.
+	private static void	benchmarkCells(int n)
+	{
+		List<Row>	rows = buildStore(n).asList();
+		String[]	names = new String[] { "title", "year", "director" };
+
+		// Make the properties first, so both ways only look them up
+		timeCells(MovieColumns.TITLE, rows);
+		timeCells(MovieColumns.YEAR, rows);
+		timeCells(MovieColumns.DIRECTOR, rows);
+
+		System.out.println("cells: " + n + " rows");
+		System.out.printf("  %-10s %12s %12s%n", "column",
+						  "factory ns", "direct ns");
+
+		for (int pass=0; pass<5; pass++)		// First passes warm up
+		{
+			long[]	t = new long[]
+			{
+				timeCells(new PropertyValueFactory<Row, String>("title"),
+						  rows),
+				timeCells(MovieColumns.TITLE, rows),
+				timeCells(new PropertyValueFactory<Row, Number>("year"),
+						  rows),
+				timeCells(MovieColumns.YEAR, rows),
+				timeCells(new PropertyValueFactory<Row, String>("director"),
+						  rows),
+				timeCells(MovieColumns.DIRECTOR, rows),
+			};
+
+			if (pass == 4)
+				for (int c=0; c<3; c++)
+					System.out.printf("  %-10s %12.1f %12.1f%n", names[c],
+									  t[2 * c] / (double)n,
+									  t[2 * c + 1] / (double)n);
+		}
+	}
+
+	// Compares opening a catalog file against importing the same movies from
+	// CSV, and checks that every attribute survives the round trip.
+	private static void	benchmarkCatalog(int n)
+	{
+		MovieStore		store = buildStore(n);
+		List<String>	genres = Resources.getLines(Catalog.GENRES);
+		List<String>	ratings = Resources.getLines(Catalog.RATINGS);
+
+		try
+		{
+			File	cfile = File.createTempFile("movies", ".cat");
+			File	mfile = File.createTempFile("movies", ".csv");
+
+			cfile.deleteOnExit();
+			mfile.deleteOnExit();
+
+			long	t0 = System.nanoTime();
+
+			CatalogFile.write(genres, ratings, store, 0L, cfile);
+
+			long	t1 = System.nanoTime();
+
+			CatalogFile.exportCSV(store, mfile);
+
+			System.out.printf("catalog: %d rows, %.1f MB file (%.1f MB CSV) " +
+							  "written in %.0f ms%n", n, cfile.length() / 1e6,
+							  mfile.length() / 1e6, (t1 - t0) / 1e6);
+			System.out.printf("  %-10s %10s %10s%n", "pass",
+							  "open ms", "import ms");
+
+			for (int pass=0; pass<3; pass++)		// First passes warm up
+			{
+				long		t2 = System.nanoTime();
+				MovieStore	opened = CatalogFile.open(cfile).getStore();
+				long		t3 = System.nanoTime();
+				MovieStore	imported = importCSV(mfile);
+				long		t4 = System.nanoTime();
+
+				System.out.printf("  %-10d %10.1f %10.1f%n", pass,
+								  (t3 - t2) / 1e6, (t4 - t3) / 1e6);
+
+				if (pass == 2)
+				{
+					checkSame(store, opened);
+					checkSame(store, imported);
+				}
+			}
+		}
+		catch (IOException ex)
+		{
+			ex.printStackTrace();
+		}
+	}
+
+	//**********************************************************************
+	// Private Class Methods (Support)
+	//**********************************************************************
+
+	private static MovieStore	importCSV(File file)
+		throws IOException
+	{
+		List<MovieStore>	parts = Resources.getCSVChunks(
+			file.toURI().toURL(), MovieStore::new, MovieStore::add);
+		MovieStore			store = new MovieStore();
+
+		for (MovieStore part : parts)
+			store.addAll(part);
+
+		return store;
+	}
+
+	// Reports the first row that differs between two stores, if any.
+	private static void	checkSame(MovieStore a, MovieStore b)
+	{
+		if (a.size() != b.size())
+		{
+			System.out.println("  sizes differ: " + a.size() + " and " +
+							   b.size());
+			return;
+		}
+
+		for (int i=0; i<a.size(); i++)
+		{
+			boolean	same =
+				a.getTitle(i).equals(b.getTitle(i)) &&
+				a.getImage(i).equals(b.getImage(i)) &&
+				(a.getYear(i) == b.getYear(i)) &&
+				a.getRating(i).equals(b.getRating(i)) &&
+				(a.getRuntime(i) == b.getRuntime(i)) &&
+				(a.getAverageReviewScore(i) == b.getAverageReviewScore(i)) &&
+				(a.getNumberOfReviews(i) == b.getNumberOfReviews(i)) &&
+				(a.getGenre(i) == b.getGenre(i)) &&
+				a.getDirector(i).equals(b.getDirector(i)) &&
+				a.getSummary(i).equals(b.getSummary(i)) &&
+				a.getComments(i).equals(b.getComments(i));
+
+			for (int f=0; f<MovieStore.FLAG_COUNT; f++)
+				same &= (a.getFlag(f, i) == b.getFlag(f, i));
+
+			if (!same)
+			{
+				System.out.println("  row " + i + " differs");
+				return;
+			}
+		}
+	}
+
+	private static <T> T	cellValue(PropertyValueFactory<Row, T> factory,
+									  Row row)
+	{
+		return factory.call(new CellDataFeatures<Row, T>(null, null,
+														 row)).getValue();
+	}
+
+	// Nanoseconds to get the cell value of every row through a factory.
+	private static <T> long	timeCells(
+		Callback<CellDataFeatures<Row, T>, ObservableValue<T>> factory,
+		List<Row> rows)
+	{
+		long	t0 = System.nanoTime();
+		int		k = 0;
+
+		for (Row row : rows)
+		{
+			ObservableValue<T>	value =
+				factory.call(new CellDataFeatures<Row, T>(null, null, row));
+
+			if (value.getValue() != null)
+				k++;
+		}
+
+		long	t1 = System.nanoTime();
+
+		if (k != rows.size())
+			System.out.println("  missing values: " + (rows.size() - k));
+
+		return t1 - t0;
+	}
+
+	// A store of n movies cycled from the data. Each movie gets an extra
+	// title word from a large vocabulary, so that searches see many rare
+	// words as well as the common ones of the repeated data.
+	private static MovieStore	buildStore(int n)
+	{
+		List<List<String>>	mdata = Resources.getCSVData(Catalog.MOVIES);
+		Random				random = new Random(0);
+		MovieStore			store = new MovieStore(n);
+
+		for (int i=0; i<n; i++)
+		{
+			ArrayList<String>	item =
+				new ArrayList<String>(mdata.get(i % mdata.size()));
+
+			item.set(0, item.get(0) + " w" + random.nextInt(SEARCH_WORDS));
+			store.add(item);
+		}
+
+		return store;
+	}
+
+	// Builds a store in the given mode and returns the heap retained by the
+	// views of all of its rows, then also by the cells of the visible rows.
+	private static long[]	measureRows(int n, boolean eager)
+	{
+		usedMemory();		// Clears out the last measurement's rows first
+
+		MovieStore	store = buildStore(n);
+
+		store.setEagerProperties(eager);
+
+		long		m0 = usedMemory();
+		List<Row>	rows = buildRows(store);
+		long		m1 = usedMemory();
+
+		for (int i=0; i<VISIBLE_ROWS; i++)
+		{
+			Row	movie = rows.get(i);
+
+			movie.titleProperty();
+			movie.imageProperty();
+			movie.genreProperty();
+			movie.yearProperty();
+			movie.directorProperty();
+		}
+
+		long		m2 = usedMemory();
+
+		// Uses the store and rows after measuring, so the collector can't
+		// take them early.
+		if (rows.size() != store.size())
+			throw new IllegalStateException("rows: " + rows.size());
+
+		return new long[] { m1 - m0, m2 - m0 };
+	}
+
+	// Creates the view of every row in the store.
+	private static List<Row>	buildRows(MovieStore store)
+	{
+		ArrayList<Row>	rows = new ArrayList<Row>(store.size());
+
+		for (int i=0; i<store.size(); i++)
+			rows.add(store.getRow(i));
+
+		return rows;
+	}
+
+	// Random keys spread over all panes. The strings are new copies, so
+	// comparisons can't succeed on identity alone.
+	private static String[]	createChanges(int panes)
+	{
+		Random		random = new Random(0);
+		String[]	changes = new String[CHANGES];
+
+		for (int i=0; i<CHANGES; i++)
+			changes[i] = new String("pane" + random.nextInt(panes) + ".key" +
+									random.nextInt(KEYS_PER_PANE));
+
+		return changes;
+	}
+
+	private static void	report(int pass, String name, long bytes, int n)
+	{
+		if (pass == 0)
+			return;
+
+		System.out.printf("  %-14s %10.1f KB total %8.1f bytes/row%n",
+						  name, bytes / 1024.0, bytes / (double)n);
+	}
+
+	// Heap in use after a couple of collections.
+	private static long	usedMemory()
+	{
+		Runtime	runtime = Runtime.getRuntime();
+
+		System.gc();
+		System.gc();
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	// Stands in for a pane, checking each key it gets against every key it
+	// handles in turn, as EditorPane.update() does.
+	private static final class Handler
+	{
+		private final String[]	keys;
+		private int				hits;
+
+		public Handler(int pane)
+		{
+			keys = new String[KEYS_PER_PANE];
+
+			for (int i=0; i<keys.length; i++)
+				keys[i] = "pane" + pane + ".key" + i;
+		}
+
+		public void	update(String key, Object value)
+		{
+			for (String k : keys)
+			{
+				if (k.equals(key))
+				{
+					hits++;
+					return;
+				}
+			}
+		}
+	}
+}
+
+//******************************************************************************
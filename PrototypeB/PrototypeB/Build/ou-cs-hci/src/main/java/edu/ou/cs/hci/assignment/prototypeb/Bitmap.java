@@ -0,0 +1,611 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.util.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Bitmap</CODE> class is an immutable, compressed set of row
+ * numbers. Rows are split into chunks of 65536. Each chunk with only a few
+ * rows keeps them as a sorted array of their low 16 bits. Each chunk with
+ * more keeps them as a plain bitset of 1024 longs. That way a bitmap for a
+ * rare attribute takes little space, one for a common attribute is never more
+ * than one bit per row, and AND, OR, and counting work a chunk at a time
+ * without visiting rows one by one. All bitmaps that are combined should be
+ * over the same number of rows.
+ *
+ * @version %I%, %G%
+ */
+public final class Bitmap
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final int		CHUNK_BITS = 16;
+	private static final int		CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+	private static final int		WORDS = (1 << CHUNK_BITS) >>> 6;
+
+	// Chunks with more rows than this are kept as bitsets. At this size,
+	// an array of chars and a bitset take the same space.
+	private static final int		ARRAY_MAX = 4096;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final int				n;			// Number of rows covered
+	private final Object[]		chunks;	// Null, char[], or long[]
+	private final int[]			counts;	// Rows in each chunk
+	private final int				count;		// Rows in all chunks
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	private Bitmap(int n, Object[] chunks, int[] counts)
+	{
+		int	c = 0;
+
+		for (int k : counts)
+			c += k;
+
+		this.n = n;
+		this.chunks = chunks;
+		this.counts = counts;
+		this.count = c;
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	// The bitmap of the rows whose bits are set in a plain bitset.
+	public static Bitmap	of(long[] bits, int n)
+	{
+		int			m = chunks(n);
+		Object[]	chunks = new Object[m];
+		int[]		counts = new int[m];
+
+		for (int k=0; k<m; k++)
+		{
+			int		w0 = k * WORDS;
+			int		w1 = Math.min(bits.length, w0 + WORDS);
+			long[]	words = new long[WORDS];
+
+			if (w0 < w1)
+				System.arraycopy(bits, w0, words, 0, w1 - w0);
+
+			// Leave out any bits past the last row
+			int		rest = n - (k << CHUNK_BITS);
+
+			for (int w=(rest >>> 6); w<Math.min(WORDS, bits.length - w0); w++)
+				words[w] &= ((w == (rest >>> 6)) ? ((1L << rest) - 1L) : 0L);
+
+			chunks[k] = pack(words);
+			counts[k] = size(chunks[k]);
+		}
+
+		return new Bitmap(n, chunks, counts);
+	}
+
+	// The bitmap of the first size rows in an ascending array, without
+	// making a bitset of all n rows.
+	public static Bitmap	of(int[] rows, int size, int n)
+	{
+		int			m = chunks(n);
+		Object[]	chunks = new Object[m];
+		int[]		counts = new int[m];
+		int			i = 0;
+
+		while (i < size)
+		{
+			int	k = rows[i] >>> CHUNK_BITS;
+			int	j = i;
+
+			while ((j < size) && ((rows[j] >>> CHUNK_BITS) == k))
+				j++;
+
+			if (j - i > ARRAY_MAX)
+			{
+				long[]	words = new long[WORDS];
+
+				for (int r=i; r<j; r++)
+					words[(rows[r] & CHUNK_MASK) >>> 6] |= (1L << rows[r]);
+
+				chunks[k] = words;
+			}
+			else
+			{
+				char[]	lows = new char[j - i];
+
+				for (int r=i; r<j; r++)
+					lows[r - i] = (char)(rows[r] & CHUNK_MASK);
+
+				chunks[k] = lows;
+			}
+
+			counts[k] = j - i;
+			i = j;
+		}
+
+		return new Bitmap(n, chunks, counts);
+	}
+
+	// The bitmap of all n rows.
+	public static Bitmap	all(int n)
+	{
+		long[]	bits = new long[(n + 63) >>> 6];
+
+		Arrays.fill(bits, -1L);
+
+		if ((n & 63) != 0)
+			bits[bits.length - 1] = (1L << n) - 1L;
+
+		return of(bits, n);
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// The number of rows the bitmap covers, whether in the set or not.
+	public int	getRowCount()
+	{
+		return n;
+	}
+
+	// The number of rows in the set.
+	public int	size()
+	{
+		return count;
+	}
+
+	public boolean	isEmpty()
+	{
+		return (count == 0);
+	}
+
+	public boolean	contains(int row)
+	{
+		if ((row < 0) || (row >= n))
+			return false;
+
+		Object	chunk = chunks[row >>> CHUNK_BITS];
+		int		low = row & CHUNK_MASK;
+
+		if (chunk instanceof long[])
+			return ((((long[])chunk)[low >>> 6] & (1L << low)) != 0L);
+		else if (chunk != null)
+			return (Arrays.binarySearch((char[])chunk, (char)low) >= 0);
+		else
+			return false;
+	}
+
+	public Bitmap	and(Bitmap other)
+	{
+		Object[]	result = new Object[chunks.length];
+		int[]		rcounts = new int[chunks.length];
+
+		for (int k=0; k<chunks.length; k++)
+		{
+			result[k] = and(chunks[k], other.chunks[k]);
+			rcounts[k] = size(result[k]);
+		}
+
+		return new Bitmap(n, result, rcounts);
+	}
+
+	public Bitmap	or(Bitmap other)
+	{
+		Object[]	result = new Object[chunks.length];
+		int[]		rcounts = new int[chunks.length];
+
+		for (int k=0; k<chunks.length; k++)
+		{
+			result[k] = or(chunks[k], other.chunks[k]);
+			rcounts[k] = size(result[k]);
+		}
+
+		return new Bitmap(n, result, rcounts);
+	}
+
+	public Bitmap	andNot(Bitmap other)
+	{
+		Object[]	result = new Object[chunks.length];
+		int[]		rcounts = new int[chunks.length];
+
+		for (int k=0; k<chunks.length; k++)
+		{
+			result[k] = andNot(chunks[k], other.chunks[k]);
+			rcounts[k] = size(result[k]);
+		}
+
+		return new Bitmap(n, result, rcounts);
+	}
+
+	// The number of rows in both bitmaps, without making a bitmap of them.
+	public int	andSize(Bitmap other)
+	{
+		int	c = 0;
+
+		for (int k=0; k<chunks.length; k++)
+			c += andSize(chunks[k], other.chunks[k]);
+
+		return c;
+	}
+
+	// Sets the bits of the rows in a plain bitset.
+	public void	orInto(long[] bits)
+	{
+		for (int k=0; k<chunks.length; k++)
+		{
+			Object	chunk = chunks[k];
+			int		w0 = k * WORDS;
+
+			if (chunk instanceof long[])
+			{
+				long[]	words = (long[])chunk;
+				int		m = Math.min(WORDS, bits.length - w0);
+
+				for (int w=0; w<m; w++)
+					bits[w0 + w] |= words[w];
+			}
+			else if (chunk != null)
+			{
+				for (char low : (char[])chunk)
+					bits[w0 + (low >>> 6)] |= (1L << low);
+			}
+		}
+	}
+
+	// A plain bitset of the rows, one bit per row.
+	public long[]	toBits()
+	{
+		long[]	bits = new long[(n + 63) >>> 6];
+
+		orInto(bits);
+
+		return bits;
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		int	arrays = 0;
+		int	bitsets = 0;
+
+		for (Object chunk : chunks)
+		{
+			if (chunk instanceof long[])
+				bitsets++;
+			else if (chunk != null)
+				arrays++;
+		}
+
+		return count + " of " + n + " rows (" + arrays + " array, " +
+			bitsets + " bitset chunks)";
+	}
+
+	//**********************************************************************
+	// Private Class Methods (Chunks)
+	//**********************************************************************
+
+	private static int	chunks(int n)
+	{
+		return (n + CHUNK_MASK) >>> CHUNK_BITS;
+	}
+
+	private static int	size(Object chunk)
+	{
+		if (chunk instanceof long[])
+		{
+			int	c = 0;
+
+			for (long w : (long[])chunk)
+				c += Long.bitCount(w);
+
+			return c;
+		}
+
+		return ((chunk == null) ? 0 : ((char[])chunk).length);
+	}
+
+	// Chooses the smaller form for a chunk given as a bitset, which may be
+	// kept as is.
+	private static Object	pack(long[] words)
+	{
+		int	c = 0;
+
+		for (long w : words)
+			c += Long.bitCount(w);
+
+		if (c == 0)
+			return null;
+
+		if (c > ARRAY_MAX)
+			return words;
+
+		char[]	lows = new char[c];
+		int		i = 0;
+
+		for (int w=0; w<WORDS; w++)
+		{
+			long	word = words[w];
+
+			while (word != 0L)
+			{
+				lows[i++] = (char)((w << 6) + Long.numberOfTrailingZeros(word));
+				word &= word - 1L;
+			}
+		}
+
+		return lows;
+	}
+
+	private static long[]	unpack(char[] lows)
+	{
+		long[]	words = new long[WORDS];
+
+		for (char low : lows)
+			words[low >>> 6] |= (1L << low);
+
+		return words;
+	}
+
+	private static Object	and(Object a, Object b)
+	{
+		if ((a == null) || (b == null))
+			return null;
+
+		if ((a instanceof long[]) && (b instanceof long[]))
+		{
+			long[]	wa = (long[])a;
+			long[]	wb = (long[])b;
+			long[]	words = new long[WORDS];
+
+			for (int w=0; w<WORDS; w++)
+				words[w] = wa[w] & wb[w];
+
+			return pack(words);
+		}
+
+		if (a instanceof long[])		// Keep the array one first
+		{
+			Object	t = a;
+
+			a = b;
+			b = t;
+		}
+
+		char[]	la = (char[])a;
+		char[]	lows = new char[la.length];
+		int		c = 0;
+
+		if (b instanceof long[])
+		{
+			long[]	wb = (long[])b;
+
+			for (char low : la)
+				if ((wb[low >>> 6] & (1L << low)) != 0L)
+					lows[c++] = low;
+		}
+		else
+		{
+			char[]	lb = (char[])b;
+			int		i = 0;
+			int		j = 0;
+
+			while ((i < la.length) && (j < lb.length))
+			{
+				if (la[i] < lb[j])
+					i++;
+				else if (la[i] > lb[j])
+					j++;
+				else
+				{
+					lows[c++] = la[i];
+					i++;
+					j++;
+				}
+			}
+		}
+
+		return ((c == 0) ? null : Arrays.copyOf(lows, c));
+	}
+
+	private static Object	or(Object a, Object b)
+	{
+		if (a == null)
+			return b;
+
+		if (b == null)
+			return a;
+
+		if ((a instanceof char[]) && (b instanceof char[]))
+		{
+			char[]	la = (char[])a;
+			char[]	lb = (char[])b;
+
+			if (la.length + lb.length > ARRAY_MAX)
+				return pack(orWords(unpack(la), b));
+
+			char[]	lows = new char[la.length + lb.length];
+			int		i = 0;
+			int		j = 0;
+			int		c = 0;
+
+			while ((i < la.length) || (j < lb.length))
+			{
+				if ((j == lb.length) || ((i < la.length) && (la[i] < lb[j])))
+					lows[c++] = la[i++];
+				else if ((i == la.length) || (la[i] > lb[j]))
+					lows[c++] = lb[j++];
+				else
+				{
+					lows[c++] = la[i];
+					i++;
+					j++;
+				}
+			}
+
+			return Arrays.copyOf(lows, c);
+		}
+
+		if (a instanceof char[])		// Keep the bitset one first
+		{
+			Object	t = a;
+
+			a = b;
+			b = t;
+		}
+
+		return orWords(((long[])a).clone(), b);
+	}
+
+	// ORs a chunk into a bitset chunk, which is changed and returned.
+	private static long[]	orWords(long[] words, Object b)
+	{
+		if (b instanceof long[])
+		{
+			long[]	wb = (long[])b;
+
+			for (int w=0; w<WORDS; w++)
+				words[w] |= wb[w];
+		}
+		else
+		{
+			for (char low : (char[])b)
+				words[low >>> 6] |= (1L << low);
+		}
+
+		return words;
+	}
+
+	private static Object	andNot(Object a, Object b)
+	{
+		if ((a == null) || (b == null))
+			return a;
+
+		if (a instanceof long[])
+		{
+			long[]	words = ((long[])a).clone();
+
+			if (b instanceof long[])
+			{
+				long[]	wb = (long[])b;
+
+				for (int w=0; w<WORDS; w++)
+					words[w] &= ~wb[w];
+			}
+			else
+			{
+				for (char low : (char[])b)
+					words[low >>> 6] &= ~(1L << low);
+			}
+
+			return pack(words);
+		}
+
+		char[]	la = (char[])a;
+		char[]	lows = new char[la.length];
+		int		c = 0;
+
+		if (b instanceof long[])
+		{
+			long[]	wb = (long[])b;
+
+			for (char low : la)
+				if ((wb[low >>> 6] & (1L << low)) == 0L)
+					lows[c++] = low;
+		}
+		else
+		{
+			char[]	lb = (char[])b;
+			int		j = 0;
+
+			for (char low : la)
+			{
+				while ((j < lb.length) && (lb[j] < low))
+					j++;
+
+				if ((j == lb.length) || (lb[j] != low))
+					lows[c++] = low;
+			}
+		}
+
+		return ((c == 0) ? null : Arrays.copyOf(lows, c));
+	}
+
+	private static int	andSize(Object a, Object b)
+	{
+		if ((a == null) || (b == null))
+			return 0;
+
+		if ((a instanceof long[]) && (b instanceof long[]))
+		{
+			long[]	wa = (long[])a;
+			long[]	wb = (long[])b;
+			int		c = 0;
+
+			for (int w=0; w<WORDS; w++)
+				c += Long.bitCount(wa[w] & wb[w]);
+
+			return c;
+		}
+
+		if (a instanceof long[])		// Keep the array one first
+		{
+			Object	t = a;
+
+			a = b;
+			b = t;
+		}
+
+		char[]	la = (char[])a;
+		int		c = 0;
+
+		if (b instanceof long[])
+		{
+			long[]	wb = (long[])b;
+
+			for (char low : la)
+				if ((wb[low >>> 6] & (1L << low)) != 0L)
+					c++;
+		}
+		else
+		{
+			char[]	lb = (char[])b;
+			int		i = 0;
+			int		j = 0;
+
+			while ((i < la.length) && (j < lb.length))
+			{
+				if (la[i] < lb[j])
+					i++;
+				else if (la[i] > lb[j])
+					j++;
+				else
+				{
+					c++;
+					i++;
+					j++;
+				}
+			}
+		}
+
+		return c;
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,342 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.*;
+import edu.ou.cs.hci.assignment.prototypeb.MovieStore.Row;
+import edu.ou.cs.hci.resources.Resources;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Catalog</CODE> class holds the one and only copy of the movie
+ * collection, along with the genre and rating lists used to interpret it. The
+ * model loads the catalog once; panes get it through the controller instead of
+ * parsing the data files themselves. The lists are unmodifiable, so the set of
+ * movies and their order (which the "selectedMovieIndex" property refers to)
+ * is fixed for the life of the catalog. The movies themselves remain editable,
+ * and edits made in any pane are visible to all of them. Movies are kept in a
+ * columnar {@link MovieStore} and accessed through its row views, and can be
+ * searched through a {@link MovieIndex}. The catalog is kept between runs in
+ * a {@link CatalogFile}. The CSV data files are only read to make that file
+ * the first time, whenever it can't be opened, or whenever the data files
+ * have changed since it was made. Edits are saved between runs in a
+ * {@link Journal} that is replayed over the catalog file when it's loaded.
+ *
+ * @version %I%, %G%
+ */
+public final class Catalog
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// Default data files, relative to the resources package
+	public static final String		MOVIES = "data/movies.csv";
+	public static final String		GENRES = "data/genres.txt";
+	public static final String		RATINGS = "data/ratings.txt";
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	// Data
+	private final List<String>		genres;	// Genre strings
+	private final List<String>		ratings;	// Rating strings
+	private final MovieStore		store;		// Movie attributes
+	private final List<Row>		movies;	// Movie row views
+	private MovieIndex				index;		// Built on first use
+	private MovieSorter			sorter;	// Built on first use
+
+	// Persistence
+	private long					fileId;	// Id of the catalog file
+	private long					source;	// Stamp of the data files
+	private Journal				journal;	// Saves edits, if there's a file
+
+	// Load statistics
+	private final long				loadTime;	// Nanoseconds to load
+	private final long				loadBytes;	// Heap held by the store
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	private Catalog(List<String> genres, List<String> ratings,
+					MovieStore store, long loadTime)
+	{
+		this.genres = Collections.unmodifiableList(genres);
+		this.ratings = Collections.unmodifiableList(ratings);
+		this.store = store;
+		this.movies = store.asList();
+
+		store.setGenreLabels(new GenreLabels(this.genres));
+
+		this.loadTime = loadTime;
+		this.loadBytes = store.getRetainedBytes();
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	// Opens the catalog file. If there isn't one yet, it can't be read, or
+	// the default data files have changed since it was imported from them,
+	// imports them instead and saves them as the catalog file for next time.
+	// Edits made to the old catalog are dropped along with it. Either way,
+	// replays the journal of edits made since the file was written, then
+	// keeps journaling edits.
+	public static Catalog	load()
+	{
+		File	file = new File(System.getProperty("prototypeb.catalog",
+												   CatalogFile.DEFAULT_PATH));
+		long	source = getSourceStamp();
+		Catalog	catalog = null;
+
+		if (file.isFile())
+		{
+			try
+			{
+				// Check before mapping the file, so it can be replaced
+				if (CatalogFile.readSource(file) == source)
+					catalog = open(file);
+				else
+					Trace.log(Trace.DEBUG, "catalog", "data files changed",
+							  file, null);
+			}
+			catch (IOException ex)
+			{
+				ex.printStackTrace();
+			}
+		}
+
+		try
+		{
+			if (catalog == null)
+			{
+				catalog = load(MOVIES, GENRES, RATINGS);
+				catalog.source = source;
+				catalog.fileId = CatalogFile.write(catalog, file);
+			}
+
+			catalog.journal = Journal.open(file, catalog.store,
+										   catalog.fileId);
+		}
+		catch (IOException ex)
+		{
+			ex.printStackTrace();
+		}
+
+		return catalog;
+	}
+
+	// Opens the catalog from a catalog file. Only the numeric columns are
+	// read up front; movie text is read from the file as it's needed.
+	public static Catalog	open(File file)
+		throws IOException
+	{
+		long	t0 = System.nanoTime();
+
+		CatalogFile	cf = CatalogFile.open(file);
+
+		long	t1 = System.nanoTime();
+
+		Catalog	catalog = new Catalog(cf.getGenres(), cf.getRatings(),
+									  cf.getStore(), t1 - t0);
+
+		catalog.fileId = cf.getId();
+		catalog.source = cf.getSource();
+
+		Trace.log(Trace.DEBUG, "catalog", "opened", file, catalog);
+
+		return catalog;
+	}
+
+	// Loads the catalog from data files located relative to the resources
+	// package. Reports how long the load took.
+	public static Catalog	load(String mfile, String gfile, String rfile)
+	{
+		long	t0 = System.nanoTime();
+
+		List<String>	genres = Resources.getLines(gfile);
+		List<String>	ratings = Resources.getLines(rfile);
+
+		// Parse the movie data in parallel chunks, filling one store per
+		// chunk directly from the records, then stitch the stores together.
+		List<MovieStore>	parts = Resources.getCSVChunks(mfile,
+											MovieStore::new, MovieStore::add);
+		MovieStore			store = merge(parts);
+
+		long	t1 = System.nanoTime();
+
+		Catalog	catalog = new Catalog(genres, ratings, store, t1 - t0);
+
+		Trace.log(Trace.DEBUG, "catalog", "imported", mfile, catalog);
+
+		return catalog;
+	}
+
+	//**********************************************************************
+	// Public Methods (Getters)
+	//**********************************************************************
+
+	public List<String>	getGenres()
+	{
+		return genres;
+	}
+
+	public List<String>	getRatings()
+	{
+		return ratings;
+	}
+
+	public MovieStore	getStore()
+	{
+		return store;
+	}
+
+	public List<Row>	getMovies()
+	{
+		return movies;
+	}
+
+	public int	size()
+	{
+		return movies.size();
+	}
+
+	public Row	getMovie(int index)
+	{
+		return store.getRow(index);
+	}
+
+	// Stamp of the data files the catalog was imported from, or 0 if unknown.
+	public long	getSource()
+	{
+		return source;
+	}
+
+	// The journal that saves edits, or null if there's no catalog file.
+	public Journal	getJournal()
+	{
+		return journal;
+	}
+
+	// The index for searching the movies, built the first time it's needed.
+	public synchronized MovieIndex	getIndex()
+	{
+		if (index == null)
+		{
+			index = new MovieIndex(store, genres.size(), ratings);
+			Trace.log(Trace.DEBUG, "catalog", "indexed", null, index);
+		}
+
+		return index;
+	}
+
+	// The sorter for the table of movies, built the first time it's needed.
+	public synchronized MovieSorter	getSorter()
+	{
+		if (sorter == null)
+		{
+			sorter = new MovieSorter(store);
+			Trace.log(Trace.DEBUG, "catalog", "sorted", null, sorter);
+		}
+
+		return sorter;
+	}
+
+	// Nanoseconds spent reading and converting the data files.
+	public long	getLoadTime()
+	{
+		return loadTime;
+	}
+
+	// Estimated heap held by the movie attributes once loaded.
+	public long	getLoadBytes()
+	{
+		return loadBytes;
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return movies.size() + " movies, " + genres.size() + " genres, " +
+			ratings.size() + " ratings loaded in " + (loadTime / 1000000L) +
+			" ms, holding about " + (loadBytes / 1024L) + " KB";
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	private static MovieStore	merge(List<MovieStore> parts)
+	{
+		if (parts.size() == 1)
+		{
+			parts.get(0).trimToSize();
+
+			return parts.get(0);
+		}
+
+		int	n = 0;
+
+		for (MovieStore part : parts)
+			n += part.size();
+
+		MovieStore	store = new MovieStore(n);
+
+		for (MovieStore part : parts)
+			store.addAll(part);
+
+		return store;
+	}
+
+	// Identifies the versions of the default data files by their sizes and
+	// modification times, without reading them. Files that can't be found or
+	// checked count as empty and unmodified.
+	private static long	getSourceStamp()
+	{
+		long	stamp = 17L;
+
+		for (String name : new String[] { MOVIES, GENRES, RATINGS })
+		{
+			long	length = 0L;
+			long	time = 0L;
+
+			try
+			{
+				URL	url = Resources.getResource(name);
+
+				if (url != null)
+				{
+					URLConnection	connection = url.openConnection();
+
+					length = connection.getContentLengthLong();
+					time = connection.getLastModified();
+					connection.getInputStream().close();
+				}
+			}
+			catch (IOException ex)
+			{
+				ex.printStackTrace();
+			}
+
+			stamp = 31L * (31L * stamp + length) + time;
+		}
+
+		return stamp;
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,467 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.apache.commons.csv.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>CatalogFile</CODE> class reads and writes the movie collection in
+ * a compact binary format, so the catalog can be opened without parsing CSV.
+ * Opening maps the file into memory, copies the numeric and yes/no columns
+ * straight into a {@link MovieStore}, and leaves the free text in the file,
+ * to be decoded as rows ask for it. All numbers are big-endian. The format is:
+ *
+ * <PRE>
+ *   header     MAGIC, VERSION, the counts below, an id, and a source stamp,
+ *              padded to 64 bytes
+ *   doubles    score[rows]
+ *   longs      flags[FLAG_COUNT][(rows + 63) / 64]
+ *   ints       year, runtime, reviews, genre, rating, director, each [rows]
+ *   ints       offsets[strings + 1], into the heap
+ *   bytes      heap of UTF-8 strings
+ * </PRE>
+ *
+ * The strings are, in order: the genre and rating lists (the dictionaries for
+ * interpreting the genre bits and ratings), the distinct ratings and directors
+ * of the movies (which the rating and director columns point into), then each
+ * of the free text attributes of every row, one attribute at a time. String i
+ * is the heap bytes from offsets[i] up to offsets[i+1]. The heap is limited to
+ * 2 GB. The id is a random number chosen each time the file is written, so
+ * a {@link Journal} of edits can tell whether it was made against this file.
+ * The source stamp identifies the data files the catalog was imported from,
+ * so the {@link Catalog} can tell when they've changed and import them again.
+ * CSV remains the format for importing and exporting movies.
+ *
+ * @version %I%, %G%
+ */
+public final class CatalogFile
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// Where the catalog is kept between runs. Set the prototypeb.catalog
+	// system property to keep it somewhere else.
+	public static final String	DEFAULT_PATH =
+		System.getProperty("user.home") + File.separator + ".prototypeb" +
+		File.separator + "movies.cat";
+
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final int	MAGIC = 0x4d4f5643;	// "MOVC"
+	private static final int	VERSION = 1;
+	private static final int	HEADER_BYTES = 64;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final long				id;
+	private final long				source;
+	private final List<String>		genres;
+	private final List<String>		ratings;
+	private final MovieStore		store;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	private CatalogFile(long id, long source, List<String> genres,
+						List<String> ratings, MovieStore store)
+	{
+		this.id = id;
+		this.source = source;
+		this.genres = genres;
+		this.ratings = ratings;
+		this.store = store;
+	}
+
+	//**********************************************************************
+	// Public Methods (Getters)
+	//**********************************************************************
+
+	public long	getId()
+	{
+		return id;
+	}
+
+	public long	getSource()
+	{
+		return source;
+	}
+
+	public List<String>	getGenres()
+	{
+		return genres;
+	}
+
+	public List<String>	getRatings()
+	{
+		return ratings;
+	}
+
+	public MovieStore	getStore()
+	{
+		return store;
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	// Maps a catalog file into memory. The mapping stays open for as long as
+	// the store uses it, since that's where the store reads its text from.
+	public static CatalogFile	open(File file)
+		throws IOException
+	{
+		ByteBuffer	buffer;
+
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+													StandardOpenOption.READ))
+		{
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L,
+								 channel.size());
+		}
+
+		if ((buffer.capacity() < HEADER_BYTES) ||
+			(buffer.getInt(0) != MAGIC))
+			throw new IOException("Not a catalog file: " + file);
+
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unknown catalog version " +
+								  buffer.getInt(4) + ": " + file);
+
+		int	n = buffer.getInt(8);
+		int	g = buffer.getInt(12);
+		int	r = buffer.getInt(16);
+		int	rp = buffer.getInt(20);
+		int	dp = buffer.getInt(24);
+		int	s = buffer.getInt(28);
+		long	id = buffer.getLong(32);
+		long	source = buffer.getLong(40);
+		int	words = (n + 63) >>> 6;
+
+		// Copy the fixed-width columns, each in one bulk transfer
+		buffer.position(HEADER_BYTES);
+
+		double[]	score = new double[n];
+		long[][]	flags = new long[MovieStore.FLAG_COUNT][words];
+
+		buffer.asDoubleBuffer().get(score);
+		buffer.position(buffer.position() + 8 * n);
+
+		for (int f=0; f<MovieStore.FLAG_COUNT; f++)
+		{
+			buffer.asLongBuffer().get(flags[f]);
+			buffer.position(buffer.position() + 8 * words);
+		}
+
+		int[]	year = readInts(buffer, n);
+		int[]	runtime = readInts(buffer, n);
+		int[]	reviews = readInts(buffer, n);
+		int[]	genre = readInts(buffer, n);
+		int[]	rating = readInts(buffer, n);
+		int[]	director = readInts(buffer, n);
+
+		// Leave the string offsets and heap in the file
+		IntBuffer	offsets = buffer.asIntBuffer();
+
+		offsets.limit(s + 1);
+		buffer.position(buffer.position() + 4 * (s + 1));
+
+		ByteBuffer	heap = buffer.slice();
+		Heap		strings = new Heap(offsets, heap, g + r + rp + dp, n);
+
+		List<String>	rpool = strings.list(g + r, rp);
+		List<String>	dpool = strings.list(g + r + rp, dp);
+		MovieStore		store = new MovieStore(n, year, runtime, reviews,
+											   genre, score, rating, rpool,
+											   director, dpool, flags, strings);
+
+		return new CatalogFile(id, source, strings.list(0, g),
+							   strings.list(g, r), store);
+	}
+
+	// Reads only the source stamp from the file's header, without mapping it.
+	public static long	readSource(File file)
+		throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file), 64)))
+		{
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a catalog file: " + file);
+
+			int	version = in.readInt();
+
+			if (version != VERSION)
+				throw new IOException("Unknown catalog version " + version +
+									  ": " + file);
+
+			in.skipBytes(32);
+
+			return in.readLong();
+		}
+		catch (EOFException ex)
+		{
+			throw new IOException("Not a catalog file: " + file);
+		}
+	}
+
+	// Writes the catalog's genres, ratings, and movies to the file. Writes to
+	// a temporary file first, then moves it into place, so an interrupted
+	// write never leaves a partial catalog behind. Returns the new file's id.
+	public static long	write(Catalog catalog, File file)
+		throws IOException
+	{
+		return write(catalog.getGenres(), catalog.getRatings(), catalog.getStore(),
+			  catalog.getSource(), file);
+	}
+
+	public static long	write(List<String> genres, List<String> ratings,
+							  MovieStore store, long source, File file)
+		throws IOException
+	{
+		long			id = new Random().nextLong();
+		int				n = store.size();
+		List<String>	rpool = store.getRatings();
+		List<String>	dpool = store.getDirectors();
+		int				s = genres.size() + ratings.size() + rpool.size() +
+			dpool.size() + MovieStore.TEXT_COUNT * n;
+
+		File	parent = file.getAbsoluteFile().getParentFile();
+
+		if (parent != null)
+			Files.createDirectories(parent.toPath());
+
+		File	temp = new File(file.getPath() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp), 1 << 16)))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(n);
+			out.writeInt(genres.size());
+			out.writeInt(ratings.size());
+			out.writeInt(rpool.size());
+			out.writeInt(dpool.size());
+			out.writeInt(s);
+			out.writeLong(id);
+			out.writeLong(source);
+			out.write(new byte[HEADER_BYTES - 48]);
+
+			for (int i=0; i<n; i++)
+				out.writeDouble(store.getAverageReviewScore(i));
+
+			for (int f=0; f<MovieStore.FLAG_COUNT; f++)
+			{
+				long[]	bits = store.getFlagBits(f);
+
+				for (int w=0; w<((n + 63) >>> 6); w++)
+					out.writeLong(bits[w]);
+			}
+
+			for (int i=0; i<n; i++)
+				out.writeInt(store.getYear(i));
+
+			for (int i=0; i<n; i++)
+				out.writeInt(store.getRuntime(i));
+
+			for (int i=0; i<n; i++)
+				out.writeInt(store.getNumberOfReviews(i));
+
+			for (int i=0; i<n; i++)
+				out.writeInt(store.getGenre(i));
+
+			for (int i=0; i<n; i++)
+				out.writeInt(store.getRatingId(i));
+
+			for (int i=0; i<n; i++)
+				out.writeInt(store.getDirectorId(i));
+
+			// Offsets first, so the strings are encoded twice. Only the
+			// length is kept from the first time.
+			long	offset = 0L;
+
+			out.writeInt(0);
+
+			for (int k=0; k<s; k++)
+			{
+				offset += encode(getString(genres, ratings, store, k)).length;
+
+				if (offset > Integer.MAX_VALUE)
+					throw new IOException("Catalog too large: " + n +
+										  " movies");
+
+				out.writeInt((int)offset);
+			}
+
+			for (int k=0; k<s; k++)
+				out.write(encode(getString(genres, ratings, store, k)));
+		}
+
+		Files.move(temp.toPath(), file.toPath(),
+				   StandardCopyOption.REPLACE_EXISTING);
+
+		return id;
+	}
+
+	// Writes the movies as CSV, in the column order that MovieStore reads.
+	// Uses the default charset, which is what Resources reads CSV with.
+	public static void	exportCSV(MovieStore store, File file)
+		throws IOException
+	{
+		try (CSVPrinter printer = new CSVPrinter(
+				new BufferedWriter(new FileWriter(file)), CSVFormat.DEFAULT))
+		{
+			for (int i=0; i<store.size(); i++)
+				printer.printRecord(
+					store.getTitle(i),
+					store.getImage(i),
+					store.getYear(i),
+					store.getRating(i),
+					store.getRuntime(i),
+					store.getFlag(MovieStore.AWARD_PICTURE, i),
+					store.getFlag(MovieStore.AWARD_DIRECTING, i),
+					store.getFlag(MovieStore.AWARD_CINEMATOGRAPHY, i),
+					store.getFlag(MovieStore.AWARD_ACTING, i),
+					store.getAverageReviewScore(i),
+					store.getNumberOfReviews(i),
+					store.getGenre(i),
+					store.getDirector(i),
+					store.getFlag(MovieStore.IS_ANIMATED, i),
+					store.getFlag(MovieStore.IS_COLOR, i),
+					store.getSummary(i),
+					store.getComments(i));
+		}
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	private static int[]	readInts(ByteBuffer buffer, int n)
+	{
+		int[]	column = new int[n];
+
+		buffer.asIntBuffer().get(column);
+		buffer.position(buffer.position() + 4 * n);
+
+		return column;
+	}
+
+	// String k of the file, in the order described above.
+	private static String	getString(List<String> genres, List<String> ratings,
+									  MovieStore store, int k)
+	{
+		if (k < genres.size())
+			return genres.get(k);
+
+		k -= genres.size();
+
+		if (k < ratings.size())
+			return ratings.get(k);
+
+		k -= ratings.size();
+
+		List<String>	rpool = store.getRatings();
+
+		if (k < rpool.size())
+			return rpool.get(k);
+
+		k -= rpool.size();
+
+		List<String>	dpool = store.getDirectors();
+
+		if (k < dpool.size())
+			return dpool.get(k);
+
+		k -= dpool.size();
+
+		int	n = store.size();
+		int	i = k % n;
+
+		switch (k / n)
+		{
+			case MovieStore.TEXT_TITLE:		return store.getTitle(i);
+			case MovieStore.TEXT_IMAGE:		return store.getImage(i);
+			case MovieStore.TEXT_SUMMARY:		return store.getSummary(i);
+			default:							return store.getComments(i);
+		}
+	}
+
+	private static byte[]	encode(String v)
+	{
+		return ((v == null) ? new byte[0] : v.getBytes(StandardCharsets.UTF_8));
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	// The strings of a mapped file. The buffers never change position. Reads
+	// are absolute or through duplicates, so any thread can make them.
+	private static final class Heap
+		implements MovieStore.TextSource
+	{
+		private final IntBuffer		offsets;
+		private final ByteBuffer		heap;
+		private final int				text;	// Index of the first text
+		private final int				rows;
+
+		public Heap(IntBuffer offsets, ByteBuffer heap, int text, int rows)
+		{
+			this.offsets = offsets;
+			this.heap = heap;
+			this.text = text;
+			this.rows = rows;
+		}
+
+		public String	getText(int attribute, int row)
+		{
+			return get(text + attribute * rows + row);
+		}
+
+		public String	get(int k)
+		{
+			int		start = offsets.get(k);
+			int		length = offsets.get(k + 1) - start;
+			byte[]	bytes = new byte[length];
+			ByteBuffer	view = heap.duplicate();
+
+			view.position(start);
+			view.get(bytes);
+
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		// Strings k through k + n - 1, decoded once.
+		public List<String>	list(int k, int n)
+		{
+			ArrayList<String>	list = new ArrayList<String>(n);
+
+			for (int i=0; i<n; i++)
+				list.add(get(k + i));
+
+			return list;
+		}
+	}
+}
+
+//******************************************************************************
@@ -15,6 +15,9 @@ package edu.ou.cs.hci.assignment.prototypeb;
 
 //import java.lang.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import edu.ou.cs.hci.assignment.prototypeb.pane.AbstractPane;
 
 //******************************************************************************
 
@@ -36,6 +39,9 @@ public final class Controller
 	// Where the data is shown; can be in multiple places.
 	private final ArrayList<View>	views;
 
+	// Which panes in which views want to hear about which keys
+	private final Router<AbstractPane>	router;
+
 	//**********************************************************************
 	// Constructors and Finalizer
 	//**********************************************************************
@@ -43,6 +49,7 @@ public final class Controller
 	public Controller()
 	{
 		this.views = new ArrayList<View>();
+		this.router = new Router<AbstractPane>();
 	}
 
 	//**********************************************************************
@@ -54,13 +61,32 @@ public final class Controller
 		this.model = model;
 	}
 
-	// Pass updates from the model on to all the views.
-	public void	update(String key, Object value)
+	// Pass a set of changes from the model on to the panes that subscribe to
+	// any of them. Each pane gets one update with just the changes it wants,
+	// in the order the panes were added to views.
+	public void	update(Map<String, Object> changes)
 	{
-		//System.out.println("controller: update " + key + " to " + value);
-
-		for (View v : views)
-			v.update(key, value);
+		int									n = router.getSlotCount();
+		ArrayList<LinkedHashMap<String, Object>>	split =
+			new ArrayList<LinkedHashMap<String, Object>>(n);
+
+		for (int slot=0; slot<n; slot++)
+			split.add(null);
+
+		for (Map.Entry<String, Object> entry : changes.entrySet())
+		{
+			for (int slot : router.route(entry.getKey()))
+			{
+				if (split.get(slot) == null)
+					split.set(slot, new LinkedHashMap<String, Object>());
+
+				split.get(slot).put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		for (int slot=0; slot<n; slot++)
+			if (split.get(slot) != null)
+				router.getSubscriber(slot).update(split.get(slot));
 	}
 
 	//**********************************************************************
@@ -71,15 +97,35 @@ public final class Controller
 	{
 		view.initialize();		// Couple view appearance to model state
 		views.add(view);		// Make sure view receives all future updates
+
+		for (AbstractPane pane : view.getPanes())
+			router.subscribe(pane, pane.getKeys());
 	}
 
 	public void	removeView(View view)
 	{
 		views.remove(view);	// Make sure view receives no more updates
+
+		for (AbstractPane pane : view.getPanes())
+			router.unsubscribe(pane);
+
 		view.terminate();		// Decouple view appearance from model state
 
 		if (views.isEmpty())	// Nothing left to see here...
+		{
+			Trace.log(Trace.DEBUG, "controller", "statistics", null,
+					  model.getUpdateStatistics());
+			Trace.log(Trace.DEBUG, "history", "statistics", null,
+					  model.getHistoryStatistics());
 			System.exit(0);
+		}
+	}
+
+	// For views to access the shared movie collection. Panes should use this
+	// instead of loading the data files themselves.
+	public Catalog	getCatalog()
+	{
+		return model.getCatalog();
 	}
 
 	// For views to access data values whenever they want, such as for
@@ -95,11 +141,104 @@ public final class Controller
 	// changes have been calculated in response to an interaction.
 	public void	set(String key, Object value)
 	{
-		System.out.println("controller: set " + key + " to " + value);
+		Trace.log(Trace.DEBUG, "controller", "set", key, value);
 
 		model.setValue(key, value);
 	}
 
+	// Typed versions of get() and set(). Values of int, double, and boolean
+	// keys aren't boxed. Use the keys defined in Keys.
+	public <T> T	get(Key<T> key)
+	{
+		return model.get(key);
+	}
+
+	public int	getInt(Key.IntKey key)
+	{
+		return model.getInt(key);
+	}
+
+	public double	getDouble(Key.DoubleKey key)
+	{
+		return model.getDouble(key);
+	}
+
+	public boolean	getBoolean(Key.BooleanKey key)
+	{
+		return model.getBoolean(key);
+	}
+
+	public <T> void	set(Key<T> key, T value)
+	{
+		Trace.log(Trace.DEBUG, "controller", "set", key, value);
+
+		model.set(key, value);
+	}
+
+	public void	set(Key.IntKey key, int value)
+	{
+		Trace.log(Trace.DEBUG, "controller", "set", key, value);
+
+		model.set(key, value);
+	}
+
+	public void	set(Key.DoubleKey key, double value)
+	{
+		Trace.log(Trace.DEBUG, "controller", "set", key, value);
+
+		model.set(key, value);
+	}
+
+	public void	set(Key.BooleanKey key, boolean value)
+	{
+		Trace.log(Trace.DEBUG, "controller", "set", key, value);
+
+		model.set(key, value);
+	}
+
+	// For views to send an edit to a text value. Other views get the delta
+	// under the delta key, so they can patch their text instead of replacing
+	// it. Use the text and delta keys defined in Keys.
+	public void	edit(Key<String> key, Key<TextDelta> deltaKey, TextDelta delta)
+	{
+		Trace.log(Trace.DEBUG, "controller", "edit", key, delta);
+
+		model.edit(key, deltaKey, delta);
+	}
+
+	// For views to modify several data values as one change. Views get a
+	// single update with all of the values once the runnable returns.
+	public void	batch(Runnable runnable)
+	{
+		model.beginBatch();
+
+		try
+		{
+			runnable.run();
+		}
+		finally
+		{
+			model.endBatch();
+		}
+	}
+
+	// For views to undo the last change the user made, or redo the last one
+	// undone. Changes made together, such as in a batch or by typing, are
+	// undone together.
+	public void	undo()
+	{
+		Trace.log(Trace.DEBUG, "controller", "undo", null, null);
+
+		model.undo();
+	}
+
+	public void	redo()
+	{
+		Trace.log(Trace.DEBUG, "controller", "redo", null, null);
+
+		model.redo();
+	}
+
 	// This a placeholder, here to suggest reponsiveness to interactions that
 	// trigger state transitions, such as button presses. In practice, the
 	// trigger would indicate to the model to perform (or initiate a query to
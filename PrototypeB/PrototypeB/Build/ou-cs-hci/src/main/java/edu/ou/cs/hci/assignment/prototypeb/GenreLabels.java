@@ -0,0 +1,94 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.util.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>GenreLabels</CODE> class turns genre bits into labels such as
+ * "Action, Sci-Fi", listing the names of the set bits in bit order. The label
+ * of every possible set of genres is made up front (1024 of them for 10
+ * genres), so the same label string is shared by all movies with the same
+ * genres, and nothing is concatenated while drawing or sorting a table.
+ *
+ * @version %I%, %G%
+ */
+public final class GenreLabels
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	// Labels are made up front for at most this many genres. The rest are
+	// made when asked for.
+	private static final int		MAX_TABLE_GENRES = 16;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final List<String>		genres;	// Genre strings, by bit
+	private final int				mask;		// Bits of all genres
+	private final String[]			labels;	// By genre bits
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public GenreLabels(List<String> genres)
+	{
+		int	n = genres.size();
+
+		this.genres = genres;
+		this.mask = ((n >= 32) ? -1 : ((1 << n) - 1));
+
+		// Each label extends the label without its highest genre
+		labels = new String[1 << Math.min(n, MAX_TABLE_GENRES)];
+		labels[0] = "";
+
+		for (int bits=1; bits<labels.length; bits++)
+		{
+			int		high = 31 - Integer.numberOfLeadingZeros(bits);
+			String	rest = labels[bits & ~(1 << high)];
+
+			labels[bits] = (rest.isEmpty() ? genres.get(high) :
+							(rest + ", " + genres.get(high)));
+		}
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	public int	getGenreCount()
+	{
+		return genres.size();
+	}
+
+	// The label for a set of genre bits. Bits past the last genre are
+	// ignored. No genres gives an empty label.
+	public String	get(int bits)
+	{
+		bits &= mask;
+
+		if ((bits >= 0) && (bits < labels.length))
+			return labels[bits];
+
+		StringBuilder	sb = new StringBuilder();
+
+		for (int i=0; i<genres.size(); i++)
+			if ((bits & (1 << i)) != 0)
+				sb.append((sb.length() == 0) ? "" : ", ").append(genres.get(i));
+
+		return sb.toString();
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,510 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+// Notes:
+//
+// The history is limited to about 1 MB. Set the system property
+// "prototypeb.undo.budget" to a number of bytes to change it, such as
+// -Dprototypeb.undo.budget=262144
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.util.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>History</CODE> class keeps the changes made to the model's keys,
+ * so they can be undone and redone. Each change remembers how to reverse
+ * itself. Changes are grouped into steps: all the changes made in one batch
+ * are one step, as are consecutive edits to the same text, such as typing,
+ * until there's a pause of MERGE_MS. Text is kept as a delta each way instead
+ * of as the whole text before and after, so a step of editing long text costs
+ * about as much as the characters that changed. When the changes in the
+ * history take more than a budget of bytes, the oldest steps are forgotten.
+ * The model decides which changes to record, and calls these methods while
+ * holding its lock.
+ *
+ * @version %I%, %G%
+ */
+public final class History
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// Bytes of changes to keep, by default
+	public static final long	DEFAULT_BUDGET = 1L << 20;
+
+	// Edits to the same text closer together than this are one step
+	public static final long	MERGE_MS = 1000L;
+
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	// Rough bytes of a change not counting its text, for the budget
+	private static final int	CHANGE_BYTES = 48;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final long					budget;
+	private final HashSet<Key<?>>		excluded;	// Keys not recorded
+
+	// Steps, oldest first
+	private final ArrayDeque<Step>		undos;
+	private final ArrayDeque<Step>		redos;
+	private long						bytes;		// In both
+
+	private Step						open;		// In the open batch
+	private TextChange					typing;	// Can merge into it
+	private long						typed;		// Time of last merge
+	private boolean					applying;	// Undoing or redoing
+
+	// Statistics
+	private long						recorded;
+	private long						merged;
+	private long						forgotten;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public History()
+	{
+		this(Long.getLong("prototypeb.undo.budget", DEFAULT_BUDGET));
+	}
+
+	public History(long budget)
+	{
+		this.budget = budget;
+
+		excluded = new HashSet<Key<?>>();
+		undos = new ArrayDeque<Step>();
+		redos = new ArrayDeque<Step>();
+	}
+
+	//**********************************************************************
+	// Public Methods (Settings)
+	//**********************************************************************
+
+	// Stops recording changes to the key, such as for keys that change too
+	// often to be worth undoing one at a time.
+	public void	exclude(Key<?> key)
+	{
+		excluded.add(key);
+	}
+
+	// Whether a change to the key now would be recorded. It isn't while a
+	// step is being undone or redone.
+	public boolean	isRecording(Key<?> key)
+	{
+		return (!applying && !excluded.contains(key));
+	}
+
+	public boolean	canUndo()
+	{
+		return !undos.isEmpty();
+	}
+
+	public boolean	canRedo()
+	{
+		return !redos.isEmpty();
+	}
+
+	//**********************************************************************
+	// Public Methods (Recording)
+	//**********************************************************************
+
+	// Changes made from here until endBatch() are one step.
+	public void	beginBatch()
+	{
+		open = new Step();
+	}
+
+	public void	endBatch()
+	{
+		open = null;
+	}
+
+	// Records a new value for the key. Old and new text are kept as deltas.
+	public void	recordValue(Key<?> key, Object oldValue, Object newValue)
+	{
+		if ((oldValue instanceof String) && (newValue instanceof String))
+		{
+			String		o = (String)oldValue;
+			TextDelta	delta = TextDelta.diff(o, (String)newValue, this);
+
+			add(new TextChange(key, null, delta, delta.invert(o, this), o,
+							   (String)newValue));
+		}
+		else
+		{
+			add(new ValueChange(key.getName(), oldValue, newValue));
+		}
+	}
+
+	// Records an edit to a text, given the text before and after the edit.
+	// Merges it into the last step if that was an edit to the same text a
+	// moment ago.
+	public void	recordEdit(Key<String> key, Key<TextDelta> deltaKey,
+						   TextDelta delta, String oldText, String newText)
+	{
+		long	now = System.currentTimeMillis();
+
+		if ((open == null) && (typing != null) && (typing.key == key) &&
+			(now - typed < MERGE_MS) && redos.isEmpty() &&
+			(undos.peekLast() != null) &&
+			(undos.peekLast().last() == typing))
+		{
+			bytes -= typing.bytes();
+			typing.merge(delta, oldText, newText);
+			bytes += typing.bytes();
+			typed = now;
+			merged++;
+			trim();
+			return;
+		}
+
+		TextChange	change = new TextChange(key, deltaKey, delta,
+											delta.invert(oldText, this),
+											oldText, newText);
+
+		add(change);
+
+		if (open == null)
+		{
+			typing = change;
+			typed = now;
+		}
+	}
+
+	//**********************************************************************
+	// Public Methods (Undo and Redo)
+	//**********************************************************************
+
+	// Reverses the changes of the last step, last change first. Returns false
+	// if there was nothing to undo. If the keys no longer have the values the
+	// step left them with, such as after a change that wasn't recorded, the
+	// step can't be undone and the history is cleared.
+	public boolean	undo(Model model)
+	{
+		Step	step = undos.pollLast();
+
+		if (step == null)
+			return false;
+
+		typing = null;
+
+		if (!apply(model, step, true))
+			return false;
+
+		redos.addLast(step);
+
+		return true;
+	}
+
+	public boolean	redo(Model model)
+	{
+		Step	step = redos.pollLast();
+
+		if (step == null)
+			return false;
+
+		typing = null;
+
+		if (!apply(model, step, false))
+			return false;
+
+		undos.addLast(step);
+
+		return true;
+	}
+
+	// Forgets all steps.
+	public void	clear()
+	{
+		undos.clear();
+		redos.clear();
+		bytes = 0L;
+		typing = null;
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return undos.size() + " undo and " + redos.size() + " redo steps in " +
+			(bytes / 1024L) + " of " + (budget / 1024L) + " KB, " + recorded +
+			" changes recorded, " + merged + " edits merged, " + forgotten +
+			" steps forgotten";
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	private void	add(Change change)
+	{
+		// A new change ends what could have been redone
+		for (Step step : redos)
+			bytes -= step.bytes();
+
+		redos.clear();
+
+		if (typing != null)
+			typing.seal();
+
+		typing = null;
+
+		if (open == null)
+			undos.addLast(new Step());
+		else if (open.isEmpty())
+			undos.addLast(open);
+
+		undos.peekLast().add(change);
+		bytes += change.bytes();
+		recorded++;
+		trim();
+	}
+
+	// Forgets the oldest steps until under budget, keeping at least the last.
+	private void	trim()
+	{
+		while ((bytes > budget) && (undos.size() + redos.size() > 1))
+		{
+			Step	step = (undos.isEmpty() ? redos.pollFirst() :
+							undos.pollFirst());
+
+			bytes -= step.bytes();
+			forgotten++;
+		}
+	}
+
+	private boolean	apply(Model model, Step step, boolean undo)
+	{
+		applying = true;
+
+		try
+		{
+			int	n = step.changes.size();
+
+			for (int i=0; i<n; i++)
+			{
+				Change	change = step.changes.get(undo ? (n - 1 - i) : i);
+
+				if (!(undo ? change.undo(model) : change.redo(model)))
+				{
+					Trace.log(Trace.DEBUG, "history",
+							  (undo ? "can't undo" : "can't redo"),
+							  change.name, null);
+					clear();
+					return false;
+				}
+			}
+		}
+		finally
+		{
+			applying = false;
+		}
+
+		return true;
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	// The changes that are undone together.
+	private static final class Step
+	{
+		private final ArrayList<Change>	changes = new ArrayList<Change>(2);
+
+		public boolean	isEmpty()
+		{
+			return changes.isEmpty();
+		}
+
+		public Change	last()
+		{
+			return changes.get(changes.size() - 1);
+		}
+
+		public void	add(Change change)
+		{
+			changes.add(change);
+		}
+
+		public long	bytes()
+		{
+			long	sum = 0L;
+
+			for (Change change : changes)
+				sum += change.bytes();
+
+			return sum;
+		}
+	}
+
+	// A change to one key, which knows how to reverse itself.
+	private abstract static class Change
+	{
+		protected final String	name;		// Of the key
+
+		protected Change(String name)
+		{
+			this.name = name;
+		}
+
+		public abstract boolean	undo(Model model);
+		public abstract boolean	redo(Model model);
+		public abstract long		bytes();
+	}
+
+	// A new value, kept along with the old one.
+	private static final class ValueChange extends Change
+	{
+		private final Object	oldValue;
+		private final Object	newValue;
+
+		public ValueChange(String name, Object oldValue, Object newValue)
+		{
+			super(name);
+
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+		}
+
+		public boolean	undo(Model model)
+		{
+			return apply(model, newValue, oldValue);
+		}
+
+		public boolean	redo(Model model)
+		{
+			return apply(model, oldValue, newValue);
+		}
+
+		public long	bytes()
+		{
+			return CHANGE_BYTES + sizeOf(oldValue) + sizeOf(newValue);
+		}
+
+		// The key must still have the value the step left it with.
+		private boolean	apply(Model model, Object from, Object to)
+		{
+			if (!Objects.equals(model.getLatestValue(name), from))
+				return false;
+
+			model.setValue(name, to);
+			return true;
+		}
+
+		private static long	sizeOf(Object value)
+		{
+			return ((value instanceof String) ?
+					2L * ((String)value).length() : 0L);
+		}
+	}
+
+	// A change to a text, kept as the delta that makes it and the delta that
+	// reverses it. If the text has a delta key, it's changed as an edit, so
+	// views can patch their text instead of replacing it. The hashes of the
+	// text before and after tell if the text is still what the change left.
+	// While edits can still merge into the change, it keeps the text after
+	// instead, which the model has anyway, and hashes it once sealed.
+	private final class TextChange extends Change
+	{
+		private final Key<?>			key;
+		private final Key<TextDelta>	deltaKey;	// Null if none
+		private TextDelta				forward;
+		private TextDelta				inverse;
+		private final int			before;		// Hash of old text
+		private int					after;		// Hash of new text
+		private String				left;		// New text until sealed
+
+		public TextChange(Key<?> key, Key<TextDelta> deltaKey,
+						  TextDelta forward, TextDelta inverse,
+						  String oldText, String newText)
+		{
+			super(key.getName());
+
+			this.key = key;
+			this.deltaKey = deltaKey;
+			this.forward = forward;
+			this.inverse = inverse;
+
+			before = oldText.hashCode();
+			left = newText;
+		}
+
+		// Adds an edit made after this change. The text before the edit is
+		// what this change left. The inverse of the edit goes in front of
+		// the inverse so far, so only the span the two cover gets copied.
+		public void	merge(TextDelta delta, String oldText, String newText)
+		{
+			TextDelta	undo = delta.invert(oldText, History.this);
+
+			forward = TextDelta.compose(forward, delta, newText);
+			inverse = TextDelta.composeOver(undo, inverse, oldText);
+			left = newText;
+		}
+
+		// Stops keeping the text after, once nothing more merges into it.
+		public void	seal()
+		{
+			if (left != null)
+			{
+				after = left.hashCode();
+				left = null;
+			}
+		}
+
+		public boolean	undo(Model model)
+		{
+			seal();
+			return apply(model, inverse, after);
+		}
+
+		public boolean	redo(Model model)
+		{
+			return apply(model, forward, before);
+		}
+
+		public long	bytes()
+		{
+			return CHANGE_BYTES + 2L * (forward.getInserted().length() +
+										inverse.getInserted().length());
+		}
+
+		// The text must still be the one the step left, not just as long.
+		@SuppressWarnings("unchecked")
+		private boolean	apply(Model model, TextDelta delta, int hash)
+		{
+			String	text = (String)model.getLatestValue(name);
+
+			if ((text == null) || (text.length() != delta.getOldLength()) ||
+				(text.hashCode() != hash))
+				return false;
+
+			// Views skip deltas from themselves, so this one comes from here
+			TextDelta	d = delta.withSource(History.this);
+
+			if (deltaKey != null)
+				model.edit((Key<String>)key, deltaKey, d);
+			else
+				model.setValue(name, d.apply(text));
+
+			return true;
+		}
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,611 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Journal</CODE> class saves edits to the movies as they're made, so
+ * they survive between runs without rewriting the whole {@link CatalogFile}.
+ * Each change made through a row view is captured on the thread that made it
+ * (usually the JavaFX thread) and queued. A background thread takes what has
+ * queued up every COMMIT_MS, keeps only the last value of each attribute of
+ * each row, and appends those as one block to the journal file, then forces
+ * it to disk. The journal file is kept next to the catalog file. Its format is:
+ *
+ * <PRE>
+ *   header     MAGIC, VERSION, and the id of the catalog file it applies to
+ *   blocks     length, CRC32, then that many bytes of records
+ *   record     row, attribute, value
+ * </PRE>
+ *
+ * Attributes are numbered as in {@link MovieStore}. Values are ints, doubles,
+ * booleans, or UTF-8 strings (length first, -1 for null), depending on the
+ * attribute. When the catalog is opened, the journal is replayed over it, up
+ * to the first block that is incomplete or fails its check, which is what a
+ * crash in the middle of an append leaves behind. Once the journal grows past
+ * COMPACT_BYTES, the background thread writes a new catalog file with the
+ * journal applied, then starts an empty journal for it. A journal made for a
+ * different catalog file than the one there now is ignored.
+ *
+ * @version %I%, %G%
+ */
+public final class Journal
+	implements MovieStore.EditListener
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// Milliseconds between commits
+	public static final long	COMMIT_MS = 200L;
+
+	// Journal size past which the catalog file is rewritten
+	public static final long	COMPACT_BYTES = 1L << 20;
+
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final int	MAGIC = 0x4d4f564a;	// "MOVJ"
+	private static final int	VERSION = 1;
+	private static final int	HEADER_BYTES = 16;
+	private static final int	BLOCK_HEADER_BYTES = 8;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final File							base;		// Catalog file
+	private final File							file;		// Journal file
+	private final MovieStore					store;
+
+	// Edits captured but not yet written. The queue is filled by the thread
+	// that edits; everything else is only touched by the journal thread.
+	private final ConcurrentLinkedQueue<Record>	queue;
+	private final LinkedHashMap<Long, Record>		pending;
+	private final ScheduledExecutorService		executor;
+
+	private FileChannel							channel;
+	private long									compactAt;
+
+	// Statistics
+	private int									replayed;
+	private long									records;
+	private long									blocks;
+	private long									compactions;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	private Journal(File base, MovieStore store)
+	{
+		this.base = base;
+		this.file = new File(base.getPath() + ".journal");
+		this.store = store;
+
+		queue = new ConcurrentLinkedQueue<Record>();
+		pending = new LinkedHashMap<Long, Record>();
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread	thread = new Thread(r, "journal");
+
+				thread.setDaemon(true);
+
+				return thread;
+			});
+
+		compactAt = COMPACT_BYTES;
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	// Replays the journal for the catalog file over the store that was just
+	// opened from it, then starts saving the store's edits. The store must not
+	// be in use by anything else yet.
+	public static Journal	open(File base, MovieStore store, long id)
+		throws IOException
+	{
+		Journal	journal = new Journal(base, store);
+
+		journal.start(id);
+
+		return journal;
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// Writes whatever edits are still queued and stops saving edits. Called
+	// when the program exits.
+	public void	close()
+	{
+		if (executor.isShutdown())
+			return;
+
+		store.setEditListener(null);
+		executor.shutdown();
+
+		try
+		{
+			executor.awaitTermination(10L, TimeUnit.SECONDS);
+			flush();
+			channel.close();
+		}
+		catch (InterruptedException | IOException ex)
+		{
+			ex.printStackTrace();
+		}
+
+		Trace.log(Trace.DEBUG, "journal", "closed", file, this);
+	}
+
+	//**********************************************************************
+	// Override Methods (EditListener)
+	//**********************************************************************
+
+	// Captures the new value now, since the store may only be read on the
+	// thread that edits it.
+	public void	edited(int row, int attribute)
+	{
+		queue.add(new Record(row, attribute, get(store, row, attribute)));
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return replayed + " records replayed, " + records + " records in " +
+			blocks + " blocks committed, " + compactions + " compactions";
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	private void	start(long id)
+		throws IOException
+	{
+		long	t0 = System.nanoTime();
+		long	valid = (file.isFile() ? replay(file, store, id) : -1L);
+
+		if (valid < 0L)
+			create(id);
+		else
+			append(valid);
+
+		long	t1 = System.nanoTime();
+
+		Trace.log(Trace.DEBUG, "journal", "replayed", file, replayed);
+		Trace.log(Trace.DEBUG, "journal", "replay ms", file,
+				  (t1 - t0) / 1000000L);
+
+		store.setEditListener(this);
+		executor.scheduleWithFixedDelay(this::commit, COMMIT_MS, COMMIT_MS,
+										TimeUnit.MILLISECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+	}
+
+	// Replays the journal over the store, counting the records replayed.
+	// Returns how many bytes of the journal are good, or -1 if it's for
+	// another catalog file.
+	private long	replay(File journal, MovieStore target, long id)
+		throws IOException
+	{
+		ByteBuffer	buffer = ByteBuffer.wrap(Files.readAllBytes(journal.toPath()));
+
+		if ((buffer.capacity() < HEADER_BYTES) ||
+			(buffer.getInt(0) != MAGIC) || (buffer.getInt(4) != VERSION) ||
+			(buffer.getLong(8) != id))
+			return -1L;
+
+		int	position = HEADER_BYTES;
+
+		while (buffer.capacity() - position >= BLOCK_HEADER_BYTES)
+		{
+			int	length = buffer.getInt(position);
+			int	crc = buffer.getInt(position + 4);
+			int	start = position + BLOCK_HEADER_BYTES;
+
+			if ((length < 0) || (length > buffer.capacity() - start) ||
+				(crc != checksum(buffer.array(), start, length)))
+				break;
+
+			List<Record>	block = decode(buffer.array(), start, length,
+										   target.size());
+
+			if (block == null)
+				break;
+
+			for (Record record : block)
+				set(target, record);
+
+			replayed += block.size();
+			position = start + length;
+		}
+
+		return position;
+	}
+
+	// Starts an empty journal for the catalog file with the id, replacing the
+	// old one in a single move.
+	private void	create(long id)
+		throws IOException
+	{
+		File	temp = new File(file.getPath() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(
+				new FileOutputStream(temp)))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(id);
+		}
+
+		Files.move(temp.toPath(), file.toPath(),
+				   StandardCopyOption.REPLACE_EXISTING);
+
+		append(HEADER_BYTES);
+	}
+
+	// Opens the journal for appending after its good bytes, dropping any
+	// partial block left after them.
+	private void	append(long valid)
+		throws IOException
+	{
+		if (channel != null)
+			channel.close();
+
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+								   StandardOpenOption.WRITE);
+		channel.truncate(valid);
+		channel.position(valid);
+	}
+
+	// Runs every COMMIT_MS on the journal thread.
+	private void	commit()
+	{
+		try
+		{
+			flush();
+
+			if (channel.size() > compactAt)
+				compact();
+		}
+		catch (IOException ex)
+		{
+			ex.printStackTrace();
+		}
+	}
+
+	// Appends the queued edits as one block, keeping only the last edit of
+	// each attribute of each row, and waits until it's on disk.
+	private void	flush()
+		throws IOException
+	{
+		Record	record;
+
+		while ((record = queue.poll()) != null)
+			pending.put(record.key(), record);
+
+		if (pending.isEmpty())
+			return;
+
+		ByteArrayOutputStream	bytes = new ByteArrayOutputStream();
+		DataOutputStream		out = new DataOutputStream(bytes);
+
+		out.writeInt(0);
+		out.writeInt(0);
+
+		for (Record r : pending.values())
+			r.write(out);
+
+		byte[]		array = bytes.toByteArray();
+		int			length = array.length - BLOCK_HEADER_BYTES;
+		ByteBuffer	block = ByteBuffer.wrap(array);
+
+		block.putInt(0, length);
+		block.putInt(4, checksum(array, BLOCK_HEADER_BYTES, length));
+
+		while (block.hasRemaining())
+			channel.write(block);
+
+		channel.force(false);
+
+		records += pending.size();
+		blocks++;
+		pending.clear();
+	}
+
+	// Writes a new catalog file with the journal applied, then starts a new
+	// journal for it. Works on a private copy of the catalog opened from the
+	// file, never the store being edited. If the catalog file is replaced and
+	// the program stops before the new journal is in place, the old journal no
+	// longer matches and is ignored, which is right since the catalog file
+	// already has its edits.
+	private void	compact()
+		throws IOException
+	{
+		long	t0 = System.nanoTime();
+
+		try
+		{
+			CatalogFile	cf = CatalogFile.open(base);
+			MovieStore	copy = cf.getStore();
+			int			saved = replayed;
+
+			if (replay(file, copy, cf.getId()) < 0L)
+				throw new IOException("Journal doesn't match " + base);
+
+			replayed = saved;
+
+			long	id = CatalogFile.write(cf.getGenres(), cf.getRatings(),
+										   copy, cf.getSource(), base);
+
+			create(id);
+			compactAt = COMPACT_BYTES;
+			compactions++;
+		}
+		catch (IOException ex)
+		{
+			// Don't try again until the journal has grown as much again
+			compactAt = channel.size() + COMPACT_BYTES;
+			throw ex;
+		}
+
+		long	t1 = System.nanoTime();
+
+		Trace.log(Trace.DEBUG, "journal", "compaction ms", base,
+				  (t1 - t0) / 1000000L);
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	private static int	checksum(byte[] array, int offset, int length)
+	{
+		CRC32	crc = new CRC32();
+
+		crc.update(array, offset, length);
+
+		return (int)crc.getValue();
+	}
+
+	// The records in a block, or null if any of them don't make sense for a
+	// store with n rows.
+	private static List<Record>	decode(byte[] array, int offset, int length,
+									   int n)
+	{
+		ArrayList<Record>	list = new ArrayList<Record>();
+
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(array, offset, length)))
+		{
+			while (in.available() > 0)
+			{
+				Record	record = Record.read(in);
+
+				if ((record.row < 0) || (record.row >= n) ||
+					(record.attribute < 0) ||
+					(record.attribute >= MovieStore.P_COUNT))
+					return null;
+
+				list.add(record);
+			}
+		}
+		catch (IOException ex)
+		{
+			return null;
+		}
+
+		return list;
+	}
+
+	private static Object	get(MovieStore store, int i, int attribute)
+	{
+		switch (attribute)
+		{
+			case MovieStore.P_TITLE:		return store.getTitle(i);
+			case MovieStore.P_IMAGE:		return store.getImage(i);
+			case MovieStore.P_YEAR:		return store.getYear(i);
+			case MovieStore.P_RATING:		return store.getRating(i);
+			case MovieStore.P_RUNTIME:		return store.getRuntime(i);
+			case MovieStore.P_SCORE:		return store.getAverageReviewScore(i);
+			case MovieStore.P_REVIEWS:		return store.getNumberOfReviews(i);
+			case MovieStore.P_GENRE:		return store.getGenre(i);
+			case MovieStore.P_DIRECTOR:	return store.getDirector(i);
+			case MovieStore.P_SUMMARY:		return store.getSummary(i);
+			case MovieStore.P_COMMENTS:	return store.getComments(i);
+			default:
+				return store.getFlag(attribute - MovieStore.P_FLAG, i);
+		}
+	}
+
+	// Sets through the row view, so that the store marks the row as edited.
+	private static void	set(MovieStore store, Record record)
+	{
+		MovieStore.Row	row = store.getRow(record.row);
+		Object			v = record.value;
+
+		switch (record.attribute)
+		{
+			case MovieStore.P_TITLE:
+				row.setTitle((String)v);
+				break;
+
+			case MovieStore.P_IMAGE:
+				row.setImage((String)v);
+				break;
+
+			case MovieStore.P_YEAR:
+				row.setYear((Integer)v);
+				break;
+
+			case MovieStore.P_RATING:
+				row.setRating((String)v);
+				break;
+
+			case MovieStore.P_RUNTIME:
+				row.setRuntime((Integer)v);
+				break;
+
+			case MovieStore.P_SCORE:
+				row.setAverageReviewScore((Double)v);
+				break;
+
+			case MovieStore.P_REVIEWS:
+				row.setNumberOfReviews((Integer)v);
+				break;
+
+			case MovieStore.P_GENRE:
+				row.setGenre((Integer)v);
+				break;
+
+			case MovieStore.P_DIRECTOR:
+				row.setDirector((String)v);
+				break;
+
+			case MovieStore.P_SUMMARY:
+				row.setSummary((String)v);
+				break;
+
+			case MovieStore.P_COMMENTS:
+				row.setComments((String)v);
+				break;
+
+			default:
+				row.setFlag(record.attribute - MovieStore.P_FLAG, (Boolean)v);
+		}
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	// One edit: the new value of an attribute of a row.
+	private static final class Record
+	{
+		private final int		row;
+		private final int		attribute;
+		private final Object	value;
+
+		public Record(int row, int attribute, Object value)
+		{
+			this.row = row;
+			this.attribute = attribute;
+			this.value = value;
+		}
+
+		// Same for all edits of the same attribute of the same row.
+		public Long	key()
+		{
+			return ((long)row << 8) | attribute;
+		}
+
+		public void	write(DataOutputStream out)
+			throws IOException
+		{
+			out.writeInt(row);
+			out.writeByte(attribute);
+
+			switch (attribute)
+			{
+				case MovieStore.P_YEAR:
+				case MovieStore.P_RUNTIME:
+				case MovieStore.P_REVIEWS:
+				case MovieStore.P_GENRE:
+					out.writeInt((Integer)value);
+					break;
+
+				case MovieStore.P_SCORE:
+					out.writeDouble((Double)value);
+					break;
+
+				case MovieStore.P_TITLE:
+				case MovieStore.P_IMAGE:
+				case MovieStore.P_RATING:
+				case MovieStore.P_DIRECTOR:
+				case MovieStore.P_SUMMARY:
+				case MovieStore.P_COMMENTS:
+					if (value == null)
+					{
+						out.writeInt(-1);
+					}
+					else
+					{
+						byte[]	bytes = ((String)value).getBytes(
+							StandardCharsets.UTF_8);
+
+						out.writeInt(bytes.length);
+						out.write(bytes);
+					}
+					break;
+
+				default:
+					out.writeBoolean((Boolean)value);
+			}
+		}
+
+		public static Record	read(DataInputStream in)
+			throws IOException
+		{
+			int	row = in.readInt();
+			int	attribute = in.readUnsignedByte();
+
+			switch (attribute)
+			{
+				case MovieStore.P_YEAR:
+				case MovieStore.P_RUNTIME:
+				case MovieStore.P_REVIEWS:
+				case MovieStore.P_GENRE:
+					return new Record(row, attribute, in.readInt());
+
+				case MovieStore.P_SCORE:
+					return new Record(row, attribute, in.readDouble());
+
+				case MovieStore.P_TITLE:
+				case MovieStore.P_IMAGE:
+				case MovieStore.P_RATING:
+				case MovieStore.P_DIRECTOR:
+				case MovieStore.P_SUMMARY:
+				case MovieStore.P_COMMENTS:
+					int	length = in.readInt();
+
+					if (length < 0)
+						return new Record(row, attribute, null);
+
+					byte[]	bytes = new byte[length];
+
+					in.readFully(bytes);
+
+					return new Record(row, attribute,
+									  new String(bytes, StandardCharsets.UTF_8));
+
+				default:
+					return new Record(row, attribute, in.readBoolean());
+			}
+		}
+	}
+}
+
+//******************************************************************************
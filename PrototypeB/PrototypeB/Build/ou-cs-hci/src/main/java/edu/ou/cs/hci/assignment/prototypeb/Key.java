@@ -0,0 +1,234 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.util.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Key</CODE> class names a model property and the type of its value.
+ * Keys are interned: there is only ever one key for each name. Each key gets a
+ * small, dense id in the order keys are created, which the model uses as an
+ * index into its value arrays. Keys for int, double, and boolean values are
+ * instances of the IntKey, DoubleKey, and BooleanKey subclasses, so the model
+ * can store and compare their values without boxing. The commonly used keys
+ * are defined in {@link Keys}.
+ *
+ * @version %I%, %G%
+ */
+public class Key<T>
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// How a key's values are stored
+	public static final int	OBJECT = 0;
+	public static final int	INT = 1;
+	public static final int	DOUBLE = 2;
+	public static final int	BOOLEAN = 3;
+
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	// All keys, by name and by id
+	private static final HashMap<String, Key<?>>	names =
+		new HashMap<String, Key<?>>();
+	private static final ArrayList<Key<?>>			ids =
+		new ArrayList<Key<?>>();
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final String		name;
+	private final Class<T>		type;
+	private final int			kind;
+	private final int			id;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	// Call only while synchronized on names.
+	private Key(String name, Class<T> type, int kind)
+	{
+		this.name = name;
+		this.type = type;
+		this.kind = kind;
+		this.id = ids.size();
+
+		names.put(name, this);
+		ids.add(this);
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	// Gets the key with the name, or creates it if there isn't one yet. Throws
+	// an IllegalArgumentException if the name is taken by a key of a different
+	// type.
+	public static <T> Key<T>	of(String name, Class<T> type)
+	{
+		synchronized (names)
+		{
+			Key<?>	key = names.get(name);
+
+			if (key == null)
+				return new Key<T>(name, type, OBJECT);
+
+			return check(key, type).cast();
+		}
+	}
+
+	public static IntKey	ofInt(String name)
+	{
+		synchronized (names)
+		{
+			Key<?>	key = names.get(name);
+
+			return ((key == null) ? new IntKey(name) :
+					(IntKey)check(key, Integer.class));
+		}
+	}
+
+	public static DoubleKey	ofDouble(String name)
+	{
+		synchronized (names)
+		{
+			Key<?>	key = names.get(name);
+
+			return ((key == null) ? new DoubleKey(name) :
+					(DoubleKey)check(key, Double.class));
+		}
+	}
+
+	public static BooleanKey	ofBoolean(String name)
+	{
+		synchronized (names)
+		{
+			Key<?>	key = names.get(name);
+
+			return ((key == null) ? new BooleanKey(name) :
+					(BooleanKey)check(key, Boolean.class));
+		}
+	}
+
+	// Gets the key with the name, or null if there isn't one.
+	public static Key<?>	get(String name)
+	{
+		synchronized (names)
+		{
+			return names.get(name);
+		}
+	}
+
+	// Gets the key with the id.
+	public static Key<?>	get(int id)
+	{
+		synchronized (names)
+		{
+			return ids.get(id);
+		}
+	}
+
+	// The number of keys created so far, one more than the highest id.
+	public static int	count()
+	{
+		synchronized (names)
+		{
+			return ids.size();
+		}
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	public final String	getName()
+	{
+		return name;
+	}
+
+	public final Class<T>	getType()
+	{
+		return type;
+	}
+
+	public final int	getKind()
+	{
+		return kind;
+	}
+
+	public final int	getId()
+	{
+		return id;
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return name;
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	@SuppressWarnings("unchecked")
+	private <U> Key<U>	cast()
+	{
+		return (Key<U>)this;
+	}
+
+	private static Key<?>	check(Key<?> key, Class<?> type)
+	{
+		if (key.type != type)
+			throw new IllegalArgumentException("key " + key.name +
+				" has type " + key.type.getSimpleName() + ", not " +
+				type.getSimpleName());
+
+		return key;
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	public static final class IntKey extends Key<Integer>
+	{
+		private IntKey(String name)
+		{
+			super(name, Integer.class, INT);
+		}
+	}
+
+	public static final class DoubleKey extends Key<Double>
+	{
+		private DoubleKey(String name)
+		{
+			super(name, Double.class, DOUBLE);
+		}
+	}
+
+	public static final class BooleanKey extends Key<Boolean>
+	{
+		private BooleanKey(String name)
+		{
+			super(name, Boolean.class, BOOLEAN);
+		}
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,111 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import edu.ou.cs.hci.assignment.prototypeb.Key.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Keys</CODE> class defines the keys of the model properties used by
+ * the panes. Each key's name is the string used for it in updates.
+ *
+ * @version %I%, %G%
+ */
+public final class Keys
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// Keys accessed and/or modified by CollectionPane controls
+	public static final IntKey			SELECTED_MOVIE_INDEX =
+		Key.ofInt("selectedMovieIndex");
+
+	// Keys for searching and filtering in CollectionPane
+	public static final Key<String>		SEARCH_TEXT =
+		Key.of("search.text", String.class);
+	public static final IntKey			SEARCH_GENRES =		// Bits, 0 for any
+		Key.ofInt("search.genres");
+	public static final BooleanKey		SEARCH_GENRES_ALL =	// Else any genre
+		Key.ofBoolean("search.genresAll");
+	public static final IntKey			SEARCH_FLAGS =		// Bits, all needed
+		Key.ofInt("search.flags");
+	public static final IntKey			SEARCH_RATINGS =	// Bits, 0 for any
+		Key.ofInt("search.ratings");
+	public static final IntKey			SEARCH_YEAR_MIN =
+		Key.ofInt("search.yearMin");
+	public static final IntKey			SEARCH_YEAR_MAX =
+		Key.ofInt("search.yearMax");
+
+	// Keys accessed and/or modified by EditorPane controls
+	public static final Key<String>		MOVIE_TITLE =
+		Key.of("movie.title", String.class);
+	public static final Key<String>		MOVIE_IMAGE_FILE =
+		Key.of("movie.imageFile", String.class);
+	public static final IntKey			MOVIE_YEAR =
+		Key.ofInt("movie.year");
+	public static final IntKey			MOVIE_RATING =
+		Key.ofInt("movie.rating");
+	public static final IntKey			MOVIE_RUNTIME =
+		Key.ofInt("movie.runtime");
+
+	public static final BooleanKey		MOVIE_AWARD_PICTURE =
+		Key.ofBoolean("movie.award.picture");
+	public static final BooleanKey		MOVIE_AWARD_DIRECTING =
+		Key.ofBoolean("movie.award.directing");
+	public static final BooleanKey		MOVIE_AWARD_CINEMATOGRAPHY =
+		Key.ofBoolean("movie.award.cinematography");
+	public static final BooleanKey		MOVIE_AWARD_ACTING =
+		Key.ofBoolean("movie.award.acting");
+
+	public static final DoubleKey		MOVIE_AVERAGE_REVIEW_SCORE =
+		Key.ofDouble("movie.averageReviewScore");
+	public static final IntKey			MOVIE_NUMBER_OF_REVIEWS =
+		Key.ofInt("movie.numberOfReviews");
+	public static final IntKey			MOVIE_GENRE =
+		Key.ofInt("movie.genre");
+
+	public static final Key<String>		MOVIE_DIRECTOR =
+		Key.of("movie.director", String.class);
+	public static final BooleanKey		MOVIE_IS_ANIMATED =
+		Key.ofBoolean("movie.isAnimated");
+	public static final BooleanKey		MOVIE_IS_COLOR =
+		Key.ofBoolean("movie.isColor");
+
+	public static final Key<String>		MOVIE_SUMMARY =
+		Key.of("movie.summary", String.class);
+	public static final Key<String>		MOVIE_COMMENTS =
+		Key.of("movie.comments", String.class);
+
+	// Keys for edits to the text in TextAreas, sent instead of the whole text
+	public static final Key<TextDelta>	MOVIE_SUMMARY_DELTA =
+		Key.of("movie.summary.delta", TextDelta.class);
+	public static final Key<TextDelta>	MOVIE_COMMENTS_DELTA =
+		Key.of("movie.comments.delta", TextDelta.class);
+
+	// Keys for the selection in TextAreas
+	public static final IntKey			MOVIE_SUMMARY_ANCHOR =
+		Key.ofInt("movie.summary.anchor");
+	public static final IntKey			MOVIE_COMMENTS_ANCHOR =
+		Key.ofInt("movie.comments.anchor");
+	public static final IntKey			MOVIE_SUMMARY_CARET =
+		Key.ofInt("movie.summary.caret");
+	public static final IntKey			MOVIE_COMMENTS_CARET =
+		Key.ofInt("movie.comments.caret");
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	private Keys()
+	{
+	}
+}
+
+//******************************************************************************
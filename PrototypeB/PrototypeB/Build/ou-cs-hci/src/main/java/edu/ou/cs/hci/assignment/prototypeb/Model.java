@@ -17,8 +17,10 @@ package edu.ou.cs.hci.assignment.prototypeb;
 
 //import java.lang.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import javafx.application.Platform;
 import javafx.collections.*;
+import edu.ou.cs.hci.assignment.prototypeb.Key.*;
 
 //******************************************************************************
 
@@ -37,8 +39,39 @@ public final class Model
 	// Master of the program, manager of the data, mediator of all updates
 	private final Controller				controller;
 
-	// Easy, extensible way to store multiple simple, independent parameters
-	private final HashMap<String, Object>	properties;
+	// Simple, independent parameters, stored by key id in typed arrays so
+	// that int, double, and boolean values are never boxed. Values that have
+	// been delivered to the views are committed, in an immutable snapshot
+	// that any thread can read without locking. Only flush() replaces it,
+	// on the JavaFX thread. Values set since then are next, waiting under
+	// the lock for the next delivery.
+	private volatile Snapshot				committed;
+	private Slots							next;
+
+	// The movie collection, loaded once and shared by all views
+	private final CompletableFuture<Catalog>	catalog;
+
+	// Keys waiting to be delivered, in the order first set. Setting a key
+	// that is already waiting replaces its value (last write wins).
+	private final Object					lock = new Object();
+	private boolean[]						waiting;	// By key id
+	private int[]							deltas;	// Edit key ids + 1
+	private boolean[]						edited;	// Edits not committed
+	private Key<?>[]						order;		// Order set
+	private int							orderSize;
+	private int							batchDepth;	// Open batches
+	private boolean						scheduled;	// Flush posted?
+
+	// Changes that can be undone. Only changes that start a chain of updates
+	// are recorded, not the ones views make while handling a delivery, since
+	// undoing the change that led to those makes the views redo them.
+	private final History					history;
+	private boolean						delivering;	// In flush()
+
+	// Update statistics
+	private long							sets;		// Changes accepted
+	private long							merged;	// Replaced by later
+	private long							flushes;	// Deliveries
 
 	//**********************************************************************
 	// Constructors and Finalizer
@@ -48,88 +81,838 @@ public final class Model
 	{
 		this.controller = controller;
 
+		// Load the movie collection that all panes in all views share. This
+		// happens in the background while the splash screen is showing.
+		catalog = CompletableFuture.supplyAsync(Catalog::load);
+
+		// Then build the search index, so the first search doesn't wait
+		catalog.thenAcceptAsync(Catalog::getIndex);
+		catalog.thenAcceptAsync(Catalog::getSorter);
+
 		// Create the parameters accessed and/or modified by controls
-		properties = new HashMap<String, Object>();
+		int	n = Key.count();
+
+		next = new Slots(n);
+		waiting = new boolean[n];
+		deltas = new int[n];
+		edited = new boolean[n];
+		order = new Key<?>[n];
+		history = new History();
 
 		// Add parameters accessed and/or modified by CollectionPane controls
-		properties.put("selectedMovieIndex",			-1);
+		put(Keys.SELECTED_MOVIE_INDEX,				-1);
+
+		put(Keys.SEARCH_TEXT,						"");
+		put(Keys.SEARCH_GENRES,					0);
+		put(Keys.SEARCH_GENRES_ALL,				false);
+		put(Keys.SEARCH_FLAGS,					0);
+		put(Keys.SEARCH_RATINGS,					0);
+		put(Keys.SEARCH_YEAR_MIN,					1900);
+		put(Keys.SEARCH_YEAR_MAX,					2040);
 
 		// Add parameters accessed and/or modified by EditorPane controls
-		properties.put("movie.title",					"");
-		properties.put("movie.imageFile",				"");
-		properties.put("movie.year",					1900);
-		properties.put("movie.rating",					1);
-		properties.put("movie.runtime",				1);
+		put(Keys.MOVIE_TITLE,						"");
+		put(Keys.MOVIE_IMAGE_FILE,					"");
+		put(Keys.MOVIE_YEAR,						1900);
+		put(Keys.MOVIE_RATING,						1);
+		put(Keys.MOVIE_RUNTIME,					1);
 
-		properties.put("movie.award.picture",			Boolean.FALSE);
-		properties.put("movie.award.directing",		Boolean.FALSE);
-		properties.put("movie.award.cinematography",	Boolean.FALSE);
-		properties.put("movie.award.acting",			Boolean.FALSE);
+		put(Keys.MOVIE_AWARD_PICTURE,				false);
+		put(Keys.MOVIE_AWARD_DIRECTING,			false);
+		put(Keys.MOVIE_AWARD_CINEMATOGRAPHY,		false);
+		put(Keys.MOVIE_AWARD_ACTING,				false);
 
-		properties.put("movie.averageReviewScore",		0.0);
-		properties.put("movie.numberOfReviews",		0);
-		properties.put("movie.genre",					0);
+		put(Keys.MOVIE_AVERAGE_REVIEW_SCORE,		0.0);
+		put(Keys.MOVIE_NUMBER_OF_REVIEWS,			0);
+		put(Keys.MOVIE_GENRE,						0);
 
-		properties.put("movie.director",				"");
-		properties.put("movie.isAnimated",				Boolean.FALSE);
-		properties.put("movie.isColor",				Boolean.TRUE);
+		put(Keys.MOVIE_DIRECTOR,					"");
+		put(Keys.MOVIE_IS_ANIMATED,				false);
+		put(Keys.MOVIE_IS_COLOR,					true);
 
-		properties.put("movie.summary",				"");
-		properties.put("movie.comments",				"");
+		put(Keys.MOVIE_SUMMARY,					"");
+		put(Keys.MOVIE_COMMENTS,					"");
 
 		// Add special parameters accessed and/or modified by TextAreas
-		properties.put("movie.summary.anchor",			0);
-		properties.put("movie.comments.anchor",		0);
-		properties.put("movie.summary.caret",			0);
-		properties.put("movie.comments.caret",			0);
+		put(Keys.MOVIE_SUMMARY_ANCHOR,				0);
+		put(Keys.MOVIE_COMMENTS_ANCHOR,			0);
+		put(Keys.MOVIE_SUMMARY_CARET,				0);
+		put(Keys.MOVIE_COMMENTS_CARET,				0);
+
+		// Moving the caret or selecting text isn't undone by itself
+		history.exclude(Keys.MOVIE_SUMMARY_ANCHOR);
+		history.exclude(Keys.MOVIE_COMMENTS_ANCHOR);
+		history.exclude(Keys.MOVIE_SUMMARY_CARET);
+		history.exclude(Keys.MOVIE_COMMENTS_CARET);
+
+		committed = new Snapshot(0L, next);
+		next = new Slots(n);
 	}
 
 	//**********************************************************************
 	// Public Methods (Controller)
 	//**********************************************************************
 
+	// Waits for the catalog to finish loading if it hasn't already.
+	public Catalog	getCatalog()
+	{
+		return catalog.join();
+	}
+
+	// The values the views were last sent. Safe to call from any thread.
+	public Snapshot	getSnapshot()
+	{
+		return committed;
+	}
+
+	// Gets a value by the name of its key. Primitive values come back boxed.
+	// Unknown names give null.
 	public Object	getValue(String key)
 	{
-		return properties.get(key);
+		Key<?>	k = Key.get(key);
+
+		return ((k == null) ? null : committed.get(k));
 	}
 
+	// Sets a value by the name of its key. Values of primitive keys must be
+	// boxes of the right type. Unknown names are added as Object keys.
 	public void	setValue(String key, Object value)
 	{
-		if (properties.containsKey(key) &&
-			properties.get(key).equals(value))
+		Key<?>	k = Key.get(key);
+
+		if (k == null)
+			k = Key.of(key, Object.class);
+
+		setBoxed(k, value);
+	}
+
+	public void	trigger(String name)
+	{
+		System.out.println("  model: (not!) calculating function: " + name);
+	}
+
+	//**********************************************************************
+	// Public Methods (Controller, Typed Keys)
+	//**********************************************************************
+
+	// Reads the committed values without locking. Several values read one
+	// after another can come from different deliveries. Read them from one
+	// getSnapshot() to see them as they were at one moment.
+	public <T> T	get(Key<T> key)
+	{
+		return committed.get(key);
+	}
+
+	public int	getInt(IntKey key)
+	{
+		return committed.getInt(key);
+	}
+
+	public double	getDouble(DoubleKey key)
+	{
+		return committed.getDouble(key);
+	}
+
+	public boolean	getBoolean(BooleanKey key)
+	{
+		return committed.getBoolean(key);
+	}
+
+	public <T> void	set(Key<T> key, T value)
+	{
+		setBoxed(key, value);
+	}
+
+	// Changes are not delivered right away. They are collected and delivered
+	// together, once per view, in a single update that runs before the next
+	// pulse renders. This happens as soon as the current event handler
+	// returns, or once the outermost open batch ends.
+	public void	set(IntKey key, int value)
+	{
+		synchronized (lock)
+		{
+			int	id = ensure(key);
+
+			if (isRecorded(key))
+				record(key, value);
+
+			if (accept(key, committed.isDefined(id) &&
+						(committed.getInt(key) == value)))
+			{
+				next.defined[id] = true;
+				next.ints[id] = value;
+			}
+		}
+	}
+
+	public void	set(DoubleKey key, double value)
+	{
+		synchronized (lock)
+		{
+			int	id = ensure(key);
+
+			if (isRecorded(key))
+				record(key, value);
+
+			if (accept(key, committed.isDefined(id) &&
+						(Double.doubleToLongBits(committed.getDouble(key)) ==
+						 Double.doubleToLongBits(value))))
+			{
+				next.defined[id] = true;
+				next.doubles[id] = value;
+			}
+		}
+	}
+
+	public void	set(BooleanKey key, boolean value)
+	{
+		synchronized (lock)
+		{
+			int	id = ensure(key);
+
+			if (isRecorded(key))
+				record(key, value);
+
+			if (accept(key, committed.isDefined(id) &&
+						(committed.getBoolean(key) == value)))
+			{
+				next.defined[id] = true;
+				next.booleans[id] = value;
+			}
+		}
+	}
+
+	// Edits a text value. Like any change, the edited text is committed when
+	// it's delivered, so get() returns it once the views hear about it. Views
+	// are sent the delta under the delta key instead of the whole text under
+	// the text key. Deltas made before a delivery are composed into one. If
+	// the whole text is already waiting to be sent, the edit is simply applied
+	// to it. An edit made against a text of some other length is stale, so
+	// it's dropped and the whole text is sent instead, to bring the view that
+	// made it back in line.
+	public void	edit(Key<String> key, Key<TextDelta> deltaKey, TextDelta delta)
+	{
+		synchronized (lock)
+		{
+			int	id = ensure(key);
+			int	did = ensure(deltaKey);
+
+			deltas[id] = did + 1;
+
+			if (waiting[id])
+			{
+				String	old = (String)next.objects[id];
+
+				// Already on its way to every view, including this one's
+				if (isStale(old, delta))
+				{
+					Trace.log(Trace.DEBUG, "model", "stale edit", key, delta);
+					return;
+				}
+
+				merged++;
+				next.objects[id] = delta.apply(old);
+
+				if (isRecorded(key))
+					history.recordEdit(key, deltaKey, delta, old,
+									   (String)next.objects[id]);
+
+				return;
+			}
+
+			String	old = (edited[id] ? (String)next.objects[id] :
+							   committed.get(key));
+
+			if (isStale(old, delta))
+			{
+				Trace.log(Trace.DEBUG, "model", "stale edit", key, delta);
+
+				if ((old != null) && accept(key, false))
+				{
+					next.defined[id] = true;
+					next.objects[id] = old;
+				}
+
+				return;
+			}
+
+			String	text = delta.apply(old);
+
+			if (isRecorded(key))
+				history.recordEdit(key, deltaKey, delta, old, text);
+
+			next.defined[id] = true;
+			next.objects[id] = text;
+
+			// Commits the text along with the delta, without sending it
+			if (!edited[id])
+			{
+				edited[id] = true;
+				enqueue(key);
+			}
+
+			if (waiting[did])
+			{
+				merged++;
+				next.objects[did] = TextDelta.compose(
+					(TextDelta)next.objects[did], delta, text);
+			}
+			else if (accept(deltaKey, false))
+			{
+				next.defined[did] = true;
+				next.objects[did] = delta;
+			}
+		}
+	}
+
+	//**********************************************************************
+	// Public Methods (Controller, Batches)
+	//**********************************************************************
+
+	// Starts collecting changes without delivering them. Batches can nest.
+	public void	beginBatch()
+	{
+		synchronized (lock)
 		{
-			System.out.println("  model: value not changed");
+			if (batchDepth++ == 0)
+				history.beginBatch();
+		}
+	}
+
+	// Ends a batch, delivering its changes if it was the outermost one.
+	public void	endBatch()
+	{
+		synchronized (lock)
+		{
+			if (batchDepth == 0)
+				throw new IllegalStateException("endBatch without beginBatch");
+
+			if (--batchDepth == 0)
+			{
+				history.endBatch();
+
+				if (orderSize > 0)
+					schedule();
+			}
+		}
+	}
+
+	//**********************************************************************
+	// Public Methods (Controller, Undo and Redo)
+	//**********************************************************************
+
+	// Undoes the last step of changes. Whatever is waiting to be delivered
+	// goes out first, along with what the views set in response, so that the
+	// keys are what the views show. The undo is delivered like any change.
+	// Returns false if there was nothing to undo. Call on the JavaFX thread.
+	public boolean	undo()
+	{
+		settle();
+
+		synchronized (lock)
+		{
+			beginBatch();
+
+			try
+			{
+				return history.undo(this);
+			}
+			finally
+			{
+				endBatch();
+			}
+		}
+	}
+
+	public boolean	redo()
+	{
+		settle();
+
+		synchronized (lock)
+		{
+			beginBatch();
+
+			try
+			{
+				return history.redo(this);
+			}
+			finally
+			{
+				endBatch();
+			}
+		}
+	}
+
+	public String	getHistoryStatistics()
+	{
+		synchronized (lock)
+		{
+			return history.toString();
+		}
+	}
+
+	// The value the key has now, counting one waiting to be delivered, which
+	// is what a step of the history must find before it's undone or redone.
+	Object	getLatestValue(String name)
+	{
+		synchronized (lock)
+		{
+			Key<?>	key = Key.get(name);
+
+			if (key == null)
+				return null;
+
+			int	id = ensure(key);
+
+			return (isPending(id) ? next.get(key) : committed.get(key));
+		}
+	}
+
+	//**********************************************************************
+	// Public Methods (Controller, Statistics)
+	//**********************************************************************
+
+	// Number of accepted changes that never had to be delivered separately,
+	// because they were merged with others into the same delivery.
+	public long	getSavedUpdates()
+	{
+		synchronized (lock)
+		{
+			return sets + merged - flushes;
+		}
+	}
+
+	public String	getUpdateStatistics()
+	{
+		synchronized (lock)
+		{
+			return (sets + merged) + " sets delivered in " + flushes +
+				" updates (" + getSavedUpdates() + " saved, " + merged +
+				" overwritten before delivery)";
+		}
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	// Sets an initial value, without delivering it. The constructor commits
+	// them all in the first snapshot.
+	private void	put(IntKey key, int value)
+	{
+		next.ensure(key.getId() + 1);
+		next.defined[key.getId()] = true;
+		next.ints[key.getId()] = value;
+	}
+
+	private void	put(DoubleKey key, double value)
+	{
+		next.ensure(key.getId() + 1);
+		next.defined[key.getId()] = true;
+		next.doubles[key.getId()] = value;
+	}
+
+	private void	put(BooleanKey key, boolean value)
+	{
+		next.ensure(key.getId() + 1);
+		next.defined[key.getId()] = true;
+		next.booleans[key.getId()] = value;
+	}
+
+	private <T> void	put(Key<T> key, T value)
+	{
+		next.ensure(key.getId() + 1);
+		next.defined[key.getId()] = true;
+		next.objects[key.getId()] = value;
+	}
+
+	private void	setBoxed(Key<?> key, Object value)
+	{
+		switch (key.getKind())
+		{
+			case Key.INT:
+				set((IntKey)key, ((Integer)value).intValue());
+				break;
+
+			case Key.DOUBLE:
+				set((DoubleKey)key, ((Double)value).doubleValue());
+				break;
+
+			case Key.BOOLEAN:
+				set((BooleanKey)key, ((Boolean)value).booleanValue());
+				break;
+
+			default:
+				setObject(key, key.getType().cast(value));
+		}
+	}
+
+	private void	setObject(Key<?> key, Object value)
+	{
+		synchronized (lock)
+		{
+			int	id = ensure(key);
+
+			if (isRecorded(key))
+				record(key, value);
+
+			Object	current = committed.get(key);
+
+			if (accept(key, !edited[id] && (current != null) &&
+						current.equals(value)))
+			{
+				next.defined[id] = true;
+				next.objects[id] = value;
+			}
+
+			// Setting the whole text replaces any edits waiting to be sent
+			if (waiting[id] && (deltas[id] > 0))
+				waiting[deltas[id] - 1] = false;
+		}
+	}
+
+	// Call while synchronized on lock. Makes room for the key in all of the
+	// arrays, in case it was created after the model was.
+	private int	ensure(Key<?> key)
+	{
+		int	id = key.getId();
+
+		if (id >= waiting.length)
+		{
+			int	n = Math.max(id + 1, 2 * waiting.length);
+
+			next.ensure(n);
+			waiting = Arrays.copyOf(waiting, n);
+			deltas = Arrays.copyOf(deltas, n);
+			edited = Arrays.copyOf(edited, n);
+		}
+
+		return id;
+	}
+
+	// Whether a text delta was made against some other text than this one.
+	private static boolean	isStale(String text, TextDelta delta)
+	{
+		return ((text == null) || (text.length() != delta.getOldLength()));
+	}
+
+	// Call while synchronized on lock. Whether the next value of the key is
+	// newer than the committed one, to be sent or just committed.
+	private boolean	isPending(int id)
+	{
+		return (waiting[id] || edited[id]);
+	}
+
+	// Call while synchronized on lock. Decides what to do with a new value
+	// for the key, given whether it is the same as the committed value.
+	// Returns true if the caller should store it as the next value.
+	private boolean	accept(Key<?> key, boolean same)
+	{
+		int	id = key.getId();
+
+		if (waiting[id])
+		{
+			merged++;
+
+			// Drop the change if it has been set back to where it was
+			if (same)
+				waiting[id] = false;
+
+			return !same;
+		}
+
+		if (same)
+		{
+			Trace.log(Trace.TRACE, "model", "unchanged", key, null);
+			return false;
+		}
+
+		waiting[id] = true;
+		enqueue(key);
+		sets++;
+
+		if (batchDepth == 0)
+			schedule();
+
+		return true;
+	}
+
+	// Call while synchronized on lock. Adds the key to those looked at in
+	// the next delivery.
+	private void	enqueue(Key<?> key)
+	{
+		if (orderSize == order.length)
+			order = Arrays.copyOf(order, Math.max(8, 2 * orderSize));
+
+		order[orderSize++] = key;
+	}
+
+	// Call while synchronized on lock. Whether to record a change to the key
+	// in the history. Checked before boxing the new value to record it.
+	private boolean	isRecorded(Key<?> key)
+	{
+		return (!delivering && history.isRecording(key));
+	}
+
+	// Call while synchronized on lock. Records a change to the key from the
+	// value it has now, counting a value waiting to be delivered.
+	private void	record(Key<?> key, Object value)
+	{
+		int		id = key.getId();
+		boolean	pending = isPending(id);
+
+		if (pending ? !next.defined[id] : !committed.isDefined(id))
 			return;
+
+		Object	old = (pending ? next.get(key) : committed.get(key));
+
+		if (!Objects.equals(old, value))
+			history.recordValue(key, old, value);
+	}
+
+	// Delivers everything waiting, including what the views set while
+	// handling each delivery. Gives up after a few rounds in case views keep
+	// setting each other.
+	private void	settle()
+	{
+		for (int i=0; i<8; i++)
+		{
+			synchronized (lock)
+			{
+				if ((batchDepth > 0) || (orderSize == 0))
+					return;
+			}
+
+			flush();
 		}
+	}
 
-		Platform.runLater(new Updater(key, value));
+	// Call while synchronized on lock.
+	private void	schedule()
+	{
+		if (!scheduled)
+		{
+			scheduled = true;
+			Platform.runLater(this::flush);
+		}
 	}
 
-	public void	trigger(String name)
+	// Runs on the JavaFX thread, the only one that commits values. Makes one
+	// new snapshot from everything waiting and swaps it in. Changes made by
+	// views while handling this delivery are collected for the next one.
+	// Values are boxed here, once per delivery, since views get them as
+	// objects.
+	private void	flush()
 	{
-		System.out.println("  model: (not!) calculating function: " + name);
+		LinkedHashMap<String, Object>	changes;
+		Slots							slots = null;	// Copied on first
+
+		synchronized (lock)
+		{
+			scheduled = false;
+
+			if ((batchDepth > 0) || (orderSize == 0))
+				return;
+
+			changes = new LinkedHashMap<String, Object>();
+
+			for (int i=0; i<orderSize; i++)
+			{
+				Key<?>	key = order[i];
+				int		id = key.getId();
+
+				if (!isPending(id))		// Set back or already seen
+					continue;
+
+				if (slots == null)
+					slots = committed.copy(waiting.length);
+
+				slots.copy(id, next);
+				edited[id] = false;		// Committed, but sent as deltas
+
+				if (!waiting[id])
+					continue;
+
+				waiting[id] = false;
+				changes.put(key.getName(), slots.get(key));
+			}
+
+			Arrays.fill(order, 0, orderSize, null);
+			orderSize = 0;
+
+			if (slots != null)
+				committed = new Snapshot(committed.getVersion() + 1L, slots);
+
+			if (changes.isEmpty())
+				return;
+
+			flushes++;
+		}
+
+		Trace.log(Trace.DEBUG, "model", "deliver", null, changes.size());
+
+		delivering = true;
+
+		try
+		{
+			controller.update(Collections.unmodifiableMap(changes));
+		}
+		finally
+		{
+			delivering = false;
+		}
 	}
 
 	//**********************************************************************
 	// Inner Classes
 	//**********************************************************************
 
-	private class Updater
-		implements Runnable
+	/**
+	 * The committed values of the model at one delivery. Never changes once
+	 * made, so any thread can read it. Keys made after it give no value.
+	 */
+	public static final class Snapshot
+	{
+		private final long		version;
+		private final boolean[]	defined;
+		private final int[]		ints;
+		private final double[]	doubles;
+		private final boolean[]	booleans;
+		private final Object[]	objects;
+
+		// Takes over the arrays of the slots, which must not change after.
+		private Snapshot(long version, Slots slots)
+		{
+			this.version = version;
+
+			defined = slots.defined;
+			ints = slots.ints;
+			doubles = slots.doubles;
+			booleans = slots.booleans;
+			objects = slots.objects;
+		}
+
+		// Counts up by one with each delivery that commits something.
+		public long	getVersion()
+		{
+			return version;
+		}
+
+		public boolean	isDefined(int id)
+		{
+			return ((id < defined.length) && defined[id]);
+		}
+
+		// Gets the value for the key, boxing primitives.
+		public <T> T	get(Key<T> key)
+		{
+			int	id = key.getId();
+
+			if (!isDefined(id))
+				return null;
+
+			switch (key.getKind())
+			{
+				case Key.INT:		return key.getType().cast(ints[id]);
+				case Key.DOUBLE:	return key.getType().cast(doubles[id]);
+				case Key.BOOLEAN:	return key.getType().cast(booleans[id]);
+				default:			return key.getType().cast(objects[id]);
+			}
+		}
+
+		public int	getInt(IntKey key)
+		{
+			int	id = key.getId();
+
+			return ((id < ints.length) ? ints[id] : 0);
+		}
+
+		public double	getDouble(DoubleKey key)
+		{
+			int	id = key.getId();
+
+			return ((id < doubles.length) ? doubles[id] : 0.0);
+		}
+
+		public boolean	getBoolean(BooleanKey key)
+		{
+			int	id = key.getId();
+
+			return ((id < booleans.length) && booleans[id]);
+		}
+
+		// Copies the values into new slots with room for n keys.
+		private Slots	copy(int n)
+		{
+			Slots	slots = new Slots(0);
+
+			n = Math.max(n, defined.length);
+
+			slots.defined = Arrays.copyOf(defined, n);
+			slots.ints = Arrays.copyOf(ints, n);
+			slots.doubles = Arrays.copyOf(doubles, n);
+			slots.booleans = Arrays.copyOf(booleans, n);
+			slots.objects = Arrays.copyOf(objects, n);
+
+			return slots;
+		}
+	}
+
+	// One value for each key, in the array for the key's kind. Only touched
+	// under the lock.
+	private static final class Slots
 	{
-		private final String	key;
-		private final Object	value;
+		private boolean[]	defined;
+		private int[]		ints;
+		private double[]	doubles;
+		private boolean[]	booleans;
+		private Object[]	objects;
 
-		public Updater(String key, Object value)
+		public Slots(int n)
 		{
-			this.key = key;
-			this.value = value;
+			defined = new boolean[n];
+			ints = new int[n];
+			doubles = new double[n];
+			booleans = new boolean[n];
+			objects = new Object[n];
+		}
+
+		public void	ensure(int n)
+		{
+			if (n <= defined.length)
+				return;
+
+			defined = Arrays.copyOf(defined, n);
+			ints = Arrays.copyOf(ints, n);
+			doubles = Arrays.copyOf(doubles, n);
+			booleans = Arrays.copyOf(booleans, n);
+			objects = Arrays.copyOf(objects, n);
+		}
+
+		// Gets the value for the key, boxing primitives.
+		public Object	get(Key<?> key)
+		{
+			int	id = key.getId();
+
+			if ((id >= defined.length) || !defined[id])
+				return null;
+
+			switch (key.getKind())
+			{
+				case Key.INT:		return ints[id];
+				case Key.DOUBLE:	return doubles[id];
+				case Key.BOOLEAN:	return booleans[id];
+				default:			return objects[id];
+			}
 		}
 
-		public void	run()
+		public void	copy(int id, Slots from)
 		{
-			properties.put(key, value);
-			controller.update(key, value);
+			defined[id] = from.defined[id];
+			ints[id] = from.ints[id];
+			doubles[id] = from.doubles[id];
+			booleans[id] = from.booleans[id];
+			objects[id] = from.objects[id];
 		}
 	}
 }
@@ -0,0 +1,94 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import javafx.util.Callback;
+import edu.ou.cs.hci.assignment.prototypeb.MovieStore.Row;
+
+//******************************************************************************
+
+/**
+ * The <CODE>MovieColumns</CODE> class has a cell value factory for each
+ * attribute of a movie row, for use in table columns in place of a
+ * PropertyValueFactory. Each one calls the row's property method directly,
+ * so a misspelled or missing attribute fails to compile instead of showing
+ * an empty column, and getting a cell value doesn't look up methods by name.
+ * Numeric properties are observable Numbers, so their columns must be too.
+ *
+ * @version %I%, %G%
+ */
+public final class MovieColumns
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	public static final Value<String>	TITLE =
+		p -> p.getValue().titleProperty();
+	public static final Value<String>	IMAGE =
+		p -> p.getValue().imageProperty();
+	public static final Value<Number>	YEAR =
+		p -> p.getValue().yearProperty();
+	public static final Value<String>	RATING =
+		p -> p.getValue().ratingProperty();
+	public static final Value<Number>	RUNTIME =
+		p -> p.getValue().runtimeProperty();
+
+	public static final Value<Boolean>	AWARD_PICTURE =
+		p -> p.getValue().awardPictureProperty();
+	public static final Value<Boolean>	AWARD_DIRECTING =
+		p -> p.getValue().awardDirectingProperty();
+	public static final Value<Boolean>	AWARD_CINEMATOGRAPHY =
+		p -> p.getValue().awardCinematographyProperty();
+	public static final Value<Boolean>	AWARD_ACTING =
+		p -> p.getValue().awardActingProperty();
+
+	public static final Value<Number>	AVERAGE_REVIEW_SCORE =
+		p -> p.getValue().averageReviewScoreProperty();
+	public static final Value<Number>	NUMBER_OF_REVIEWS =
+		p -> p.getValue().numberOfReviewsProperty();
+
+	public static final Value<Number>	GENRE =
+		p -> p.getValue().genreProperty();
+	public static final Value<String>	GENRE_LABEL =
+		p -> p.getValue().genreLabelProperty();
+	public static final Value<String>	DIRECTOR =
+		p -> p.getValue().directorProperty();
+
+	public static final Value<Boolean>	IS_ANIMATED =
+		p -> p.getValue().isAnimatedProperty();
+	public static final Value<Boolean>	IS_COLOR =
+		p -> p.getValue().isColorProperty();
+
+	public static final Value<String>	SUMMARY =
+		p -> p.getValue().summaryProperty();
+	public static final Value<String>	COMMENTS =
+		p -> p.getValue().commentsProperty();
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	private MovieColumns()
+	{
+	}
+
+	//**********************************************************************
+	// Inner Interfaces
+	//**********************************************************************
+
+	// A cell value factory for a column of movie rows with values of type T.
+	public interface Value<T>
+		extends Callback<CellDataFeatures<Row, T>, ObservableValue<T>>
+	{
+	}
+}
+
+//******************************************************************************
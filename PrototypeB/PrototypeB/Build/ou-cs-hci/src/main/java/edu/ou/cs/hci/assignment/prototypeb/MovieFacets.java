@@ -0,0 +1,522 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.util.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>MovieFacets</CODE> class filters the movies in a
+ * {@link MovieStore} by genre, award, animation, color, rating, and year, and
+ * counts how many movies have each of those attributes among the ones found.
+ * It keeps a compressed {@link Bitmap} of the rows with each genre, each
+ * yes/no attribute, each rating, and each year, made once from the store.
+ * Queries are answered by ANDing and ORing those bitmaps, and counts by
+ * counting the rows shared with the result, so no movie is looked at one by
+ * one. The exception is rows edited after the bitmaps were made. Those are
+ * left out of the bitmap work and checked directly. Each query reuses the
+ * year range from the one before, so all queries should be made from one
+ * thread.
+ *
+ * @version %I%, %G%
+ */
+public final class MovieFacets
+{
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final MovieStore				store;
+	private final int						n;			// Rows covered
+	private final List<String>				ratings;	// Rating strings
+
+	private final Bitmap					all;
+	private final Bitmap[]				genres;	// By genre bit
+	private final Bitmap[]				flags;		// By MovieStore flag
+	private final Bitmap[]				rbitmaps;	// By rating index
+
+	// Years present, ascending, and the rows in each
+	private final int[]					years;
+	private final Bitmap[]				ybitmaps;
+
+	// Rows in the year range of the last query, null for all rows
+	private int							yearMin = Integer.MIN_VALUE;
+	private int							yearMax = Integer.MAX_VALUE;
+	private Bitmap							yearRows;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	// Makes bitmaps for the movies currently in the store, with the given
+	// number of genre bits and list of rating strings.
+	public MovieFacets(MovieStore store, int genreCount, List<String> ratings)
+	{
+		this.store = store;
+		this.n = store.size();
+		this.ratings = ratings;
+
+		HashMap<String, Integer>	rindex = new HashMap<String, Integer>();
+
+		for (int r=0; r<ratings.size(); r++)
+			rindex.put(ratings.get(r), r);
+
+		// Gather rows by genre, rating, and year in one pass
+		int[][]	grows = new int[genreCount][];
+		int[]		gsize = new int[genreCount];
+		int[][]	rrows = new int[ratings.size()][];
+		int[]		rsize = new int[ratings.size()];
+
+		TreeMap<Integer, int[]>	yrows = new TreeMap<Integer, int[]>();
+		HashMap<Integer, int[]>	ysize = new HashMap<Integer, int[]>();
+
+		for (int i=0; i<n; i++)
+		{
+			int	genre = store.getGenre(i);
+
+			for (int g=0; g<genreCount; g++)
+				if ((genre & (1 << g)) != 0)
+					grows[g] = append(grows[g], gsize[g]++, i);
+
+			Integer	r = rindex.get(store.getRating(i));
+
+			if (r != null)
+				rrows[r] = append(rrows[r], rsize[r]++, i);
+
+			Integer	year = store.getYear(i);
+			int[]		ys = ysize.get(year);
+
+			if (ys == null)
+			{
+				ys = new int[1];
+				ysize.put(year, ys);
+			}
+
+			yrows.put(year, append(yrows.get(year), ys[0]++, i));
+		}
+
+		all = Bitmap.all(n);
+
+		genres = new Bitmap[genreCount];
+
+		for (int g=0; g<genreCount; g++)
+			genres[g] = Bitmap.of(orNone(grows[g]), gsize[g], n);
+
+		flags = new Bitmap[MovieStore.FLAG_COUNT];
+
+		for (int f=0; f<MovieStore.FLAG_COUNT; f++)
+			flags[f] = Bitmap.of(store.getFlagBits(f), n);
+
+		rbitmaps = new Bitmap[ratings.size()];
+
+		for (int r=0; r<ratings.size(); r++)
+			rbitmaps[r] = Bitmap.of(orNone(rrows[r]), rsize[r], n);
+
+		years = new int[yrows.size()];
+		ybitmaps = new Bitmap[yrows.size()];
+
+		int	k = 0;
+
+		for (Map.Entry<Integer, int[]> entry : yrows.entrySet())
+		{
+			years[k] = entry.getKey();
+			ybitmaps[k] = Bitmap.of(entry.getValue(),
+									ysize.get(entry.getKey())[0], n);
+			k++;
+		}
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	public int	size()
+	{
+		return n;
+	}
+
+	public int	getGenreCount()
+	{
+		return genres.length;
+	}
+
+	public int	getRatingCount()
+	{
+		return rbitmaps.length;
+	}
+
+	// Finds the movies among text (null for all rows) that match the query,
+	// and counts each genre, flag, and rating among them. Text must have its
+	// edited rows up to date.
+	public Result	select(Query q, long[] text)
+	{
+		Bitmap	edited = Bitmap.of(store.getEditedBits(), n);
+		Bitmap	base = ((text == null) ? all : Bitmap.of(text, n));
+
+		if (!edited.isEmpty())
+			base = base.andNot(edited);
+
+		// The rows allowed by each group of facets, null for all rows
+		Bitmap	grows = genreRows(q);
+		Bitmap	frows = flagRows(q);
+		Bitmap	rrows = ratingRows(q);
+		Bitmap	yrows = yearRows(q);
+
+		// Counts for facets that are ORed with others in their group are
+		// made without that group, so they say how many movies each would
+		// add. The rest are made within the result.
+		Bitmap	rest = and(and(base, frows), yrows);
+		Bitmap	result = and(and(rest, grows), rrows);
+
+		int[]	gcounts = new int[genres.length];
+		int[]	fcounts = new int[flags.length];
+		int[]	rcounts = new int[rbitmaps.length];
+
+		Bitmap	gbase = (isGenreOr(q) ? and(rest, rrows) : result);
+		Bitmap	rbase = and(rest, grows);
+
+		for (int g=0; g<genres.length; g++)
+			gcounts[g] = gbase.andSize(genres[g]);
+
+		for (int f=0; f<flags.length; f++)
+			fcounts[f] = result.andSize(flags[f]);
+
+		for (int r=0; r<rbitmaps.length; r++)
+			rcounts[r] = rbase.andSize(rbitmaps[r]);
+
+		long[]	bits = result.toBits();
+
+		if (!edited.isEmpty())
+			recheck(q, text, edited, bits, gcounts, fcounts, rcounts);
+
+		return new Result(bits, gcounts, fcounts, rcounts);
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return genres.length + " genres, " + flags.length + " flags, " +
+			rbitmaps.length + " ratings, " + years.length + " years for " +
+			n + " movies";
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	private boolean	isGenreOr(Query q)
+	{
+		return (!q.genresAll && (q.genres != 0));
+	}
+
+	private Bitmap	genreRows(Query q)
+	{
+		Bitmap	rows = null;
+
+		for (int g=0; g<genres.length; g++)
+		{
+			if ((q.genres & (1 << g)) == 0)
+				continue;
+
+			if (rows == null)
+				rows = genres[g];
+			else if (q.genresAll)
+				rows = rows.and(genres[g]);
+			else
+				rows = rows.or(genres[g]);
+		}
+
+		return rows;
+	}
+
+	private Bitmap	flagRows(Query q)
+	{
+		Bitmap	rows = null;
+
+		for (int f=0; f<flags.length; f++)
+			if ((q.flags & (1 << f)) != 0)
+				rows = ((rows == null) ? flags[f] : rows.and(flags[f]));
+
+		return rows;
+	}
+
+	private Bitmap	ratingRows(Query q)
+	{
+		Bitmap	rows = null;
+
+		for (int r=0; r<rbitmaps.length; r++)
+			if ((q.ratings & (1 << r)) != 0)
+				rows = ((rows == null) ? rbitmaps[r] : rows.or(rbitmaps[r]));
+
+		return rows;
+	}
+
+	// Years change less often than the rest, so keep their rows for the next
+	// query. A range that covers every year present needs no rows.
+	private Bitmap	yearRows(Query q)
+	{
+		if ((q.yearMin == yearMin) && (q.yearMax == yearMax))
+			return yearRows;
+
+		yearMin = q.yearMin;
+		yearMax = q.yearMax;
+
+		if ((years.length == 0) ||
+			((yearMin <= years[0]) && (yearMax >= years[years.length - 1])))
+		{
+			yearRows = null;
+		}
+		else
+		{
+			long[]	bits = new long[(n + 63) >>> 6];
+
+			for (int k=0; k<years.length; k++)
+				if ((years[k] >= yearMin) && (years[k] <= yearMax))
+					ybitmaps[k].orInto(bits);
+
+			yearRows = Bitmap.of(bits, n);
+		}
+
+		return yearRows;
+	}
+
+	// Adds the edited rows that match the query to the result and counts,
+	// looking at their attributes directly.
+	private void	recheck(Query q, long[] text, Bitmap edited, long[] bits,
+							int[] gcounts, int[] fcounts, int[] rcounts)
+	{
+		long[]	ebits = edited.toBits();
+
+		for (int w=0; w<ebits.length; w++)
+		{
+			long	e = ebits[w];
+
+			while (e != 0L)
+			{
+				int	i = (w << 6) + Long.numberOfTrailingZeros(e);
+
+				e &= e - 1L;
+
+				if ((text != null) && ((text[i >>> 6] & (1L << i)) == 0L))
+					continue;
+
+				int		genre = store.getGenre(i);
+				int		flag = getFlags(i);
+				int		rating = ratings.indexOf(store.getRating(i));
+				int		year = store.getYear(i);
+
+				boolean	rest = ((flag & q.flags) == q.flags) &&
+					(year >= q.yearMin) && (year <= q.yearMax);
+				boolean	g = ((q.genres == 0) || (q.genresAll ?
+					((genre & q.genres) == q.genres) : ((genre & q.genres) != 0)));
+				boolean	r = ((q.ratings == 0) ||
+					((rating >= 0) && ((q.ratings & (1 << rating)) != 0)));
+
+				if (rest && g && r)
+				{
+					bits[i >>> 6] |= (1L << i);
+
+					for (int f=0; f<fcounts.length; f++)
+						if ((flag & (1 << f)) != 0)
+							fcounts[f]++;
+				}
+
+				if (rest && (isGenreOr(q) ? r : (g && r)))
+					for (int k=0; k<gcounts.length; k++)
+						if ((genre & (1 << k)) != 0)
+							gcounts[k]++;
+
+				if (rest && g && (rating >= 0))
+					rcounts[rating]++;
+			}
+		}
+	}
+
+	private int	getFlags(int i)
+	{
+		int	flag = 0;
+
+		for (int f=0; f<MovieStore.FLAG_COUNT; f++)
+			if (store.getFlag(f, i))
+				flag |= (1 << f);
+
+		return flag;
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	// ANDs two bitmaps, either of which may be null for all rows.
+	private static Bitmap	and(Bitmap a, Bitmap b)
+	{
+		if (a == null)
+			return b;
+
+		if (b == null)
+			return a;
+
+		return a.and(b);
+	}
+
+	// Puts a row at the end of an array, growing it as needed.
+	private static int[]	append(int[] rows, int size, int row)
+	{
+		if (rows == null)
+			rows = new int[16];
+		else if (size == rows.length)
+			rows = Arrays.copyOf(rows, size << 1);
+
+		rows[size] = row;
+
+		return rows;
+	}
+
+	private static int[]	orNone(int[] rows)
+	{
+		return ((rows == null) ? new int[0] : rows);
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	/**
+	 * The facets of a search. Selected genres are either all required or any
+	 * one of them is enough. Selected flags (bits by MovieStore flag) are all
+	 * required. Any one of the selected ratings (bits by rating index) is
+	 * enough. Years are inclusive. Zero for genres, flags, or ratings means
+	 * no filtering by them.
+	 */
+	public static final class Query
+	{
+		private final int		genres;
+		private final boolean	genresAll;
+		private final int		flags;
+		private final int		ratings;
+		private final int		yearMin;
+		private final int		yearMax;
+
+		public Query(int genres, boolean genresAll, int flags, int ratings,
+					 int yearMin, int yearMax)
+		{
+			this.genres = genres;
+			this.genresAll = genresAll;
+			this.flags = flags;
+			this.ratings = ratings;
+			this.yearMin = yearMin;
+			this.yearMax = yearMax;
+		}
+
+		public int	getGenres()
+		{
+			return genres;
+		}
+
+		public boolean	isGenresAll()
+		{
+			return genresAll;
+		}
+
+		public int	getFlags()
+		{
+			return flags;
+		}
+
+		public int	getRatings()
+		{
+			return ratings;
+		}
+
+		public int	getYearMin()
+		{
+			return yearMin;
+		}
+
+		public int	getYearMax()
+		{
+			return yearMax;
+		}
+
+		public boolean	equals(Object object)
+		{
+			if (!(object instanceof Query))
+				return false;
+
+			Query	q = (Query)object;
+
+			return ((genres == q.genres) && (genresAll == q.genresAll) &&
+					(flags == q.flags) && (ratings == q.ratings) &&
+					(yearMin == q.yearMin) && (yearMax == q.yearMax));
+		}
+
+		public int	hashCode()
+		{
+			return Objects.hash(genres, genresAll, flags, ratings, yearMin,
+								yearMax);
+		}
+
+		public String	toString()
+		{
+			return "genres=" + Integer.toHexString(genres) +
+				(genresAll ? " (all)" : " (any)") +
+				" flags=" + Integer.toHexString(flags) +
+				" ratings=" + Integer.toHexString(ratings) +
+				" years=" + yearMin + "-" + yearMax;
+		}
+	}
+
+	/**
+	 * The movies matching a query, as a bitset over rows in the store, and
+	 * the number of them with each genre, flag, and rating. For genres that
+	 * are ORed together, and for ratings, the count is of the movies that
+	 * match the rest of the query, which is how many selecting it would add.
+	 */
+	public static final class Result
+	{
+		private final long[]	bits;
+		private final int[]	genres;
+		private final int[]	flags;
+		private final int[]	ratings;
+
+		private Result(long[] bits, int[] genres, int[] flags, int[] ratings)
+		{
+			this.bits = bits;
+			this.genres = genres;
+			this.flags = flags;
+			this.ratings = ratings;
+		}
+
+		// The bitset of rows found. Callers must not modify it.
+		public long[]	getBits()
+		{
+			return bits;
+		}
+
+		public int	getGenreCount(int genre)
+		{
+			return genres[genre];
+		}
+
+		public int	getFlagCount(int flag)
+		{
+			return flags[flag];
+		}
+
+		public int	getRatingCount(int rating)
+		{
+			return ratings[rating];
+		}
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,561 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.util.*;
+import java.util.function.Predicate;
+import edu.ou.cs.hci.assignment.prototypeb.MovieStore.Row;
+
+//******************************************************************************
+
+/**
+ * The <CODE>MovieIndex</CODE> class finds movies in a {@link MovieStore} by
+ * the words in their titles, directors, summaries, and comments, and filters
+ * them by the facets in a {@link MovieFacets}. Words are indexed once, in an inverted
+ * index from each distinct word to the rows that contain it. Each word of a
+ * query matches the indexed words that start with it. Once it has three or
+ * more letters, it also matches words that contain it, which are found through
+ * an index of the trigrams (three-letter sequences) of each indexed word. The
+ * rows matching each query word are gathered in a bitset, one bit per row, and
+ * the bitsets are ANDed together, then with the facets. Rows whose text was
+ * edited after the index was built are checked directly against the query, so
+ * results stay current without rebuilding the index. Each search reuses what
+ * it can from the one before, so all searches should be made from one thread.
+ *
+ * @version %I%, %G%
+ */
+public final class MovieIndex
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final int	TRIGRAM = 3;
+
+	private static final int[]	NONE = new int[0];
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final MovieStore				store;
+	private final MovieFacets				facets;
+	private final int						n;			// Rows indexed
+	private final int						words;		// Longs per bitset
+
+	// Distinct words in sorted order, and the rows that contain each. Common
+	// words keep their rows in a bitset, rare ones in a sorted array,
+	// whichever is smaller. The other one is null.
+	private final String[]					terms;
+	private final int[][]					sparse;
+	private final long[][]					dense;
+
+	// Ids of the words containing each trigram, in ascending order
+	private final HashMap<String, int[]>	trigrams;
+
+	// Rows matching each word of the last query. While typing, all but the
+	// last word usually stay the same, so their rows aren't gathered again.
+	private HashMap<String, long[]>		cache;
+
+	// Build statistics
+	private final long						buildTime;	// Nanoseconds
+	private long							postings;	// Word-row pairs
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	// Indexes the movies currently in the store, with the given number of
+	// genre bits and list of rating strings for faceting.
+	public MovieIndex(MovieStore store, int genreCount, List<String> ratings)
+	{
+		long	t0 = System.nanoTime();
+
+		this.store = store;
+		this.n = store.size();
+		this.words = (n + 63) >>> 6;
+
+		// Gather the rows for each word, in row order, each row only once
+		HashMap<String, IntList>	rows = new HashMap<String, IntList>();
+		ArrayList<String>			tokens = new ArrayList<String>();
+
+		for (int i=0; i<n; i++)
+		{
+			tokens.clear();
+			tokenize(store.getTitle(i), tokens);
+			tokenize(store.getDirector(i), tokens);
+			tokenize(store.getSummary(i), tokens);
+			tokenize(store.getComments(i), tokens);
+
+			for (String token : tokens)
+			{
+				IntList	list = rows.get(token);
+
+				if (list == null)
+				{
+					list = new IntList();
+					rows.put(token, list);
+				}
+
+				if (list.last() != i)
+					list.add(i);
+			}
+		}
+
+		terms = rows.keySet().toArray(new String[rows.size()]);
+		Arrays.sort(terms);
+
+		sparse = new int[terms.length][];
+		dense = new long[terms.length][];
+
+		for (int k=0; k<terms.length; k++)
+		{
+			IntList	list = rows.get(terms[k]);
+
+			if (list.size * 32L > n)		// Bitset takes less space
+			{
+				long[]	bits = new long[words];
+
+				for (int j=0; j<list.size; j++)
+					set(bits, list.items[j]);
+
+				dense[k] = bits;
+			}
+			else
+			{
+				sparse[k] = list.toArray();
+			}
+
+			postings += list.size;
+		}
+
+		// Index the trigrams of each word by the word's id
+		HashMap<String, IntList>	grams = new HashMap<String, IntList>();
+
+		for (int k=0; k<terms.length; k++)
+		{
+			String	term = terms[k];
+
+			for (int j=0; j+TRIGRAM<=term.length(); j++)
+			{
+				String	gram = term.substring(j, j + TRIGRAM);
+				IntList	list = grams.get(gram);
+
+				if (list == null)
+				{
+					list = new IntList();
+					grams.put(gram, list);
+				}
+
+				if (list.last() != k)
+					list.add(k);
+			}
+		}
+
+		trigrams = new HashMap<String, int[]>(grams.size() * 2);
+
+		for (Map.Entry<String, IntList> entry : grams.entrySet())
+			trigrams.put(entry.getKey(), entry.getValue().toArray());
+
+		cache = new HashMap<String, long[]>();
+		facets = new MovieFacets(store, genreCount, ratings);
+		buildTime = System.nanoTime() - t0;
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	public int	size()
+	{
+		return n;
+	}
+
+	public MovieFacets	getFacets()
+	{
+		return facets;
+	}
+
+	// Finds the movies that match every word in the text and the facets.
+	public Hits	search(String text, MovieFacets.Query query)
+	{
+		long				t0 = System.nanoTime();
+		ArrayList<String>	tokens = new ArrayList<String>();
+
+		tokenize(text, tokens);
+
+		// Gather the rows that match all words
+		HashMap<String, long[]>	found = new HashMap<String, long[]>();
+		long[]					bits = null;		// Null for all rows
+
+		for (String token : tokens)
+		{
+			long[]	tbits = found.get(token);
+
+			if (tbits == null)
+			{
+				tbits = cache.get(token);
+
+				if (tbits == null)
+					tbits = gather(token);
+
+				found.put(token, tbits);
+			}
+
+			bits = and(bits, tbits);
+		}
+
+		cache = found;
+
+		// Rows edited since the index was built have to be checked directly
+		if (bits != null)
+			recheck(bits, tokens);
+
+		MovieFacets.Result	result = facets.select(query, bits);
+
+		return new Hits(result, n, System.nanoTime() - t0);
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	// Splits text into lowercase words of letters and digits.
+	public static void	tokenize(String text, List<String> tokens)
+	{
+		if (text == null)
+			return;
+
+		String	s = text.toLowerCase(Locale.ROOT);
+		int		start = -1;
+
+		for (int i=0; i<=s.length(); i++)
+		{
+			boolean	inWord = ((i < s.length()) &&
+							  Character.isLetterOrDigit(s.charAt(i)));
+
+			if (inWord && (start < 0))
+			{
+				start = i;
+			}
+			else if (!inWord && (start >= 0))
+			{
+				tokens.add(s.substring(start, i));
+				start = -1;
+			}
+		}
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return terms.length + " words, " + trigrams.size() + " trigrams, " +
+			postings + " postings for " + n + " movies built in " +
+			(buildTime / 1000000L) + " ms";
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	// Gathers the rows containing a word that starts with or contains token.
+	private long[]	gather(String token)
+	{
+		long[]	bits = new long[words];
+
+		if (token.length() < TRIGRAM)
+		{
+			// Words starting with the token are adjacent in sorted order
+			int	k = Arrays.binarySearch(terms, token);
+
+			if (k < 0)
+				k = -k - 1;
+
+			for (; (k < terms.length) && terms[k].startsWith(token); k++)
+				addRows(bits, k);
+		}
+		else
+		{
+			// Candidate words contain all trigrams of the token. Narrow them
+			// down starting from the rarest trigram, then check each one.
+			int		g = token.length() - TRIGRAM + 1;
+			int[][]	lists = new int[g][];
+
+			for (int j=0; j<g; j++)
+			{
+				lists[j] = trigrams.get(token.substring(j, j + TRIGRAM));
+
+				if (lists[j] == null)
+					return bits;
+			}
+
+			Arrays.sort(lists, Comparator.comparingInt(ids -> ids.length));
+
+			int[]	candidates = lists[0];
+
+			for (int j=1; (j < g) && (candidates.length > 0); j++)
+				candidates = intersect(candidates, lists[j]);
+
+			for (int k : candidates)
+				if (terms[k].contains(token))
+					addRows(bits, k);
+		}
+
+		return bits;
+	}
+
+	private void	addRows(long[] bits, int k)
+	{
+		if (dense[k] != null)
+		{
+			long[]	d = dense[k];
+
+			for (int w=0; w<words; w++)
+				bits[w] |= d[w];
+		}
+		else
+		{
+			for (int row : sparse[k])
+				set(bits, row);
+		}
+	}
+
+	// ANDs b into a, or copies b if a is null for all rows. Never changes b.
+	private long[]	and(long[] a, long[] b)
+	{
+		if (a == null)
+			return b.clone();
+
+		for (int w=0; w<words; w++)
+			a[w] &= b[w];
+
+		return a;
+	}
+
+	// Recomputes the bits of rows whose text was edited after indexing.
+	private void	recheck(long[] bits, List<String> tokens)
+	{
+		long[]				edited = store.getEditedBits();
+		int					m = Math.min(words, edited.length);
+		ArrayList<String>	text = null;
+
+		for (int w=0; w<m; w++)
+		{
+			long	e = edited[w];
+
+			while (e != 0L)
+			{
+				int	i = (w << 6) + Long.numberOfTrailingZeros(e);
+
+				e &= e - 1L;
+
+				if (i >= n)
+					break;
+
+				if (text == null)
+					text = new ArrayList<String>();
+
+				text.clear();
+				tokenize(store.getTitle(i), text);
+				tokenize(store.getDirector(i), text);
+				tokenize(store.getSummary(i), text);
+				tokenize(store.getComments(i), text);
+
+				if (matches(text, tokens))
+					set(bits, i);
+				else
+					clear(bits, i);
+			}
+		}
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	// Does every token match one of the words in the same way as gather()?
+	private static boolean	matches(List<String> text, List<String> tokens)
+	{
+		for (String token : tokens)
+		{
+			boolean	found = false;
+
+			for (String word : text)
+			{
+				if ((token.length() < TRIGRAM) ? word.startsWith(token) :
+					word.contains(token))
+				{
+					found = true;
+					break;
+				}
+			}
+
+			if (!found)
+				return false;
+		}
+
+		return true;
+	}
+
+	// Ids in both of two ascending arrays.
+	private static int[]	intersect(int[] a, int[] b)
+	{
+		int[]	c = new int[Math.min(a.length, b.length)];
+		int		i = 0;
+		int		j = 0;
+		int		k = 0;
+
+		while ((i < a.length) && (j < b.length))
+		{
+			if (a[i] < b[j])
+				i++;
+			else if (a[i] > b[j])
+				j++;
+			else
+			{
+				c[k++] = a[i];
+				i++;
+				j++;
+			}
+		}
+
+		return ((k == 0) ? NONE : Arrays.copyOf(c, k));
+	}
+
+	private static void	set(long[] bits, int i)
+	{
+		bits[i >>> 6] |= (1L << i);
+	}
+
+	private static void	clear(long[] bits, int i)
+	{
+		bits[i >>> 6] &= ~(1L << i);
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	/**
+	 * The movies found by a search, as a bitset over rows in the store, with
+	 * the facet counts among them. Hits can be used directly as the predicate
+	 * of a FilteredList of rows.
+	 */
+	public static final class Hits
+		implements Predicate<Row>
+	{
+		private final MovieFacets.Result	result;
+		private final long[]				bits;
+		private final int					total;
+		private final int					count;
+		private final long					time;		// Nanoseconds
+
+		private Hits(MovieFacets.Result result, int total, long time)
+		{
+			this.result = result;
+			this.bits = result.getBits();
+			this.total = total;
+			this.time = time;
+
+			int	c = 0;
+
+			for (long w : bits)
+				c += Long.bitCount(w);
+
+			count = c;
+		}
+
+		// True if nothing was filtered out.
+		public boolean	isAll()
+		{
+			return (count == total);
+		}
+
+		public boolean	contains(int row)
+		{
+			return ((row < total) && ((bits[row >>> 6] & (1L << row)) != 0L));
+		}
+
+		// The rows found, in ascending order.
+		public int[]	toRows()
+		{
+			int[]	rows = new int[count];
+			int		j = 0;
+
+			for (int w=0; w<bits.length; w++)
+			{
+				long	b = bits[w];
+
+				while (b != 0L)
+				{
+					rows[j++] = (w << 6) + Long.numberOfTrailingZeros(b);
+					b &= b - 1L;
+				}
+			}
+
+			return rows;
+		}
+
+		public int	size()
+		{
+			return count;
+		}
+
+		public long	getTime()
+		{
+			return time;
+		}
+
+		// The number of movies found with each genre, flag, and rating.
+		public MovieFacets.Result	getCounts()
+		{
+			return result;
+		}
+
+		public boolean	test(Row row)
+		{
+			return contains(row.getIndex());
+		}
+
+		public String	toString()
+		{
+			return count + " of " + total + " movies in " +
+				String.format("%.2f", time / 1000000.0) + " ms";
+		}
+	}
+
+	// A growable list of ints, for gathering rows while building.
+	private static final class IntList
+	{
+		private int[]	items = new int[4];
+		private int		size;
+
+		public void	add(int v)
+		{
+			if (size == items.length)
+				items = Arrays.copyOf(items, size << 1);
+
+			items[size++] = v;
+		}
+
+		public int	last()
+		{
+			return ((size == 0) ? -1 : items[size - 1]);
+		}
+
+		public int[]	toArray()
+		{
+			return Arrays.copyOf(items, size);
+		}
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,450 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.text.*;
+import java.util.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>MovieSorter</CODE> class sorts rows of a {@link MovieStore} by one
+ * or more columns. Each column has an integer key per row that orders the
+ * same way as its values: the rank of the title or director among all
+ * distinct titles or directors in collation order, the year itself, and the
+ * rank of the genre label (as shown in the table) among the labels of all
+ * genre bits. Ranks are made once. A sort packs the keys of as many columns
+ * as fit, along with each row's position, into one long per row, and sorts
+ * those as primitives. Columns that don't fit are sorted in earlier passes.
+ * Sorts never compare strings or properties, and are stable, so rows that
+ * tie on every column keep the order they were given in. Rows whose title or
+ * director was edited after the ranks were made are placed by looking up
+ * their new values among the ranked ones. Collators aren't thread-safe, so
+ * all sorts should be made from one thread.
+ *
+ * @version %I%, %G%
+ */
+public final class MovieSorter
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// Columns that can be sorted by
+	public static final int	TITLE = 0;
+	public static final int	YEAR = 1;
+	public static final int	GENRE = 2;
+	public static final int	DIRECTOR = 3;
+
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	// Bits of packed keys per sort pass. The rest hold positions.
+	private static final int	KEY_BITS = 32;
+	private static final int	POSITION_BITS = 31;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final MovieStore	store;
+	private final int			n;			// Rows ranked
+	private final Collator		collator;
+
+	private final Ranks		titles;
+	private final Ranks		directors;
+	private final int[]		genres;	// By genre bits, null to use bits
+
+	private final long			buildTime;	// Nanoseconds
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	// Ranks the movies currently in the store, in the default locale.
+	public MovieSorter(MovieStore store)
+	{
+		long	t0 = System.nanoTime();
+
+		this.store = store;
+		this.n = store.size();
+		this.collator = Collator.getInstance();
+
+		String[]	values = new String[n];
+
+		for (int i=0; i<n; i++)
+			values[i] = store.getTitle(i);
+
+		titles = new Ranks(collator, values);
+
+		for (int i=0; i<n; i++)
+			values[i] = store.getDirector(i);
+
+		directors = new Ranks(collator, values);
+
+		// Rank the labels of all genre bits, if there is a table of them
+		GenreLabels	labels = store.getGenreLabels();
+
+		if ((labels != null) && (labels.getGenreCount() <= 16))
+		{
+			String[]	glabels = new String[1 << labels.getGenreCount()];
+
+			for (int bits=0; bits<glabels.length; bits++)
+				glabels[bits] = labels.get(bits);
+
+			genres = new Ranks(collator, glabels).rows;
+		}
+		else
+		{
+			genres = null;
+		}
+
+		buildTime = System.nanoTime() - t0;
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	public int	size()
+	{
+		return n;
+	}
+
+	// Sorts rows of the store by the columns, the first column first, each
+	// one descending if its flag is set. Returns the rows in sorted order.
+	public int[]	sort(int[] rows, int[] columns, boolean[] descending)
+	{
+		int		m = rows.length;
+		int[][]	keys = new int[columns.length][];
+		int[]	bits = new int[columns.length];
+
+		// Get each column's keys and how many bits they take
+		for (int c=0; c<columns.length; c++)
+		{
+			keys[c] = getKeys(rows, columns[c]);
+
+			int	max = 0;
+
+			for (int key : keys[c])
+				max = Math.max(max, key);
+
+			bits[c] = 32 - Integer.numberOfLeadingZeros(max);
+
+			if (descending[c])
+				for (int j=0; j<m; j++)
+					keys[c][j] = max - keys[c][j];
+		}
+
+		// Sort by the last columns first. Each pass breaks ties by the order
+		// from the pass before, so the result is ordered by all columns.
+		int[]	order = new int[m];
+		long[]	packed = new long[m];
+
+		for (int j=0; j<m; j++)
+			order[j] = j;
+
+		for (int end=columns.length; end>0; )
+		{
+			int	start = end - 1;
+			int	total = bits[start];
+
+			while ((start > 0) && (total + bits[start - 1] <= KEY_BITS))
+				total += bits[--start];
+
+			for (int j=0; j<m; j++)
+			{
+				long	key = 0L;
+
+				for (int c=start; c<end; c++)
+					key = (key << bits[c]) | keys[c][order[j]];
+
+				packed[j] = (key << POSITION_BITS) | j;
+			}
+
+			Arrays.sort(packed);
+
+			int[]	next = new int[m];
+
+			for (int j=0; j<m; j++)
+				next[j] = order[(int)(packed[j] & Integer.MAX_VALUE)];
+
+			order = next;
+			end = start;
+		}
+
+		int[]	sorted = new int[m];
+
+		for (int j=0; j<m; j++)
+			sorted[j] = rows[order[j]];
+
+		return sorted;
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return titles.sorted.length + " titles, " + directors.sorted.length +
+			" directors for " + n + " movies ranked in " +
+			(buildTime / 1000000L) + " ms";
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	// The key of each row for one column, never negative.
+	private int[]	getKeys(int[] rows, int column)
+	{
+		int[]	keys = new int[rows.length];
+
+		switch (column)
+		{
+			case TITLE:
+				getRankKeys(rows, titles, keys, TITLE);
+				break;
+
+			case DIRECTOR:
+				getRankKeys(rows, directors, keys, DIRECTOR);
+				break;
+
+			case YEAR:
+				getYearKeys(rows, keys);
+				break;
+
+			case GENRE:
+				for (int j=0; j<rows.length; j++)
+				{
+					int	bits = store.getGenre(rows[j]);
+
+					keys[j] = ((genres == null) ? (bits & Integer.MAX_VALUE) :
+							   genres[bits & (genres.length - 1)]);
+				}
+				break;
+
+			default:
+				throw new IllegalArgumentException("No column " + column);
+		}
+
+		return keys;
+	}
+
+	// Keys are ranks. Edited rows whose values aren't ranked need keys
+	// between the ranks, which takes renumbering all keys.
+	private void	getRankKeys(int[] rows, Ranks ranks, int[] keys,
+								int column)
+	{
+		long[]				edited = store.getEditedBits();
+		ArrayList<Integer>	misses = null;		// Positions in rows
+
+		for (int j=0; j<rows.length; j++)
+		{
+			int	i = rows[j];
+
+			if ((i < n) && ((edited[i >>> 6] & (1L << i)) == 0L))
+			{
+				keys[j] = ranks.rows[i];
+				continue;
+			}
+
+			String	value = getValue(i, column);
+			int		k = ranks.find(value);
+
+			if (k >= 0)
+			{
+				keys[j] = ranks.ranks[k];
+			}
+			else
+			{
+				if (misses == null)
+					misses = new ArrayList<Integer>();
+
+				misses.add(j);
+			}
+		}
+
+		if (misses == null)
+			return;
+
+		// Shift the ranks up, leaving room below each one for the values
+		// that fall between it and the one before
+		long[]	wide = new long[rows.length];
+
+		for (int j=0; j<rows.length; j++)
+			wide[j] = ((long)keys[j]) << 32;
+
+		// Order the misses by gap, then by value, and number them back from
+		// the rank above the gap
+		int				size = misses.size();
+		int[]			gaps = new int[size];
+		CollationKey[]	values = new CollationKey[size];
+		Integer[]		order = new Integer[size];
+
+		for (int k=0; k<size; k++)
+		{
+			int		j = misses.get(k);
+			String	value = getValue(rows[j], column);
+			int		gap = -ranks.find(value) - 1;
+
+			gaps[k] = ranks.rankAt(gap);
+			values[k] = collator.getCollationKey(value);
+			order[k] = k;
+		}
+
+		Arrays.sort(order, (a, b) -> ((gaps[a] != gaps[b]) ?
+									  Integer.compare(gaps[a], gaps[b]) :
+									  values[a].compareTo(values[b])));
+
+		for (int k=0; k<size; )
+		{
+			int	end = k;
+
+			while ((end < size) && (gaps[order[end]] == gaps[order[k]]))
+				end++;
+
+			// Number the distinct values in this gap, equal values alike
+			int	count = 0;
+
+			for (int r=k; r<end; r++)
+				if ((r == k) ||
+					(values[order[r]].compareTo(values[order[r - 1]]) != 0))
+					count++;
+
+			int	sub = 0;
+
+			for (int r=k; r<end; r++)
+			{
+				if ((r > k) &&
+					(values[order[r]].compareTo(values[order[r - 1]]) != 0))
+					sub++;
+
+				wide[misses.get(order[r])] =
+					(((long)gaps[order[r]]) << 32) - (count - sub);
+			}
+
+			k = end;
+		}
+
+		// Number the distinct keys in order
+		long[]	distinct = wide.clone();
+		int		d = 0;
+
+		Arrays.sort(distinct);
+
+		for (int j=0; j<distinct.length; j++)
+			if ((j == 0) || (distinct[j] != distinct[d - 1]))
+				distinct[d++] = distinct[j];
+
+		for (int j=0; j<rows.length; j++)
+			keys[j] = Arrays.binarySearch(distinct, 0, d, wide[j]);
+	}
+
+	// Keys are years counted from the earliest.
+	private void	getYearKeys(int[] rows, int[] keys)
+	{
+		int	min = Integer.MAX_VALUE;
+
+		for (int j=0; j<rows.length; j++)
+		{
+			keys[j] = store.getYear(rows[j]);
+			min = Math.min(min, keys[j]);
+		}
+
+		for (int j=0; j<rows.length; j++)
+			keys[j] -= min;
+	}
+
+	private String	getValue(int i, int column)
+	{
+		String	value = ((column == TITLE) ? store.getTitle(i) :
+						 store.getDirector(i));
+
+		return ((value == null) ? "" : value);
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	// The ranks of a column of strings in collation order. Strings that
+	// collate equally get the same rank. Ranks start at 1.
+	private static final class Ranks
+	{
+		private final Collator	collator;
+		private final String[]	sorted;	// Distinct, in collation order
+		private final int[]	ranks;		// Rank of each sorted string
+		private final int[]	rows;		// Rank of each row's string
+
+		public Ranks(Collator collator, String[] values)
+		{
+			this.collator = collator;
+
+			// Number the distinct strings, then sort them by collation key
+			HashMap<String, Integer>	ids = new HashMap<String, Integer>();
+			ArrayList<String>			distinct = new ArrayList<String>();
+
+			for (String value : values)
+			{
+				String	v = ((value == null) ? "" : value);
+
+				if (!ids.containsKey(v))
+				{
+					ids.put(v, distinct.size());
+					distinct.add(v);
+				}
+			}
+
+			int				d = distinct.size();
+			CollationKey[]	ckeys = new CollationKey[d];
+
+			for (int k=0; k<d; k++)
+				ckeys[k] = collator.getCollationKey(distinct.get(k));
+
+			Arrays.sort(ckeys);
+
+			sorted = new String[d];
+			ranks = new int[d];
+
+			int[]	rankOfId = new int[d];
+
+			for (int k=0; k<d; k++)
+			{
+				sorted[k] = ckeys[k].getSourceString();
+				ranks[k] = (((k > 0) && (ckeys[k].compareTo(ckeys[k - 1]) == 0)) ?
+							ranks[k - 1] : (k + 1));
+				rankOfId[ids.get(sorted[k])] = ranks[k];
+			}
+
+			rows = new int[values.length];
+
+			for (int i=0; i<values.length; i++)
+				rows[i] = rankOfId[ids.get((values[i] == null) ? "" :
+											values[i])];
+		}
+
+		// The index of the string among the sorted ones, or (-(insertion
+		// point) - 1) if it isn't there.
+		public int	find(String value)
+		{
+			return Arrays.binarySearch(sorted, value, collator);
+		}
+
+		// The rank at an insertion point, one past the last rank at the end.
+		public int	rankAt(int k)
+		{
+			return ((k < ranks.length) ? ranks[k] :
+					((ranks.length == 0) ? 1 : (ranks[ranks.length - 1] + 1)));
+		}
+	}
+}
+
+//******************************************************************************
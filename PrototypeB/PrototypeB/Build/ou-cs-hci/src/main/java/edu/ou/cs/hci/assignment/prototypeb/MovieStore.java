@@ -0,0 +1,1329 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+// Notes:
+//
+// Rows create their properties lazily. To compare with creating all of them
+// along with each row, run with -Dprototypeb.properties=eager
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.util.*;
+import java.util.function.IntFunction;
+import javafx.beans.binding.StringBinding;
+import javafx.beans.property.*;
+import org.apache.commons.csv.CSVRecord;
+
+//******************************************************************************
+
+/**
+ * The <CODE>MovieStore</CODE> class keeps the attributes of many movies in
+ * columns, one array per attribute, instead of in one object per movie. Numbers
+ * are kept as primitives, the six yes/no attributes are kept as bitsets, and
+ * the director and rating strings are stored once each in pools. Each movie is
+ * accessed through a lightweight {@link Row} view, which creates properties
+ * only for attributes that something (usually a table cell) asks to observe.
+ * Stores can also be set to eager mode, in which each row creates all of its
+ * properties when it's first asked for.
+ * A store opened from a {@link CatalogFile} reads free text from the file as
+ * it's asked for, so only edited text is kept on the heap.
+ *
+ * @version %I%, %G%
+ */
+public final class MovieStore
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// Bit positions of the yes/no attributes in the flag bitsets
+	public static final int	AWARD_PICTURE = 0;
+	public static final int	AWARD_DIRECTING = 1;
+	public static final int	AWARD_CINEMATOGRAPHY = 2;
+	public static final int	AWARD_ACTING = 3;
+	public static final int	IS_ANIMATED = 4;
+	public static final int	IS_COLOR = 5;
+
+	public static final int	FLAG_COUNT = 6;
+
+	// Free text attributes, in the order they're read from a text source
+	public static final int	TEXT_TITLE = 0;
+	public static final int	TEXT_IMAGE = 1;
+	public static final int	TEXT_SUMMARY = 2;
+	public static final int	TEXT_COMMENTS = 3;
+
+	public static final int	TEXT_COUNT = 4;
+
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final int	INITIAL_CAPACITY = 64;
+
+	// Heap sizes assumed by estimates, for a 64-bit JVM with compressed
+	// references and compact strings
+	private static final int	ARRAY_BYTES = 16;		// Array header
+	private static final int	STRING_BYTES = 40;		// String and its array
+	private static final int	ENTRY_BYTES = 48;		// Map entry and Integer
+
+	// Whether stores start out creating all of a row's properties at once
+	private static final boolean	EAGER = "eager".equalsIgnoreCase(
+		System.getProperty("prototypeb.properties", "lazy"));
+
+	// Slots in each row's property array, one per attribute. They also number
+	// the attributes given to edit listeners.
+	static final int	P_TITLE = 0;
+	static final int	P_IMAGE = 1;
+	static final int	P_YEAR = 2;
+	static final int	P_RATING = 3;
+	static final int	P_RUNTIME = 4;
+	static final int	P_SCORE = 5;
+	static final int	P_REVIEWS = 6;
+	static final int	P_GENRE = 7;
+	static final int	P_DIRECTOR = 8;
+	static final int	P_SUMMARY = 9;
+	static final int	P_COMMENTS = 10;
+	static final int	P_FLAG = 11;	// Plus flag bit position
+
+	static final int	P_COUNT = P_FLAG + FLAG_COUNT;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private int				size;
+
+	// Free text columns. Null means the row's text hasn't been changed from
+	// what the source has, if there is a source.
+	private String[]			title;
+	private String[]			image;
+	private String[]			summary;
+	private String[]			comments;
+
+	// Numeric columns
+	private int[]				year;
+	private int[]				runtime;
+	private int[]				reviews;
+	private int[]				genre;		// Bit n set means genre n
+	private double[]			score;
+
+	// Free text of the first sourced rows, or null if all text is in columns
+	private final TextSource	source;
+	private final int			sourced;
+
+	// Pooled string columns, as indices into the pools
+	private int[]				rating;
+	private int[]				director;
+
+	private final Pool			ratings;
+	private final Pool			directors;
+
+	// Yes/no columns, one bitset per flag, 64 rows per long
+	private final long[][]		flags;
+
+	// Row views, created the first time each row is asked for
+	private Row[]				rows;
+	private boolean			eager = EAGER;	// With all properties?
+
+	// Rows whose indexed attributes were changed through their row views
+	private long[]				edited;
+
+	// Labels for genre bits, set by whoever knows the genre names
+	private GenreLabels		genreLabels;
+
+	// Told about every change made through the row views, if set
+	private EditListener		editListener;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public MovieStore()
+	{
+		this(INITIAL_CAPACITY);
+	}
+
+	public MovieStore(int capacity)
+	{
+		capacity = Math.max(1, capacity);
+
+		title = new String[capacity];
+		image = new String[capacity];
+		summary = new String[capacity];
+		comments = new String[capacity];
+
+		year = new int[capacity];
+		runtime = new int[capacity];
+		reviews = new int[capacity];
+		genre = new int[capacity];
+		score = new double[capacity];
+
+		rating = new int[capacity];
+		director = new int[capacity];
+
+		ratings = new Pool();
+		directors = new Pool();
+
+		flags = new long[FLAG_COUNT][words(capacity)];
+
+		rows = new Row[capacity];
+		edited = new long[words(capacity)];
+
+		source = null;
+		sourced = 0;
+	}
+
+	// A store of n rows over columns read from a catalog file. The arrays
+	// become the store's own, and the free text of every row is read from the
+	// source each time it's asked for, until it's changed.
+	MovieStore(int n, int[] year, int[] runtime, int[] reviews, int[] genre,
+			   double[] score, int[] rating, List<String> ratingStrings,
+			   int[] director, List<String> directorStrings, long[][] flags,
+			   TextSource source)
+	{
+		size = n;
+
+		title = new String[n];
+		image = new String[n];
+		summary = new String[n];
+		comments = new String[n];
+
+		this.year = year;
+		this.runtime = runtime;
+		this.reviews = reviews;
+		this.genre = genre;
+		this.score = score;
+
+		this.rating = rating;
+		this.director = director;
+
+		ratings = new Pool(ratingStrings);
+		directors = new Pool(directorStrings);
+
+		this.flags = flags;
+
+		rows = new Row[n];
+		edited = new long[words(n)];
+
+		this.source = source;
+		sourced = n;
+	}
+
+	//**********************************************************************
+	// Public Methods (Building)
+	//**********************************************************************
+
+	public int	size()
+	{
+		return size;
+	}
+
+	// Appends a movie from its parsed CSV record, in the column order of
+	// movies.csv. Returns the index of the new row.
+	public int	add(CSVRecord item)
+	{
+		return add(item::get);
+	}
+
+	public int	add(List<String> item)
+	{
+		return add(item::get);
+	}
+
+	// Appends all rows of another store, in order. Used to stitch together
+	// stores that were filled from separate chunks of the same file.
+	public void	addAll(MovieStore other)
+	{
+		int	n = other.size;
+
+		ensureCapacity(size + n);
+
+		for (int i=0; i<n; i++)
+		{
+			title[size + i] = other.getTitle(i);
+			image[size + i] = other.getImage(i);
+			summary[size + i] = other.getSummary(i);
+			comments[size + i] = other.getComments(i);
+		}
+
+		System.arraycopy(other.year, 0, year, size, n);
+		System.arraycopy(other.runtime, 0, runtime, size, n);
+		System.arraycopy(other.reviews, 0, reviews, size, n);
+		System.arraycopy(other.genre, 0, genre, size, n);
+		System.arraycopy(other.score, 0, score, size, n);
+
+		// Pool indices differ between stores, so translate them
+		int[]	rmap = ratings.merge(other.ratings);
+		int[]	dmap = directors.merge(other.directors);
+
+		for (int i=0; i<n; i++)
+		{
+			rating[size + i] = rmap[other.rating[i]];
+			director[size + i] = dmap[other.director[i]];
+
+			for (int f=0; f<FLAG_COUNT; f++)
+				putFlag(f, size + i, other.getFlag(f, i));
+		}
+
+		size += n;
+	}
+
+	// Releases unused capacity once the store is fully built.
+	public void	trimToSize()
+	{
+		if (size < title.length)
+			resize(size);
+	}
+
+	//**********************************************************************
+	// Public Methods (Rows)
+	//**********************************************************************
+
+	public Row	getRow(int index)
+	{
+		checkIndex(index);
+
+		Row	row = rows[index];
+
+		if (row == null)
+		{
+			row = new Row(index);
+			rows[index] = row;
+
+			if (eager)
+				row.createProperties();
+		}
+
+		return row;
+	}
+
+	// An unmodifiable, random access list of the rows in the store. Rows are
+	// created only as the list is traversed.
+	public List<Row>	asList()
+	{
+		return new RowList();
+	}
+
+	//**********************************************************************
+	// Public Methods (Columns)
+	//**********************************************************************
+
+	// Direct access to attribute values, without creating row views. Setters
+	// go through the row's property if one exists, so observers are notified.
+
+	public String	getTitle(int i)
+	{
+		checkIndex(i);
+		return text(title, TEXT_TITLE, i);
+	}
+
+	public String	getImage(int i)
+	{
+		checkIndex(i);
+		return text(image, TEXT_IMAGE, i);
+	}
+
+	public int	getYear(int i)
+	{
+		checkIndex(i);
+		return year[i];
+	}
+
+	public String	getRating(int i)
+	{
+		checkIndex(i);
+		return ratings.get(rating[i]);
+	}
+
+	public int	getRuntime(int i)
+	{
+		checkIndex(i);
+		return runtime[i];
+	}
+
+	public double	getAverageReviewScore(int i)
+	{
+		checkIndex(i);
+		return score[i];
+	}
+
+	public int	getNumberOfReviews(int i)
+	{
+		checkIndex(i);
+		return reviews[i];
+	}
+
+	public int	getGenre(int i)
+	{
+		checkIndex(i);
+		return genre[i];
+	}
+
+	public String	getDirector(int i)
+	{
+		checkIndex(i);
+		return directors.get(director[i]);
+	}
+
+	public String	getSummary(int i)
+	{
+		checkIndex(i);
+		return text(summary, TEXT_SUMMARY, i);
+	}
+
+	public String	getComments(int i)
+	{
+		checkIndex(i);
+		return text(comments, TEXT_COMMENTS, i);
+	}
+
+	public boolean	getFlag(int flag, int i)
+	{
+		checkIndex(i);
+		return (flags[flag][i >>> 6] & (1L << i)) != 0L;
+	}
+
+	// The bitset for one of the yes/no attributes. Bit i is set when row i has
+	// the attribute. Callers must not modify it.
+	public long[]	getFlagBits(int flag)
+	{
+		return flags[flag];
+	}
+
+	// The bitset of rows whose title, director, summary, comments, year,
+	// rating, genre, or yes/no attributes have been changed through their row
+	// views. Indexes built over those attributes use it to tell which rows
+	// are out of date. Callers must not modify it.
+	public long[]	getEditedBits()
+	{
+		return edited;
+	}
+
+	// The distinct director and rating strings, in order of first appearance.
+	public List<String>	getDirectors()
+	{
+		return directors.strings();
+	}
+
+	public List<String>	getRatings()
+	{
+		return ratings.strings();
+	}
+
+	// Positions of a row's director and rating in the lists above, for
+	// writing columns as they're stored.
+
+	int	getDirectorId(int i)
+	{
+		checkIndex(i);
+		return director[i];
+	}
+
+	int	getRatingId(int i)
+	{
+		checkIndex(i);
+		return rating[i];
+	}
+
+	public GenreLabels	getGenreLabels()
+	{
+		return genreLabels;
+	}
+
+	// Sets the labels that rows give for their genres. Until then, rows have
+	// no genre labels.
+	public void	setGenreLabels(GenreLabels genreLabels)
+	{
+		this.genreLabels = genreLabels;
+	}
+
+	// Rows created from now on create all of their properties at once, or
+	// only as they're asked for. Rows already created keep what they have.
+	public void	setEagerProperties(boolean eager)
+	{
+		this.eager = eager;
+	}
+
+	// Sets who is told about each change made through the row views, such as
+	// a journal that saves them. Changes made while building aren't told.
+	void	setEditListener(EditListener editListener)
+	{
+		this.editListener = editListener;
+	}
+
+	//**********************************************************************
+	// Public Methods (Statistics)
+	//**********************************************************************
+
+	// Estimates the heap held by the columns and pools, counting the capacity
+	// of each array and the text of each string. Text still read from a
+	// source, such as a mapped catalog file, isn't on the heap. Neither are
+	// row views, which only exist for rows that something asked for.
+	public long	getRetainedBytes()
+	{
+		long	bytes = 0L;
+
+		bytes += textBytes(title) + textBytes(image);
+		bytes += textBytes(summary) + textBytes(comments);
+
+		bytes += ARRAY_BYTES + 4L * year.length;
+		bytes += ARRAY_BYTES + 4L * runtime.length;
+		bytes += ARRAY_BYTES + 4L * reviews.length;
+		bytes += ARRAY_BYTES + 4L * genre.length;
+		bytes += ARRAY_BYTES + 8L * score.length;
+
+		bytes += ARRAY_BYTES + 4L * rating.length;
+		bytes += ARRAY_BYTES + 4L * director.length;
+		bytes += ratings.bytes() + directors.bytes();
+
+		for (long[] bits : flags)
+			bytes += ARRAY_BYTES + 8L * bits.length;
+
+		bytes += ARRAY_BYTES + 4L * rows.length;
+		bytes += ARRAY_BYTES + 8L * edited.length;
+
+		return bytes;
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	private int	add(IntFunction<String> item)
+	{
+		ensureCapacity(size + 1);
+
+		int	i = size++;
+
+		title[i] = item.apply(0);
+		image[i] = item.apply(1);
+		year[i] = Integer.parseInt(item.apply(2));
+		rating[i] = ratings.intern(item.apply(3));
+		runtime[i] = Integer.parseInt(item.apply(4));
+
+		putFlag(AWARD_PICTURE, i, Boolean.parseBoolean(item.apply(5)));
+		putFlag(AWARD_DIRECTING, i, Boolean.parseBoolean(item.apply(6)));
+		putFlag(AWARD_CINEMATOGRAPHY, i, Boolean.parseBoolean(item.apply(7)));
+		putFlag(AWARD_ACTING, i, Boolean.parseBoolean(item.apply(8)));
+
+		score[i] = Double.parseDouble(item.apply(9));
+		reviews[i] = Integer.parseInt(item.apply(10));
+		genre[i] = Integer.parseInt(item.apply(11));
+		director[i] = directors.intern(item.apply(12));
+
+		putFlag(IS_ANIMATED, i, Boolean.parseBoolean(item.apply(13)));
+		putFlag(IS_COLOR, i, Boolean.parseBoolean(item.apply(14)));
+
+		summary[i] = item.apply(15);
+		comments[i] = item.apply(16);
+
+		return i;
+	}
+
+	private void	putFlag(int flag, int i, boolean v)
+	{
+		if (v)
+			flags[flag][i >>> 6] |= (1L << i);
+		else
+			flags[flag][i >>> 6] &= ~(1L << i);
+	}
+
+	private void	markEdited(int i)
+	{
+		edited[i >>> 6] |= (1L << i);
+	}
+
+	// The text in the column, or from the source if it hasn't been changed.
+	// Text read from the source isn't kept, so it's read again next time.
+	private String	text(String[] column, int attribute, int i)
+	{
+		String	v = column[i];
+
+		if ((v == null) && (i < sourced))
+			return source.getText(attribute, i);
+
+		return v;
+	}
+
+	private void	checkIndex(int i)
+	{
+		if ((i < 0) || (i >= size))
+			throw new IndexOutOfBoundsException("Row " + i + " of " + size);
+	}
+
+	private void	ensureCapacity(int capacity)
+	{
+		if (capacity > title.length)
+			resize(Math.max(capacity, title.length + (title.length >> 1)));
+	}
+
+	private void	resize(int capacity)
+	{
+		title = Arrays.copyOf(title, capacity);
+		image = Arrays.copyOf(image, capacity);
+		summary = Arrays.copyOf(summary, capacity);
+		comments = Arrays.copyOf(comments, capacity);
+
+		year = Arrays.copyOf(year, capacity);
+		runtime = Arrays.copyOf(runtime, capacity);
+		reviews = Arrays.copyOf(reviews, capacity);
+		genre = Arrays.copyOf(genre, capacity);
+		score = Arrays.copyOf(score, capacity);
+
+		rating = Arrays.copyOf(rating, capacity);
+		director = Arrays.copyOf(director, capacity);
+
+		for (int f=0; f<FLAG_COUNT; f++)
+			flags[f] = Arrays.copyOf(flags[f], words(capacity));
+
+		rows = Arrays.copyOf(rows, capacity);
+		edited = Arrays.copyOf(edited, words(capacity));
+	}
+
+	// Number of longs needed to hold n bits.
+	private static int	words(int n)
+	{
+		return (n + 63) >>> 6;
+	}
+
+	// Estimated heap held by an array of strings and the strings in it.
+	private static long	textBytes(String[] column)
+	{
+		long	bytes = ARRAY_BYTES + 4L * column.length;
+
+		for (String s : column)
+			if (s != null)
+				bytes += STRING_BYTES + s.length();
+
+		return bytes;
+	}
+
+	//**********************************************************************
+	// Inner Interfaces
+	//**********************************************************************
+
+	// Where a store reads the free text of rows that haven't changed it, such
+	// as from a catalog file. Attributes are numbered by TEXT_TITLE and so on.
+	// Must be safe to call from any thread.
+	interface TextSource
+	{
+		public String	getText(int attribute, int row);
+	}
+
+	// Told which attribute of which row was changed, after the change. The
+	// attribute is numbered by its property slot, P_TITLE and so on, plus the
+	// flag bit position for P_FLAG. Called on whatever thread made the change.
+	interface EditListener
+	{
+		public void	edited(int row, int attribute);
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	/**
+	 * A view of one movie in the store. Getters read the columns directly.
+	 * Properties are created on the first call to the matching xxxProperty()
+	 * method and write their changes back into the columns. Once a property
+	 * exists, the row's setter goes through it so that observers see changes.
+	 */
+	public final class Row
+	{
+		private final int		index;
+
+		// Properties created so far, allocated on first use
+		private Property<?>[]	properties;
+
+		// Label for the genres, created on first use
+		private GenreLabel		genreLabel;
+
+		private Row(int index)
+		{
+			this.index = index;
+		}
+
+		// Position of this movie in the store (and in the catalog).
+		public int	getIndex()
+		{
+			return index;
+		}
+
+		//------------------------------------------------------------------
+		// Getters and Setters
+		//------------------------------------------------------------------
+
+		public String	getTitle()
+		{
+			return text(title, TEXT_TITLE, index);
+		}
+
+		public void	setTitle(String v)
+		{
+			if (has(P_TITLE))
+				titleProperty().set(v);
+			else
+			{
+				title[index] = v;
+				markEdited(index);
+				changed(P_TITLE);
+			}
+		}
+
+		public String	getImage()
+		{
+			return text(image, TEXT_IMAGE, index);
+		}
+
+		public void	setImage(String v)
+		{
+			if (has(P_IMAGE))
+				imageProperty().set(v);
+			else
+			{
+				image[index] = v;
+				changed(P_IMAGE);
+			}
+		}
+
+		public int	getYear()
+		{
+			return year[index];
+		}
+
+		public void	setYear(int v)
+		{
+			if (has(P_YEAR))
+				yearProperty().set(v);
+			else
+			{
+				year[index] = v;
+				markEdited(index);
+				changed(P_YEAR);
+			}
+		}
+
+		public String	getRating()
+		{
+			return ratings.get(rating[index]);
+		}
+
+		public void	setRating(String v)
+		{
+			if (has(P_RATING))
+				ratingProperty().set(v);
+			else
+			{
+				rating[index] = ratings.intern(v);
+				markEdited(index);
+				changed(P_RATING);
+			}
+		}
+
+		public int	getRuntime()
+		{
+			return runtime[index];
+		}
+
+		public void	setRuntime(int v)
+		{
+			if (has(P_RUNTIME))
+				runtimeProperty().set(v);
+			else
+			{
+				runtime[index] = v;
+				changed(P_RUNTIME);
+			}
+		}
+
+		public boolean	getAwardPicture()
+		{
+			return getFlag(AWARD_PICTURE, index);
+		}
+
+		public void	setAwardPicture(boolean v)
+		{
+			setFlag(AWARD_PICTURE, v);
+		}
+
+		public boolean	getAwardDirecting()
+		{
+			return getFlag(AWARD_DIRECTING, index);
+		}
+
+		public void	setAwardDirecting(boolean v)
+		{
+			setFlag(AWARD_DIRECTING, v);
+		}
+
+		public boolean	getAwardCinematography()
+		{
+			return getFlag(AWARD_CINEMATOGRAPHY, index);
+		}
+
+		public void	setAwardCinematography(boolean v)
+		{
+			setFlag(AWARD_CINEMATOGRAPHY, v);
+		}
+
+		public boolean	getAwardActing()
+		{
+			return getFlag(AWARD_ACTING, index);
+		}
+
+		public void	setAwardActing(boolean v)
+		{
+			setFlag(AWARD_ACTING, v);
+		}
+
+		public double	getAverageReviewScore()
+		{
+			return score[index];
+		}
+
+		public void	setAverageReviewScore(double v)
+		{
+			if (has(P_SCORE))
+				averageReviewScoreProperty().set(v);
+			else
+			{
+				score[index] = v;
+				changed(P_SCORE);
+			}
+		}
+
+		public int	getNumberOfReviews()
+		{
+			return reviews[index];
+		}
+
+		public void	setNumberOfReviews(int v)
+		{
+			if (has(P_REVIEWS))
+				numberOfReviewsProperty().set(v);
+			else
+			{
+				reviews[index] = v;
+				changed(P_REVIEWS);
+			}
+		}
+
+		public int	getGenre()
+		{
+			return genre[index];
+		}
+
+		public void	setGenre(int v)
+		{
+			if (has(P_GENRE))
+				genreProperty().set(v);
+			else
+			{
+				genre[index] = v;
+				markEdited(index);
+				changed(P_GENRE);
+			}
+		}
+
+		// The names of the movie's genres, shared with all movies that have
+		// the same genres.
+		public String	getGenreLabel()
+		{
+			return ((genreLabels == null) ? null :
+					genreLabels.get(genre[index]));
+		}
+
+		public String	getDirector()
+		{
+			return directors.get(director[index]);
+		}
+
+		public void	setDirector(String v)
+		{
+			if (has(P_DIRECTOR))
+				directorProperty().set(v);
+			else
+			{
+				director[index] = directors.intern(v);
+				markEdited(index);
+				changed(P_DIRECTOR);
+			}
+		}
+
+		public boolean	getIsAnimated()
+		{
+			return getFlag(IS_ANIMATED, index);
+		}
+
+		public void	setIsAnimated(boolean v)
+		{
+			setFlag(IS_ANIMATED, v);
+		}
+
+		public boolean	getIsColor()
+		{
+			return getFlag(IS_COLOR, index);
+		}
+
+		public void	setIsColor(boolean v)
+		{
+			setFlag(IS_COLOR, v);
+		}
+
+		public String	getSummary()
+		{
+			return text(summary, TEXT_SUMMARY, index);
+		}
+
+		public void	setSummary(String v)
+		{
+			if (has(P_SUMMARY))
+				summaryProperty().set(v);
+			else
+			{
+				summary[index] = v;
+				markEdited(index);
+				changed(P_SUMMARY);
+			}
+		}
+
+		public String	getComments()
+		{
+			return text(comments, TEXT_COMMENTS, index);
+		}
+
+		public void	setComments(String v)
+		{
+			if (has(P_COMMENTS))
+				commentsProperty().set(v);
+			else
+			{
+				comments[index] = v;
+				markEdited(index);
+				changed(P_COMMENTS);
+			}
+		}
+
+		//------------------------------------------------------------------
+		// Properties (created on demand)
+		//------------------------------------------------------------------
+
+		public StringProperty	titleProperty()
+		{
+			if (!has(P_TITLE))
+				put(P_TITLE, new SimpleStringProperty(this, "title",
+													  getTitle())
+				{
+					protected void	invalidated()
+					{
+						title[index] = get();
+						markEdited(index);
+						changed(P_TITLE);
+					}
+				});
+
+			return (StringProperty)properties[P_TITLE];
+		}
+
+		public StringProperty	imageProperty()
+		{
+			if (!has(P_IMAGE))
+				put(P_IMAGE, new SimpleStringProperty(this, "image",
+													  getImage())
+				{
+					protected void	invalidated()
+					{
+						image[index] = get();
+						changed(P_IMAGE);
+					}
+				});
+
+			return (StringProperty)properties[P_IMAGE];
+		}
+
+		public IntegerProperty	yearProperty()
+		{
+			if (!has(P_YEAR))
+				put(P_YEAR, new SimpleIntegerProperty(this, "year",
+													  year[index])
+				{
+					protected void	invalidated()
+					{
+						year[index] = get();
+						markEdited(index);
+						changed(P_YEAR);
+					}
+				});
+
+			return (IntegerProperty)properties[P_YEAR];
+		}
+
+		public StringProperty	ratingProperty()
+		{
+			if (!has(P_RATING))
+				put(P_RATING, new SimpleStringProperty(this, "rating",
+													   getRating())
+				{
+					protected void	invalidated()
+					{
+						rating[index] = ratings.intern(get());
+						markEdited(index);
+						changed(P_RATING);
+					}
+				});
+
+			return (StringProperty)properties[P_RATING];
+		}
+
+		public IntegerProperty	runtimeProperty()
+		{
+			if (!has(P_RUNTIME))
+				put(P_RUNTIME, new SimpleIntegerProperty(this, "runtime",
+														 runtime[index])
+				{
+					protected void	invalidated()
+					{
+						runtime[index] = get();
+						changed(P_RUNTIME);
+					}
+				});
+
+			return (IntegerProperty)properties[P_RUNTIME];
+		}
+
+		public BooleanProperty	awardPictureProperty()
+		{
+			return flagProperty(AWARD_PICTURE, "awardPicture");
+		}
+
+		public BooleanProperty	awardDirectingProperty()
+		{
+			return flagProperty(AWARD_DIRECTING, "awardDirecting");
+		}
+
+		public BooleanProperty	awardCinematographyProperty()
+		{
+			return flagProperty(AWARD_CINEMATOGRAPHY, "awardCinematography");
+		}
+
+		public BooleanProperty	awardActingProperty()
+		{
+			return flagProperty(AWARD_ACTING, "awardActing");
+		}
+
+		public DoubleProperty	averageReviewScoreProperty()
+		{
+			if (!has(P_SCORE))
+				put(P_SCORE, new SimpleDoubleProperty(this,
+							"averageReviewScore", score[index])
+				{
+					protected void	invalidated()
+					{
+						score[index] = get();
+						changed(P_SCORE);
+					}
+				});
+
+			return (DoubleProperty)properties[P_SCORE];
+		}
+
+		public IntegerProperty	numberOfReviewsProperty()
+		{
+			if (!has(P_REVIEWS))
+				put(P_REVIEWS, new SimpleIntegerProperty(this,
+							"numberOfReviews", reviews[index])
+				{
+					protected void	invalidated()
+					{
+						reviews[index] = get();
+						changed(P_REVIEWS);
+					}
+				});
+
+			return (IntegerProperty)properties[P_REVIEWS];
+		}
+
+		public IntegerProperty	genreProperty()
+		{
+			if (!has(P_GENRE))
+				put(P_GENRE, new SimpleIntegerProperty(this, "genre",
+													   genre[index])
+				{
+					protected void	invalidated()
+					{
+						genre[index] = get();
+						markEdited(index);
+						changed(P_GENRE);
+					}
+				});
+
+			return (IntegerProperty)properties[P_GENRE];
+		}
+
+		// The genre label as an observable value. It looks up the label
+		// again only after the genre changes.
+		public StringBinding	genreLabelProperty()
+		{
+			if (genreLabel == null)
+				genreLabel = new GenreLabel();
+
+			return genreLabel;
+		}
+
+		public StringProperty	directorProperty()
+		{
+			if (!has(P_DIRECTOR))
+				put(P_DIRECTOR, new SimpleStringProperty(this, "director",
+														 getDirector())
+				{
+					protected void	invalidated()
+					{
+						director[index] = directors.intern(get());
+						markEdited(index);
+						changed(P_DIRECTOR);
+					}
+				});
+
+			return (StringProperty)properties[P_DIRECTOR];
+		}
+
+		public BooleanProperty	isAnimatedProperty()
+		{
+			return flagProperty(IS_ANIMATED, "isAnimated");
+		}
+
+		public BooleanProperty	isColorProperty()
+		{
+			return flagProperty(IS_COLOR, "isColor");
+		}
+
+		public StringProperty	summaryProperty()
+		{
+			if (!has(P_SUMMARY))
+				put(P_SUMMARY, new SimpleStringProperty(this, "summary",
+														getSummary())
+				{
+					protected void	invalidated()
+					{
+						summary[index] = get();
+						markEdited(index);
+						changed(P_SUMMARY);
+					}
+				});
+
+			return (StringProperty)properties[P_SUMMARY];
+		}
+
+		public StringProperty	commentsProperty()
+		{
+			if (!has(P_COMMENTS))
+				put(P_COMMENTS, new SimpleStringProperty(this, "comments",
+														 getComments())
+				{
+					protected void	invalidated()
+					{
+						comments[index] = get();
+						markEdited(index);
+						changed(P_COMMENTS);
+					}
+				});
+
+			return (StringProperty)properties[P_COMMENTS];
+		}
+
+		//------------------------------------------------------------------
+		// Private Methods
+		//------------------------------------------------------------------
+
+		private boolean	has(int slot)
+		{
+			return ((properties != null) && (properties[slot] != null));
+		}
+
+		private void	put(int slot, Property<?> property)
+		{
+			if (properties == null)
+				properties = new Property<?>[P_COUNT];
+
+			properties[slot] = property;
+		}
+
+		// Creates every property at once, for eager mode.
+		private void	createProperties()
+		{
+			titleProperty();
+			imageProperty();
+
+			yearProperty();
+			ratingProperty();
+			runtimeProperty();
+
+			awardPictureProperty();
+			awardDirectingProperty();
+			awardCinematographyProperty();
+			awardActingProperty();
+
+			averageReviewScoreProperty();
+			numberOfReviewsProperty();
+			genreProperty();
+
+			directorProperty();
+			isAnimatedProperty();
+			isColorProperty();
+
+			summaryProperty();
+			commentsProperty();
+		}
+
+		private void	changed(int slot)
+		{
+			if (editListener != null)
+				editListener.edited(index, slot);
+		}
+
+		// Sets a yes/no attribute by its bit position. Package-private so that
+		// a journal can replay flag edits without naming each flag.
+		void	setFlag(int flag, boolean v)
+		{
+			if (has(P_FLAG + flag))
+				((BooleanProperty)properties[P_FLAG + flag]).set(v);
+			else
+			{
+				putFlag(flag, index, v);
+				markEdited(index);
+				changed(P_FLAG + flag);
+			}
+		}
+
+		private BooleanProperty	flagProperty(final int flag, String name)
+		{
+			if (!has(P_FLAG + flag))
+				put(P_FLAG + flag, new SimpleBooleanProperty(this, name,
+												getFlag(flag, index))
+				{
+					protected void	invalidated()
+					{
+						putFlag(flag, index, get());
+						markEdited(index);
+						changed(P_FLAG + flag);
+					}
+				});
+
+			return (BooleanProperty)properties[P_FLAG + flag];
+		}
+
+		//------------------------------------------------------------------
+		// Inner Classes
+		//------------------------------------------------------------------
+
+		private final class GenreLabel extends StringBinding
+		{
+			public GenreLabel()
+			{
+				bind(genreProperty());
+			}
+
+			protected String	computeValue()
+			{
+				return getGenreLabel();
+			}
+		}
+	}
+
+	// Exposes the rows as a list without creating all of them up front.
+	private final class RowList extends AbstractList<Row>
+		implements RandomAccess
+	{
+		public Row	get(int index)
+		{
+			return getRow(index);
+		}
+
+		public int	size()
+		{
+			return size;
+		}
+	}
+
+	// Stores each distinct string once. Rows refer to strings by index.
+	private static final class Pool
+	{
+		private final ArrayList<String>			strings;
+		private HashMap<String, Integer>			ids;	// Made on demand
+
+		public Pool()
+		{
+			strings = new ArrayList<String>();
+			ids = new HashMap<String, Integer>();
+		}
+
+		// A pool of strings read from somewhere else, all distinct. Their
+		// ids are mapped the first time a string is interned.
+		public Pool(List<String> list)
+		{
+			strings = new ArrayList<String>(list);
+		}
+
+		public int	intern(String s)
+		{
+			if (ids == null)
+			{
+				ids = new HashMap<String, Integer>(2 * strings.size());
+
+				for (int i=0; i<strings.size(); i++)
+					ids.put(strings.get(i), i);
+			}
+
+			Integer	id = ids.get(s);
+
+			if (id == null)
+			{
+				id = strings.size();
+				strings.add(s);
+				ids.put(s, id);
+			}
+
+			return id;
+		}
+
+		public String	get(int id)
+		{
+			return strings.get(id);
+		}
+
+		// Estimated heap held by the strings and the map of their ids.
+		public long	bytes()
+		{
+			long	bytes = ARRAY_BYTES + 4L * strings.size();
+
+			for (String s : strings)
+				bytes += STRING_BYTES + s.length();
+
+			if (ids != null)
+				bytes += ARRAY_BYTES + (4L + ENTRY_BYTES) * ids.size();
+
+			return bytes;
+		}
+
+		public List<String>	strings()
+		{
+			return Collections.unmodifiableList(strings);
+		}
+
+		// Adds the strings of another pool, returning the new index of each.
+		public int[]	merge(Pool other)
+		{
+			int[]	map = new int[other.strings.size()];
+
+			for (int i=0; i<map.length; i++)
+				map[i] = intern(other.strings.get(i));
+
+			return map;
+		}
+	}
+}
+
+//******************************************************************************
@@ -0,0 +1,155 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.util.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Router</CODE> class keeps track of which subscribers are
+ * interested in which model keys. Each subscriber registers one or more
+ * patterns. A pattern is an exact key ("selectedMovieIndex"), a prefix ending
+ * in ".*" ("movie.*" matches "movie.title" and "movie.award.acting"), or "*"
+ * for every key. Subscribers get slot numbers in the order they subscribe.
+ * The first time a key is routed, the slots of all matching subscribers are
+ * looked up and kept in a routing table. Later routes of the key are a single
+ * hash lookup. The table is cleared whenever subscriptions change.
+ *
+ * @version %I%, %G%
+ */
+public final class Router<T>
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final int[]				NONE = new int[0];
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	// Subscribers and their patterns by slot, null once unsubscribed
+	private final ArrayList<T>				subscribers;
+	private final ArrayList<String[]>		patterns;
+
+	// Matching slots by key, in ascending order
+	private final HashMap<String, int[]>	routes;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public Router()
+	{
+		subscribers = new ArrayList<T>();
+		patterns = new ArrayList<String[]>();
+		routes = new HashMap<String, int[]>();
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// Adds a subscriber with its patterns, returning its slot.
+	public int	subscribe(T subscriber, String... keys)
+	{
+		subscribers.add(subscriber);
+		patterns.add(keys.clone());
+		routes.clear();
+
+		return subscribers.size() - 1;
+	}
+
+	public void	unsubscribe(T subscriber)
+	{
+		for (int i=0; i<subscribers.size(); i++)
+		{
+			if (subscribers.get(i) == subscriber)
+			{
+				subscribers.set(i, null);
+				patterns.set(i, null);
+			}
+		}
+
+		routes.clear();
+	}
+
+	// One more than the highest slot ever used.
+	public int	getSlotCount()
+	{
+		return subscribers.size();
+	}
+
+	public T	getSubscriber(int slot)
+	{
+		return subscribers.get(slot);
+	}
+
+	// Gets the slots of the subscribers to the key, in ascending order. The
+	// array is shared and must not be modified.
+	public int[]	route(String key)
+	{
+		int[]	slots = routes.get(key);
+
+		if (slots == null)
+		{
+			slots = match(key);
+			routes.put(key, slots);
+		}
+
+		return slots;
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	public static boolean	matches(String pattern, String key)
+	{
+		if ("*".equals(pattern))
+			return true;
+
+		if (pattern.endsWith(".*"))		// Keep the dot in the prefix
+			return key.startsWith(pattern.substring(0, pattern.length() - 1));
+
+		return pattern.equals(key);
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	private int[]	match(String key)
+	{
+		int[]	slots = new int[subscribers.size()];
+		int		n = 0;
+
+		for (int i=0; i<slots.length; i++)
+		{
+			String[]	keys = patterns.get(i);
+
+			if (keys == null)
+				continue;
+
+			for (String pattern : keys)
+			{
+				if (matches(pattern, key))
+				{
+					slots[n++] = i;
+					break;
+				}
+			}
+		}
+
+		return ((n == 0) ? NONE : Arrays.copyOf(slots, n));
+	}
+}
+
+//******************************************************************************
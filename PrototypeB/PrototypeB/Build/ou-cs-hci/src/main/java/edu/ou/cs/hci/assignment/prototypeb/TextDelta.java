@@ -0,0 +1,219 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>TextDelta</CODE> class describes one edit to a string: replace
+ * the <CODE>removed</CODE> characters starting at <CODE>offset</CODE> with the
+ * <CODE>inserted</CODE> string. Deltas let views patch long text in place
+ * instead of replacing all of it. Each delta remembers the length of the text
+ * it applies to, so a view can tell if its text isn't the one the delta was
+ * made for, and the source that made it, so the source can skip its own edits.
+ * Consecutive deltas can be composed into one that spans both, and a delta
+ * can be inverted into one that undoes it.
+ *
+ * @version %I%, %G%
+ */
+public final class TextDelta
+{
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final int		offset;
+	private final int		removed;		// Number of characters removed
+	private final String	inserted;
+	private final int		oldLength;		// Length of text before the edit
+	private final Object	source;		// Null if more than one
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public TextDelta(int offset, int removed, String inserted, int oldLength,
+					 Object source)
+	{
+		this.offset = offset;
+		this.removed = removed;
+		this.inserted = inserted;
+		this.oldLength = oldLength;
+		this.source = source;
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	// Creates the delta that turns the old text into the new text. It covers
+	// the span between the longest common prefix and suffix of the two.
+	public static TextDelta	diff(String oldText, String newText, Object source)
+	{
+		int	n0 = oldText.length();
+		int	n1 = newText.length();
+		int	max = Math.min(n0, n1);
+		int	p = 0;
+
+		while ((p < max) && (oldText.charAt(p) == newText.charAt(p)))
+			p++;
+
+		int	q = 0;
+
+		while ((q < max - p) &&
+			   (oldText.charAt(n0 - 1 - q) == newText.charAt(n1 - 1 - q)))
+			q++;
+
+		return new TextDelta(p, n0 - p - q, newText.substring(p, n1 - q),
+							 n0, source);
+	}
+
+	// Creates one delta with the effect of a followed by b. The result is the
+	// text after applying both.
+	public static TextDelta	compose(TextDelta a, TextDelta b, String result)
+	{
+		int	start = Math.min(a.offset, b.offset);
+		int	end = Math.max(a.offset + a.inserted.length(),
+						   b.offset + b.removed);		// In the middle text
+		int	end0 = end - (a.inserted.length() - a.removed);
+		int	end2 = end + (b.inserted.length() - b.removed);
+
+		return new TextDelta(start, end0 - start,
+							 result.substring(start, end2), a.oldLength,
+							 ((a.source == b.source) ? a.source : null));
+	}
+
+	// Like compose(), but given the text between the two deltas, the one a
+	// makes and b applies to, instead of the text after both. Undo history
+	// has that text at hand when it adds an inverse in front of another.
+	public static TextDelta	composeOver(TextDelta a, TextDelta b, String middle)
+	{
+		int	start = Math.min(a.offset, b.offset);
+		int	end = Math.max(a.offset + a.inserted.length(),
+						   b.offset + b.removed);		// In the middle text
+		int	end0 = end - (a.inserted.length() - a.removed);
+
+		StringBuilder	sb = new StringBuilder();
+
+		sb.append(middle, start, b.offset);
+		sb.append(b.inserted);
+		sb.append(middle, b.offset + b.removed, end);
+
+		return new TextDelta(start, end0 - start, sb.toString(), a.oldLength,
+							 ((a.source == b.source) ? a.source : null));
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	public int	getOffset()
+	{
+		return offset;
+	}
+
+	public int	getRemoved()
+	{
+		return removed;
+	}
+
+	public String	getInserted()
+	{
+		return inserted;
+	}
+
+	public int	getOldLength()
+	{
+		return oldLength;
+	}
+
+	public int	getNewLength()
+	{
+		return oldLength - removed + inserted.length();
+	}
+
+	public Object	getSource()
+	{
+		return source;
+	}
+
+	// Creates the delta that undoes this one. The text is the one this delta
+	// applies to, which has the characters that it removes.
+	public TextDelta	invert(String text, Object source)
+	{
+		return new TextDelta(offset, inserted.length(),
+							 text.substring(offset, offset + removed),
+							 getNewLength(), source);
+	}
+
+	// Moves this delta over another one made to the same text, so that it
+	// applies to the text the other one makes. If the two don't touch, the
+	// offset just shifts. If they overlap, both removals happen and both
+	// insertions are kept, this one's first only if it's to go first. Where
+	// both insert at the same place, that decides the order too.
+	public TextDelta	rebase(TextDelta other, boolean first)
+	{
+		int		shift = other.getNewLength() - other.oldLength;
+		int		end = offset + removed;
+		int		otherEnd = other.offset + other.removed;
+		boolean	before = (end <= other.offset);
+		boolean	after = (otherEnd <= offset);
+
+		if (before && after)		// Both insert at the same offset
+		{
+			before = first;
+			after = !first;
+		}
+
+		if (before)
+			return new TextDelta(offset, removed, inserted,
+								 oldLength + shift, source);
+
+		if (after)
+			return new TextDelta(offset + shift, removed, inserted,
+								 oldLength + shift, source);
+
+		int		start = Math.min(offset, other.offset);
+		int		stop = Math.max(end, otherEnd) + shift;	// In the other's text
+
+		return new TextDelta(start, stop - start, (first ?
+							 inserted + other.inserted :
+							 other.inserted + inserted),
+							 oldLength + shift, source);
+	}
+
+	// Makes a copy of this delta that says it came from the source.
+	public TextDelta	withSource(Object source)
+	{
+		return new TextDelta(offset, removed, inserted, oldLength, source);
+	}
+
+	public String	apply(String text)
+	{
+		StringBuilder	sb = new StringBuilder(getNewLength());
+
+		sb.append(text, 0, offset);
+		sb.append(inserted);
+		sb.append(text, offset + removed, text.length());
+
+		return sb.toString();
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return "@" + offset + " -" + removed + " +" + inserted.length() +
+			" (" + oldLength + " -> " + getNewLength() + ")";
+	}
+}
+
+//******************************************************************************
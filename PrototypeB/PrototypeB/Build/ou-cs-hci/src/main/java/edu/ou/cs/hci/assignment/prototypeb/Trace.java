@@ -0,0 +1,361 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+// Notes:
+//
+// Tracing is off unless the system property "prototypeb.trace" names a level
+// (INFO, DEBUG, or TRACE). For example, run with -Dprototypeb.trace=DEBUG to
+// see every controller set. To see only every Nth event for busy keys, list
+// them in "prototypeb.trace.sample", such as
+// -Dprototypeb.trace.sample=movie.summary.caret:10,movie.comments.caret:10
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb;
+
+//import java.lang.*;
+import java.io.PrintStream;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Trace</CODE> class records trace events for debugging without
+ * slowing down the thread that makes them. Each event is a record of a time,
+ * level, source, event name, key, and value, written into a fixed-size ring
+ * buffer. A background thread takes records out of the ring and prints them.
+ * Nothing is formatted on the calling thread, and primitive values aren't
+ * boxed. If the ring is full, new events are dropped and counted rather than
+ * waiting. When an event's level isn't enabled, logging it costs one
+ * comparison. Events for a key can be sampled, so that only every Nth one is
+ * recorded.
+ *
+ * @version %I%, %G%
+ */
+public final class Trace
+{
+	//**********************************************************************
+	// Public Class Members
+	//**********************************************************************
+
+	// Levels, from least to most detailed
+	public static final int	OFF = 0;
+	public static final int	INFO = 1;		// Occasional, such as loads
+	public static final int	DEBUG = 2;		// Each change
+	public static final int	TRACE = 3;		// Everything
+
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final String[]	LEVELS = { "OFF", "INFO", "DEBUG", "TRACE" };
+
+	// Value types
+	private static final byte		T_OBJECT = 0;
+	private static final byte		T_LONG = 1;
+	private static final byte		T_DOUBLE = 2;
+	private static final byte		T_BOOLEAN = 3;
+
+	// Ring buffer of records, one array per field
+	private static final int		CAPACITY = 1 << 14;
+	private static final int		MASK = CAPACITY - 1;
+
+	private static final long[]		times = new long[CAPACITY];
+	private static final int[]			levels = new int[CAPACITY];
+	private static final String[]		sources = new String[CAPACITY];
+	private static final String[]		events = new String[CAPACITY];
+	private static final Object[]		keys = new Object[CAPACITY];
+	private static final byte[]		types = new byte[CAPACITY];
+	private static final Object[]		objects = new Object[CAPACITY];
+	private static final long[]		numbers = new long[CAPACITY];
+
+	// Sequence numbers. A record is written at the next claimed sequence, then
+	// published by storing its sequence + 1 in its slot. Records are read in
+	// sequence order, up to the first one that hasn't been published yet.
+	private static final AtomicLong		claimed = new AtomicLong();
+	private static final AtomicLongArray	published =
+		new AtomicLongArray(CAPACITY);
+	private static volatile long			consumed;
+
+	private static final AtomicLong		dropped = new AtomicLong();
+	private static final long				start = System.nanoTime();
+
+	// Sampling by key name
+	private static final ConcurrentHashMap<String, Sampler>	samplers =
+		new ConcurrentHashMap<String, Sampler>();
+
+	private static volatile int			level;
+	private static PrintStream				out = System.out;
+	private static Thread					writer;
+
+	static
+	{
+		setLevel(parseLevel(System.getProperty("prototypeb.trace", "OFF")));
+
+		String	sample = System.getProperty("prototypeb.trace.sample");
+
+		if (sample != null)
+		{
+			for (String item : sample.split(","))
+			{
+				int	i = item.lastIndexOf(':');
+
+				if (i > 0)
+					setSampling(item.substring(0, i).trim(),
+								Integer.parseInt(item.substring(i + 1).trim()));
+			}
+		}
+	}
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	private Trace()
+	{
+	}
+
+	//**********************************************************************
+	// Public Class Methods (Settings)
+	//**********************************************************************
+
+	public static int	getLevel()
+	{
+		return level;
+	}
+
+	// Changes the level. Starts the writer thread the first time tracing is
+	// turned on.
+	public static synchronized void	setLevel(int newLevel)
+	{
+		level = Math.max(OFF, Math.min(TRACE, newLevel));
+
+		if ((level > OFF) && (writer == null))
+		{
+			writer = new Thread(Trace::drain, "trace-writer");
+			writer.setDaemon(true);
+			writer.start();
+
+			// Print whatever is still in the ring when the program exits
+			Runtime.getRuntime().addShutdownHook(new Thread(Trace::flush));
+		}
+	}
+
+	public static int	parseLevel(String name)
+	{
+		for (int i=0; i<LEVELS.length; i++)
+			if (LEVELS[i].equalsIgnoreCase(name.trim()))
+				return i;
+
+		return OFF;
+	}
+
+	// Records only every Nth event for the key with the name. N <= 1 records
+	// all of them.
+	public static void	setSampling(String key, int every)
+	{
+		if (every <= 1)
+			samplers.remove(key);
+		else
+			samplers.put(key, new Sampler(every));
+	}
+
+	// Sends output somewhere other than the console.
+	public static synchronized void	setOutput(PrintStream stream)
+	{
+		out = stream;
+	}
+
+	// Events dropped because the ring was full.
+	public static long	getDropped()
+	{
+		return dropped.get();
+	}
+
+	//**********************************************************************
+	// Public Class Methods (Events)
+	//**********************************************************************
+
+	// Callers that need to do work to produce an event's arguments should
+	// check this first.
+	public static boolean	isEnabled(int eventLevel)
+	{
+		return (eventLevel <= level);
+	}
+
+	public static void	log(int eventLevel, String source, String event,
+							Object key, Object value)
+	{
+		if (eventLevel <= level)
+			record(eventLevel, source, event, key, T_OBJECT, value, 0L);
+	}
+
+	public static void	log(int eventLevel, String source, String event,
+							Object key, long value)
+	{
+		if (eventLevel <= level)
+			record(eventLevel, source, event, key, T_LONG, null, value);
+	}
+
+	public static void	log(int eventLevel, String source, String event,
+							Object key, double value)
+	{
+		if (eventLevel <= level)
+			record(eventLevel, source, event, key, T_DOUBLE, null,
+				   Double.doubleToRawLongBits(value));
+	}
+
+	public static void	log(int eventLevel, String source, String event,
+							Object key, boolean value)
+	{
+		if (eventLevel <= level)
+			record(eventLevel, source, event, key, T_BOOLEAN, null,
+				   (value ? 1L : 0L));
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	private static void	record(int eventLevel, String source, String event,
+							   Object key, byte type, Object object,
+							   long number)
+	{
+		if ((key != null) && !samplers.isEmpty())
+		{
+			Sampler	sampler = samplers.get(key.toString());
+
+			if ((sampler != null) && !sampler.next())
+				return;
+		}
+
+		long	seq;
+
+		do
+		{
+			seq = claimed.get();
+
+			if (seq - consumed >= CAPACITY)		// Full, so don't wait
+			{
+				dropped.incrementAndGet();
+				return;
+			}
+		}
+		while (!claimed.compareAndSet(seq, seq + 1));
+
+		int	i = (int)(seq & MASK);
+
+		times[i] = System.nanoTime();
+		levels[i] = eventLevel;
+		sources[i] = source;
+		events[i] = event;
+		keys[i] = key;
+		types[i] = type;
+		objects[i] = object;
+		numbers[i] = number;
+
+		published.lazySet(i, seq + 1);
+	}
+
+	// Runs on the writer thread, printing records as they are published.
+	private static void	drain()
+	{
+		while (true)
+		{
+			if (!flush())
+				LockSupport.parkNanos(1000000L);
+		}
+	}
+
+	// Prints all published records. Returns false if there weren't any.
+	private static synchronized boolean	flush()
+	{
+		StringBuilder	sb = new StringBuilder(128);
+		boolean		any = false;
+
+		while (true)
+		{
+			long	seq = consumed;
+			int		i = (int)(seq & MASK);
+
+			if (published.get(i) != seq + 1)
+				break;
+
+			sb.setLength(0);
+			format(sb, i);
+			out.println(sb);
+
+			keys[i] = null;			// Don't hold on to values
+			objects[i] = null;
+			consumed = seq + 1;
+			any = true;
+		}
+
+		long	n = dropped.getAndSet(0L);
+
+		if (n > 0L)
+			out.println("trace: dropped " + n + " events");
+
+		if (any)
+			out.flush();
+
+		return any;
+	}
+
+	private static void	format(StringBuilder sb, int i)
+	{
+		long	us = (times[i] - start) / 1000L;
+
+		sb.append(us / 1000000L).append('.');
+		sb.append(String.format("%06d", us % 1000000L));
+		sb.append(' ').append(LEVELS[levels[i]]);
+		sb.append(' ').append(sources[i]);
+		sb.append(' ').append(events[i]);
+
+		if (keys[i] != null)
+			sb.append(' ').append(keys[i]);
+
+		switch (types[i])
+		{
+			case T_LONG:
+				sb.append(" = ").append(numbers[i]);
+				break;
+
+			case T_DOUBLE:
+				sb.append(" = ").append(Double.longBitsToDouble(numbers[i]));
+				break;
+
+			case T_BOOLEAN:
+				sb.append(" = ").append(numbers[i] != 0L);
+				break;
+
+			default:
+				if (objects[i] != null)
+					sb.append(" = ").append(objects[i]);
+		}
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	private static final class Sampler
+	{
+		private final int				every;
+		private final AtomicInteger	count = new AtomicInteger();
+
+		public Sampler(int every)
+		{
+			this.every = every;
+		}
+
+		public boolean	next()
+		{
+			return ((count.getAndIncrement() % every) == 0);
+		}
+	}
+}
+
+//******************************************************************************
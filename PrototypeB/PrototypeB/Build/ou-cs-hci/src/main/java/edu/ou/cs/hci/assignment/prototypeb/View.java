@@ -17,10 +17,13 @@ package edu.ou.cs.hci.assignment.prototypeb;
 
 //import java.lang.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.net.URL;
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
 import javafx.scene.control.TabPane;
+import javafx.scene.input.*;
 import javafx.stage.*;
 import edu.ou.cs.hci.assignment.prototypeb.pane.*;
 
@@ -41,6 +44,18 @@ public final class View
 	private static final double	SCENE_W = 960;		// Scene width
 	private static final double	SCENE_H = 512;		// Scene height
 
+	//**********************************************************************
+	// Private Class Members (Keys)
+	//**********************************************************************
+
+	private static final KeyCombination	UNDO =
+		new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN);
+	private static final KeyCombination	REDO =
+		new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN,
+							   KeyCombination.SHIFT_DOWN);
+	private static final KeyCombination	REDO_ALT =
+		new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN);
+
 	//**********************************************************************
 	// Private Members
 	//**********************************************************************
@@ -50,6 +65,7 @@ public final class View
 
 	// Handlers
 	private final WindowHandler			windowHandler;
+	private final KeyHandler				keyHandler;
 
 	// Layout
 	private final ArrayList<AbstractPane>	panes;
@@ -66,6 +82,9 @@ public final class View
 		// Handle WINDOW_CLOSE_REQUESTs
 		windowHandler = new WindowHandler();
 
+		// Handle undo and redo keys before any control sees them
+		keyHandler = new KeyHandler();
+
 		// Create a set of panes to include
 		panes = new ArrayList<AbstractPane>();
 
@@ -85,6 +104,9 @@ public final class View
 
 		scene.getStylesheets().add(surl);
 
+		// Text controls would undo their own edits only, so take their keys
+		scene.addEventFilter(KeyEvent.KEY_PRESSED, keyHandler);
+
 		// Create a window/stage with a name and an initial position on screen
 		Stage		stage = new Stage();
 
@@ -100,6 +122,12 @@ public final class View
 	// Public Methods (Controller)
 	//**********************************************************************
 
+	// The controller calls this method to find the panes to route updates to.
+	public List<AbstractPane>	getPanes()
+	{
+		return Collections.unmodifiableList(panes);
+	}
+
 	// The controller calls this method when it adds a view.
 	// Set up the nodes in the view with data accessed through the controller.
 	public void	initialize()
@@ -116,14 +144,6 @@ public final class View
 			pane.terminate();
 	}
 
-	// The controller calls this method whenever something changes in the model.
-	// Update the nodes in the view to reflect the change.
-	public void	update(String key, Object value)
-	{
-		for (AbstractPane pane : panes)
-			pane.update(key, value);
-	}
-
 	//**********************************************************************
 	// Inner Classes (Event Handlers)
 	//**********************************************************************
@@ -137,6 +157,22 @@ public final class View
 				controller.removeView(View.this);
 		}
 	}
+
+	private final class KeyHandler
+		implements EventHandler<KeyEvent>
+	{
+		public void	handle(KeyEvent e)
+		{
+			if (UNDO.match(e))
+				controller.undo();
+			else if (REDO.match(e) || REDO_ALT.match(e))
+				controller.redo();
+			else
+				return;
+
+			e.consume();
+		}
+	}
 }
 
 //******************************************************************************
@@ -24,6 +24,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.layout.*;
 import edu.ou.cs.hci.assignment.prototypeb.Controller;
 import edu.ou.cs.hci.resources.Resources;
+import edu.ou.cs.hci.resources.Thumbnails;
 
 //******************************************************************************
 
@@ -122,12 +123,29 @@ public abstract class AbstractPane
 	{
 	}
 
+	// The controller calls this method to find out which keys the pane wants
+	// to be updated about. Each is a key, a prefix ending in ".*", or "*" for
+	// every key. Override to receive fewer updates than the default of all.
+	public String[]	getKeys()
+	{
+		return new String[] { "*" };
+	}
+
 	// The controller calls this method whenever something changes in the model.
 	// Update the nodes in the view to reflect the change.
 	public void	update(String key, Object value)
 	{
 	}
 
+	// The view calls this method with a set of changes made together. By
+	// default each change is handled separately. Override to handle them as
+	// a group, such as to redo a layout only once.
+	public void	update(Map<String, Object> changes)
+	{
+		for (Map.Entry<String, Object> entry : changes.entrySet())
+			update(entry.getKey(), entry.getValue());
+	}
+
 	//**********************************************************************
 	// Public Class Methods (Resources)
 	//**********************************************************************
@@ -145,9 +163,16 @@ public abstract class AbstractPane
 	// relative to the FX_ICON package. See static member definitions above.
 	public static ImageView	createFXIcon(String url, double w, double h)
 	{
-		Image	image = new Image(FX_ICON + url, w, h, false, true);
+		return new ImageView(createFXImage(url, w, h));
+	}
 
-		return new ImageView(image);
+	// Convenience method to load an image located in resources relative to
+	// the FX_ICON package, scaled to w x h. Decodes the smallest pre-scaled
+	// thumbnail that is large enough, rather than the full-size image.
+	public static Image	createFXImage(String url, double w, double h)
+	{
+		return new Image(Thumbnails.getURL(FX_ICON + url, w, h),
+						 w, h, false, true);
 	}
 
 	// Convenience method to slurp a CSV formatted file located in resources
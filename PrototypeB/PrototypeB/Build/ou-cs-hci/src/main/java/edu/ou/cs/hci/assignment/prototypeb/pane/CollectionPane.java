@@ -31,7 +31,7 @@ import javafx.scene.text.*;
 import javafx.util.Callback;
 import javafx.util.converter.*;
 import edu.ou.cs.hci.assignment.prototypeb.*;
-import edu.ou.cs.hci.resources.Resources;
+import edu.ou.cs.hci.assignment.prototypeb.MovieStore.Row;
 import javafx.beans.property.*;
 //******************************************************************************
 
@@ -60,6 +60,16 @@ public final class CollectionPane extends AbstractPane
 	private static final Insets	PADDING =
 		new Insets(40.0, 20.0, 40.0, 20.0);
 
+	// Names of the yes/no attributes in the facet sidebar, by MovieStore flag
+	private static final String[]	FLAGS = new String[]
+	{
+		"Best Picture", "Best Directing", "Best Cinematography", "Best Acting",
+		"Animated", "Color",
+	};
+
+	// Shown in table cells while their posters load
+	private static Image			placeholder;
+
 	//**********************************************************************
 	// Private Members
 	//**********************************************************************
@@ -67,14 +77,28 @@ public final class CollectionPane extends AbstractPane
 	// Data
 	private final List<String>			gdata;		// Genre strings
 	private final List<String>			rdata;		// Rating strings
-	private final List<List<String>>	mdata;		// Movie attributes
 
-	// Collection
-	private final List<Movie>			movies;	// Movie objects
+	// Collection (shared with all other panes through the catalog)
+	private final List<Row>			movies;	// Movie row views
 
 	// Layout
-	private TableView<Movie>			table;
-	private SelectionModel<Movie>		smodel;
+	private CoverFlow					flow;
+	private TableView<Row>			table;
+	private SelectionModel<Row>		smodel;
+	private ObservableList<Row>		shown;		// Found movies, sorted
+	private MovieIndex.Hits			hits;		// Found by the last search
+
+	// Search widgets
+	private TextField					qText;
+	private Spinner<Integer>			qYearMin;
+	private Spinner<Integer>			qYearMax;
+	private Label						qCount;
+
+	// Facet widgets, each labeled with how many movies it would show
+	private CheckBox					fGenresAll;
+	private List<CheckBox>				fGenres;
+	private List<CheckBox>				fFlags;	// By MovieStore flag
+	private List<CheckBox>				fRatings;
 
 	// Add members for your summary widgets here...
 	private Label 						sTitleRow1;
@@ -92,16 +116,12 @@ public final class CollectionPane extends AbstractPane
 	{
 		super(controller, NAME, HINT);
 
-		// Load data sets from hardcoded file locations
-		gdata = Resources.getLines("data/genres.txt");
-		rdata = Resources.getLines("data/ratings.txt");
-		mdata = Resources.getCSVData("data/movies.csv");
+		// Use the data sets and movie objects that the model already loaded
+		Catalog	catalog = controller.getCatalog();
 
-		// Convert the raw movie data into movie objects
-		movies = new ArrayList<Movie>();
-
-		for (List<String> item : mdata)
-			movies.add(new Movie(item));
+		gdata = catalog.getGenres();
+		rdata = catalog.getRatings();
+		movies = catalog.getMovies();
 
 		// Construct the pane
 		setBase(buildPane());
@@ -115,30 +135,34 @@ public final class CollectionPane extends AbstractPane
 	// Set up the nodes in the view with data accessed through the controller.
 	public void	initialize()
 	{
-		smodel.selectedIndexProperty().addListener(this::changeIndex);
-
-		int	index = (Integer)controller.get("selectedMovieIndex");
-
-		smodel.select(index);
+		smodel.selectedItemProperty().addListener(this::changeMovie);
+		smodel.selectedIndexProperty().addListener(this::changeTableIndex);
+		flow.selectedIndexProperty().addListener(this::changeFlowIndex);
+
+		// Show the search from the model, and the movies it finds
+		qText.setText(controller.get(Keys.SEARCH_TEXT));
+		updateFacets(fGenres, controller.getInt(Keys.SEARCH_GENRES));
+		updateFacets(fFlags, controller.getInt(Keys.SEARCH_FLAGS));
+		updateFacets(fRatings, controller.getInt(Keys.SEARCH_RATINGS));
+		fGenresAll.setSelected(controller.getBoolean(Keys.SEARCH_GENRES_ALL));
+		qYearMin.getValueFactory().setValue(
+			controller.getInt(Keys.SEARCH_YEAR_MIN));
+		qYearMax.getValueFactory().setValue(
+			controller.getInt(Keys.SEARCH_YEAR_MAX));
+		updateFilter();
+
+		int	index = controller.getInt(Keys.SELECTED_MOVIE_INDEX);
+
+		if ((index >= 0) && (index < movies.size()))
+			smodel.select(movies.get(index));
 		
 		if (index > 0 && index < movies.size()) {
 		// Initialize your summary widgets here, using model properties...
 		sTitleRow1.setText(movies.get(index).getTitle());
-		sPoster.setImage(new Image(movies.get(index).getImage(), W*10, H*10, false, true));
+		sPoster.setImage(createFXImage(movies.get(index).getImage(), W*5, H*5));
 		sYear.setText(""+movies.get(index).getYear());
-		sDirector.setText(movies.get(index).getDirctor());
-		
-		int g = movies.get(index).getGenre();
-		int n = 0;
-		String data = "";
-		for (String genre : gdata) {
-			if ((g & (1 << n)) != 0)
-				data += genre + ", ";
-			++n;
-		}
-		data = data.substring(0, data.length() - 2);
-		
-		sGenre.setText(data);
+		sDirector.setText(movies.get(index).getDirector());
+		sGenre.setText(movies.get(index).getGenreLabel());
 		}
 	}
 
@@ -146,12 +170,35 @@ public final class CollectionPane extends AbstractPane
 	// Unregister event and property listeners for the nodes in the view.
 	public void	terminate()
 	{
-		smodel.selectedIndexProperty().removeListener(this::changeIndex);
+		smodel.selectedItemProperty().removeListener(this::changeMovie);
+		smodel.selectedIndexProperty().removeListener(this::changeTableIndex);
+		flow.selectedIndexProperty().removeListener(this::changeFlowIndex);
+
+		qText.textProperty().removeListener(this::changeText);
+		qYearMin.valueProperty().removeListener(this::changeInteger);
+		qYearMax.valueProperty().removeListener(this::changeInteger);
+
+		fGenresAll.setOnAction(null);
+
+		for (CheckBox box : fGenres)
+			box.setOnAction(null);
+
+		for (CheckBox box : fFlags)
+			box.setOnAction(null);
+
+		for (CheckBox box : fRatings)
+			box.setOnAction(null);
 
 		// Terminate your summary widgets here...
 		
 	}
 
+	// The controller calls this method to find out which keys to send here.
+	public String[]	getKeys()
+	{
+		return new String[] { "selectedMovieIndex", "search.*" };
+	}
+
 	// The controller calls this method whenever something changes in the model.
 	// Update the nodes in the view to reflect the change.
 	public void	update(String key, Object value)
@@ -159,9 +206,27 @@ public final class CollectionPane extends AbstractPane
 		if ("selectedMovieIndex".equals(key))
 		{
 			int	index = (Integer)value;
-			Movie	movie = movies.get(index);
 
-			smodel.select(index);
+			// No movie is selected at first, nor after undoing the first
+			// selection, so show the summary's placeholders
+			if ((index < 0) || (index >= movies.size()))
+			{
+				smodel.clearSelection();
+				sTitleRow1.setText("");
+				sTitleRow2.setText("Title");
+				sPoster.setImage(null);
+				sYear.setText("Year");
+				sDirector.setText("Director");
+				sGenre.setText("Genre");
+
+				return;
+			}
+
+			Row	movie = movies.get(index);
+
+			// Select by movie, since rows move around as the table is
+			// filtered and sorted
+			smodel.select(movie);
 
 			// Update your summary widgets here, using movie attributes...
 			// 
@@ -190,24 +255,74 @@ public final class CollectionPane extends AbstractPane
 			}
 			
 			
-			String icon = "edu/ou/cs/hci/resources/example/fx/icon/";
-			sPoster.setImage(new Image(icon + movie.getImage(), W*5, H*5, false, true));
+			sPoster.setImage(createFXImage(movie.getImage(), W*5, H*5));
 			sYear.setText(""+movie.getYear());
-			sDirector.setText(movie.getDirctor());
-			
-			int g = movie.getGenre();
-			int n = 0;
-			String data = "";
-			for (String genre : gdata) {
-				if ((g & (1 << n)) != 0)
-					data += genre + ", ";
-				++n;
-			}
-			data = data.substring(0, data.length() - 2);
-			
-			sGenre.setText(data);
+			sDirector.setText(movie.getDirector());
+			sGenre.setText(movie.getGenreLabel());
 			
 		}
+
+		// ----- Updates for changes to the search properties. -----
+
+		// Setting the same text would move the caret while the user types
+		if ("search.text".equals(key))
+		{
+			if (!qText.getText().equals(value))
+				qText.setText((String)value);
+		}
+		else if ("search.genres".equals(key))
+			updateFacets(fGenres, (Integer)value);
+		else if ("search.genresAll".equals(key))
+			fGenresAll.setSelected((Boolean)value);
+		else if ("search.flags".equals(key))
+			updateFacets(fFlags, (Integer)value);
+		else if ("search.ratings".equals(key))
+			updateFacets(fRatings, (Integer)value);
+		else if ("search.yearMin".equals(key))
+			qYearMin.getValueFactory().setValue((Integer)value);
+		else if ("search.yearMax".equals(key))
+			qYearMax.getValueFactory().setValue((Integer)value);
+	}
+
+	// Search properties often change together, so filter the table once
+	// after all of them are updated.
+	public void	update(Map<String, Object> changes)
+	{
+		boolean	search = false;
+
+		for (Map.Entry<String, Object> entry : changes.entrySet())
+		{
+			update(entry.getKey(), entry.getValue());
+			search |= entry.getKey().startsWith("search.");
+		}
+
+		if (search)
+			updateFilter();
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	// Created on first use, since images need the toolkit to be running.
+	private static Image	getPlaceholder()
+	{
+		if (placeholder == null)
+			placeholder = PosterCache.createPlaceholder((int)W, (int)H);
+
+		return placeholder;
+	}
+
+	// The bits of the selected boxes, by position.
+	private static int	getBits(List<CheckBox> boxes)
+	{
+		int	bits = 0;
+
+		for (int i=0; i<boxes.size(); i++)
+			if (boxes.get(i).isSelected())
+				bits |= (1 << i);
+
+		return bits;
 	}
 
 	//**********************************************************************
@@ -216,9 +331,10 @@ public final class CollectionPane extends AbstractPane
 
 	private Pane	buildPane()
 	{
-		Node	bregion = buildTableView();
+		Node	bregion = new BorderPane(buildTableView(), buildSearchBar(),
+											 null, null, null);
 		Node	tregion = buildCoverFlow();
-		Node	lregion = buildLaterView();
+		Node	lregion = buildFacetView();
 		Node	rregion = buildMovieView();
 
 		// Create a split pane to share space between the cover pane and table
@@ -236,10 +352,10 @@ public final class CollectionPane extends AbstractPane
 		return new BorderPane(splitPane, null, rregion, null, lregion);
 	}
 
-	private TableView<Movie>	buildTableView()
+	private TableView<Row>	buildTableView()
 	{
 		// Create the table and grab its selection model
-		table = new TableView<Movie>();
+		table = new TableView<Row>();
 		smodel = table.getSelectionModel();
 
 		// Set up some helpful stuff including single selection mode
@@ -256,28 +372,97 @@ public final class CollectionPane extends AbstractPane
 		table.getColumns().add(buildYearColumn());
 		table.getColumns().add(buildDirectorColumn());
 
-		// Put the movies into an ObservableList to use as the table model
-		table.setItems(FXCollections.observableArrayList(movies));
+		// Put the movies into an ObservableList to use as the table model.
+		// The table shows the movies that pass the search, sorted by the
+		// columns that the user has clicked. Both are worked out on row
+		// numbers, then the rows to show are put in the list all at once.
+		shown = FXCollections.observableArrayList(movies);
+		table.setItems(shown);
+		table.setSortPolicy(this::sortTable);
 
 		return table;
 	}
 
+	// Builds a bar of widgets for searching the text of the movies and for
+	// filtering them by genre, rating, and year.
+	private Node	buildSearchBar()
+	{
+		qText = new TextField();
+		qText.setPromptText("Search titles, directors, summaries, comments");
+		qText.setPrefColumnCount(24);
+		qText.textProperty().addListener(this::changeText);
+
+		qYearMin = new Spinner<Integer>(1900, 2040, 1900, 1);
+		qYearMin.setEditable(true);
+		qYearMin.getEditor().setPrefColumnCount(4);
+		qYearMin.valueProperty().addListener(this::changeInteger);
+
+		qYearMax = new Spinner<Integer>(1900, 2040, 2040, 1);
+		qYearMax.setEditable(true);
+		qYearMax.getEditor().setPrefColumnCount(4);
+		qYearMax.valueProperty().addListener(this::changeInteger);
+
+		qCount = new Label();
+
+		HBox	pane = new HBox(8.0, qText, new Label("Years"), qYearMin,
+								new Label("to"), qYearMax, qCount);
+
+		HBox.setHgrow(qText, Priority.ALWAYS);
+		pane.setAlignment(Pos.CENTER_LEFT);
+		pane.setPadding(new Insets(4.0));
+
+		return pane;
+	}
+
+	// Shows the posters of the movies in the table, in the same order.
 	private Node	buildCoverFlow()
 	{
-		Label	label = new Label("this space reserved for cover flow (later)");
+		flow = new CoverFlow(shown);
 
-		label.setPadding(PADDING);
+		return flow;
+	}
 
-		return label;
+	// The facet sidebar. Selected genres narrow the movies shown to those
+	// with any (or all) of them, selected awards and such to those with all
+	// of them, and selected ratings to those with any of them.
+	private Node	buildFacetView()
+	{
+		fGenresAll = new CheckBox("Match all");
+		fGenresAll.setOnAction(this::handleFacet);
+
+		fGenres = buildFacetBoxes(gdata);
+		fFlags = buildFacetBoxes(Arrays.asList(FLAGS));
+		fRatings = buildFacetBoxes(rdata);
+
+		VBox	pane = new VBox(4.0);
+
+		pane.getChildren().addAll(new Label("Genres"), fGenresAll);
+		pane.getChildren().addAll(fGenres);
+		pane.getChildren().add(new Label("Awards"));
+		pane.getChildren().addAll(fFlags.subList(0, MovieStore.IS_ANIMATED));
+		pane.getChildren().add(new Label("Style"));
+		pane.getChildren().addAll(fFlags.subList(MovieStore.IS_ANIMATED,
+												 MovieStore.FLAG_COUNT));
+		pane.getChildren().add(new Label("Ratings"));
+		pane.getChildren().addAll(fRatings);
+		pane.setPadding(new Insets(8.0));
+
+		return new ScrollPane(pane);
 	}
 
-	private Node	buildLaterView()
+	private List<CheckBox>	buildFacetBoxes(List<String> names)
 	{
-		Label	label = new Label("saving for later");
+		ArrayList<CheckBox>	boxes = new ArrayList<CheckBox>();
 
-		label.setPadding(PADDING);
+		for (String name : names)
+		{
+			CheckBox	box = new CheckBox(name);
+
+			box.setOnAction(this::handleFacet);
+			boxes.add(box);
+		}
 
-		return label;
+		return boxes;
 	}
 
 	// TODO #9: Build the layout for your movie summary here, showing the title,
@@ -334,16 +519,17 @@ public final class CollectionPane extends AbstractPane
 	//**********************************************************************
 
 	// This TableColumn displays titles, and allows editing.
-	private TableColumn<Movie, String>	buildTitleColumn()
+	private TableColumn<Row, String>	buildTitleColumn()
 	{
-		TableColumn<Movie, String>	column =
-			new TableColumn<Movie, String>("Title");
+		TableColumn<Row, String>	column =
+			new TableColumn<Row, String>("Title");
 
 		column.setEditable(true);
 		column.setPrefWidth(250);
 		column.setCellValueFactory(
-			new PropertyValueFactory<Movie, String>("title"));
+			MovieColumns.TITLE);
 		column.setCellFactory(new TitleCellFactory());
+		column.setUserData(MovieSorter.TITLE);
 
 		// Edits in this column update movie titles
 		column.setOnEditCommit(new TitleEditHandler());
@@ -352,16 +538,17 @@ public final class CollectionPane extends AbstractPane
 	}
 
 	// This TableColumn displays images, and does not allow editing.
-	private TableColumn<Movie, String>	buildImageColumn()
+	private TableColumn<Row, String>	buildImageColumn()
 	{
-		TableColumn<Movie, String>	column =
-			new TableColumn<Movie, String>("Image");
+		TableColumn<Row, String>	column =
+			new TableColumn<Row, String>("Image");
 
 		column.setEditable(false);
 		column.setPrefWidth(W + 8.0);
 		column.setCellValueFactory(
-			new PropertyValueFactory<Movie, String>("image"));
+			MovieColumns.IMAGE);
 		column.setCellFactory(new ImageCellFactory());
+		column.setSortable(false);
 
 		return column;
 	}
@@ -370,31 +557,19 @@ public final class CollectionPane extends AbstractPane
 	// You must adapt the code to the column's attribute type in each case.
 	
 	// This table column shows genres, and allows editing
-	private TableColumn<Movie, String>	buildGenreColumn()
+	private TableColumn<Row, String>	buildGenreColumn()
 	{
-		TableColumn<Movie, String>	column =
-			new TableColumn<Movie, String>("Genre");
+		TableColumn<Row, String>	column =
+			new TableColumn<Row, String>("Genre");
 
 		column.setEditable(true);
 		column.setPrefWidth(200);
-		column.setCellValueFactory(
-			new Callback<TableColumn.CellDataFeatures<Movie, String>, ObservableValue<String>>() 
-		{
-			public ObservableValue<String> call(TableColumn.CellDataFeatures<Movie, String> p) {
-				int g = p.getValue().getGenre();
-				int n = 0;
-				String data = "";
-				for (String genre : gdata) {
-					if ((g & (1 << n)) != 0)
-						data += genre + ", ";
-					++n;
-				}
-				data = data.substring(0, data.length() - 2);
-				return new SimpleStringProperty(data);
-			}
-		});
+
+		// Each row keeps its label, which changes only with its genres
+		column.setCellValueFactory(MovieColumns.GENRE_LABEL);
 		
 		column.setCellFactory(new GenreCellFactory());
+		column.setUserData(MovieSorter.GENRE);
 
 		// Edits in this column update movie titles
 		column.setOnEditCommit(new GenreEditHandler());
@@ -403,48 +578,205 @@ public final class CollectionPane extends AbstractPane
 	}
 	
 
-	private TableColumn<Movie, Integer>	buildYearColumn()
+	private TableColumn<Row, Number>	buildYearColumn()
 	{
-		TableColumn<Movie, Integer>	column =
-			new TableColumn<Movie, Integer>("Year");
+		TableColumn<Row, Number>	column =
+			new TableColumn<Row, Number>("Year");
 
 		column.setEditable(true);
 		column.setPrefWidth(W+8.0);
 		column.setCellValueFactory(
-			new PropertyValueFactory<Movie, Integer>("year"));
+			MovieColumns.YEAR);
 		column.setCellFactory(new YearCellFactory());
+		column.setUserData(MovieSorter.YEAR);
 
 		column.setOnEditCommit(new YearEditHandler());
 
 		return column;
 	}
 
-	private TableColumn<Movie, String>	buildDirectorColumn()
+	private TableColumn<Row, String>	buildDirectorColumn()
 	{
-		TableColumn<Movie, String>	column =
-			new TableColumn<Movie, String>("Director");
+		TableColumn<Row, String>	column =
+			new TableColumn<Row, String>("Director");
 
 		column.setEditable(true);
 		column.setPrefWidth(100);
 		column.setCellValueFactory(
-			new PropertyValueFactory<Movie, String>("director"));
+			MovieColumns.DIRECTOR);
 		column.setCellFactory(new DirectorCellFactory());
+		column.setUserData(MovieSorter.DIRECTOR);
 
 		column.setOnEditCommit(new DirectorEditHandler());
 
 		return column;
 	}
 
+	//**********************************************************************
+	// Private Methods (Search)
+	//**********************************************************************
+
+	// Shows only the movies that match the search properties in the model.
+	private void	updateFilter()
+	{
+		MovieFacets.Query	query = new MovieFacets.Query(
+			controller.getInt(Keys.SEARCH_GENRES),
+			controller.getBoolean(Keys.SEARCH_GENRES_ALL),
+			controller.getInt(Keys.SEARCH_FLAGS),
+			controller.getInt(Keys.SEARCH_RATINGS),
+			controller.getInt(Keys.SEARCH_YEAR_MIN),
+			controller.getInt(Keys.SEARCH_YEAR_MAX));
+
+		hits = controller.getCatalog().getIndex().search(
+			controller.get(Keys.SEARCH_TEXT), query);
+
+		showRows();
+		qCount.setText(hits.size() + " of " + movies.size());
+
+		// Label each facet with its count. Facets that would show nothing
+		// are disabled unless they're what is hiding everything.
+		MovieFacets.Result	counts = hits.getCounts();
+
+		for (int i=0; i<fGenres.size(); i++)
+			showCount(fGenres.get(i), gdata.get(i), counts.getGenreCount(i));
+
+		for (int i=0; i<fFlags.size(); i++)
+			showCount(fFlags.get(i), FLAGS[i], counts.getFlagCount(i));
+
+		for (int i=0; i<fRatings.size(); i++)
+			showCount(fRatings.get(i), rdata.get(i), counts.getRatingCount(i));
+
+		Trace.log(Trace.DEBUG, "collection", "filter", null, hits);
+	}
+
+	// Shows the movies found by the last search, sorted by the columns in
+	// the table's sort order.
+	private void	showRows()
+	{
+		if (hits == null)
+			return;
+
+		int[]		rows = hits.toRows();
+		int			n = table.getSortOrder().size();
+		int[]		columns = new int[n];
+		boolean[]	descending = new boolean[n];
+		int			c = 0;
+
+		for (TableColumn<Row, ?> column : table.getSortOrder())
+		{
+			if (column.getUserData() instanceof Integer)
+			{
+				columns[c] = (Integer)column.getUserData();
+				descending[c] = (column.getSortType() ==
+								 TableColumn.SortType.DESCENDING);
+				c++;
+			}
+		}
+
+		if (c > 0)
+			rows = controller.getCatalog().getSorter().sort(rows,
+				Arrays.copyOf(columns, c), Arrays.copyOf(descending, c));
+
+		Row[]	items = new Row[rows.length];
+
+		for (int j=0; j<rows.length; j++)
+			items[j] = movies.get(rows[j]);
+
+		shown.setAll(items);
+
+		// Replacing the rows clears the selection, so restore it if shown
+		int	index = controller.getInt(Keys.SELECTED_MOVIE_INDEX);
+
+		if ((index >= 0) && (index < movies.size()) && hits.contains(index))
+			smodel.select(movies.get(index));
+	}
+
+	// The table calls this when its sort order changes.
+	private Boolean	sortTable(TableView<Row> view)
+	{
+		showRows();
+
+		return Boolean.TRUE;
+	}
+
+	private void	updateFacets(List<CheckBox> boxes, int bits)
+	{
+		for (int i=0; i<boxes.size(); i++)
+			boxes.get(i).setSelected((bits & (1 << i)) != 0);
+	}
+
+	private void	showCount(CheckBox box, String name, int count)
+	{
+		box.setText(name + " (" + count + ")");
+		box.setDisable((count == 0) && !box.isSelected());
+	}
+
 	//**********************************************************************
 	// Private Methods (Change Handlers)
 	//**********************************************************************
 
-	private void	changeIndex(ObservableValue<? extends Number> observable,
-								Number oldValue, Number newValue)
+	// The table clears its selection when the selected movie is filtered
+	// out. Keep that movie selected in the model, so the editor still shows
+	// it.
+	private void	changeMovie(ObservableValue<? extends Row> observable,
+								Row oldValue, Row newValue)
+	{
+		if (newValue != null)
+			controller.set(Keys.SELECTED_MOVIE_INDEX, newValue.getIndex());
+	}
+
+	// The cover flow and table show the same list, so they select by index.
+	private void	changeTableIndex(ObservableValue<? extends Number> observable,
+									 Number oldValue, Number newValue)
 	{
-		int	index = (Integer)newValue;
+		int	index = newValue.intValue();
 
-		controller.set("selectedMovieIndex", index);
+		if (index >= 0)
+			flow.select(index);
+	}
+
+	private void	changeFlowIndex(ObservableValue<? extends Number> observable,
+									Number oldValue, Number newValue)
+	{
+		int	index = newValue.intValue();
+
+		if ((index >= 0) && (index != smodel.getSelectedIndex()))
+		{
+			smodel.select(index);
+			table.scrollTo(index);
+		}
+	}
+
+	// For TextField
+	private void	changeText(ObservableValue<? extends String> observable,
+							   String oldValue, String newValue)
+	{
+		controller.set(Keys.SEARCH_TEXT, newValue);
+	}
+
+	// For facet CheckBoxes. Handles only clicks, so that selecting the boxes
+	// in updateFacets() doesn't send partial sets of facets.
+	private void	handleFacet(ActionEvent e)
+	{
+		controller.batch(this::sendFacets);
+	}
+
+	private void	sendFacets()
+	{
+		controller.set(Keys.SEARCH_GENRES, getBits(fGenres));
+		controller.set(Keys.SEARCH_GENRES_ALL, fGenresAll.isSelected());
+		controller.set(Keys.SEARCH_FLAGS, getBits(fFlags));
+		controller.set(Keys.SEARCH_RATINGS, getBits(fRatings));
+	}
+
+	// For Spinner<Integer>
+	private void	changeInteger(ObservableValue<? extends Number> observable,
+								  Number oldValue, Number newValue)
+	{
+		if (observable == qYearMin.valueProperty())
+			controller.set(Keys.SEARCH_YEAR_MIN, newValue.intValue());
+		else if (observable == qYearMax.valueProperty())
+			controller.set(Keys.SEARCH_YEAR_MAX, newValue.intValue());
 	}
 
 	//**********************************************************************
@@ -453,10 +785,10 @@ public final class CollectionPane extends AbstractPane
 
 	// This CellFactory creates Cells for the title column in the table.
 	private final class TitleCellFactory
-		implements Callback<TableColumn<Movie, String>,
-							TableCell<Movie, String>>
+		implements Callback<TableColumn<Row, String>,
+							TableCell<Row, String>>
 	{
-		public TableCell<Movie, String>	call(TableColumn<Movie, String> v)
+		public TableCell<Row, String>	call(TableColumn<Row, String> v)
 		{
 			return new TitleCell();
 		}
@@ -464,10 +796,10 @@ public final class CollectionPane extends AbstractPane
 
 	// This CellFactory creates Cells for the image column in the table.
 	private final class ImageCellFactory
-		implements Callback<TableColumn<Movie, String>,
-							TableCell<Movie, String>>
+		implements Callback<TableColumn<Row, String>,
+							TableCell<Row, String>>
 	{
-		public TableCell<Movie, String>	call(TableColumn<Movie, String> v)
+		public TableCell<Row, String>	call(TableColumn<Row, String> v)
 		{
 			return new ImageCell();
 		}
@@ -477,29 +809,29 @@ public final class CollectionPane extends AbstractPane
 	// You must adapt the code to the column's attribute type in each case.
 
 	private final class GenreCellFactory
-		implements Callback<TableColumn<Movie, String>,
-							TableCell<Movie, String>>
+		implements Callback<TableColumn<Row, String>,
+							TableCell<Row, String>>
 	{
-		public TableCell<Movie, String>	call(TableColumn<Movie, String> v)
+		public TableCell<Row, String>	call(TableColumn<Row, String> v)
 		{
 			return new GenreCell();
 		}
 	}
 	private final class YearCellFactory
-		implements Callback<TableColumn<Movie, Integer>,
-							TableCell<Movie, Integer>>
+		implements Callback<TableColumn<Row, Number>,
+							TableCell<Row, Number>>
 	{
-		public TableCell<Movie, Integer>	call(TableColumn<Movie, Integer> v)
+		public TableCell<Row, Number>	call(TableColumn<Row, Number> v)
 		{
 			return new YearCell();
 		}
 	}
 
 	private final class DirectorCellFactory
-		implements Callback<TableColumn<Movie, String>,
-							TableCell<Movie, String>>
+		implements Callback<TableColumn<Row, String>,
+							TableCell<Row, String>>
 	{
-		public TableCell<Movie, String>	call(TableColumn<Movie, String> v)
+		public TableCell<Row, String>	call(TableColumn<Row, String> v)
 		{
 			return new DirectorCell();
 		}
@@ -524,7 +856,7 @@ public final class CollectionPane extends AbstractPane
 
 	// This TableCell displays the title, and allows editing in a TextField.
 	private final class TitleCell
-		extends TextFieldTableCell<Movie, String>
+		extends TextFieldTableCell<Row, String>
 	{
 		public TitleCell()
 		{
@@ -555,12 +887,23 @@ public final class CollectionPane extends AbstractPane
 
 	// This TableCell displays the image, and doesn't allow editing.
 	private final class ImageCell
-		extends TableCell<Movie, String>
+		extends TableCell<Row, String>
 	{
+		// Posters are decoded in the background and cached, so scrolling
+		// never waits on image I/O. Each cell keeps one view and shows a
+		// placeholder until its poster arrives.
+		private final ImageView			view = new ImageView(getPlaceholder());
+		private PosterCache.Ticket			ticket;
+
 		public void	updateItem(String value, boolean isEmpty)
 		{
 			super.updateItem(value, isEmpty);		// Prepare for setup
 
+			// The cell may have been reused for another row before the
+			// poster it asked for arrived, so drop that request.
+			PosterCache.getShared().cancel(ticket);
+			ticket = null;
+
 			if (isEmpty || (value == null))		// Handle special cases
 			{
 				setText(null);
@@ -573,12 +916,23 @@ public final class CollectionPane extends AbstractPane
 			// This cell uses the value of the posterFileName attribute
 			// to show an image loaded from resources/example/fx/icon.
 			String		posterFileName = value;
-			ImageView	image = createFXIcon(posterFileName, W, H);
+
+			view.setImage(getPlaceholder());
+			ticket = PosterCache.getShared().load(posterFileName, W, H,
+												   this::showPoster);
 
 			setText(null);
-			setGraphic(image);
+			setGraphic(view);
 			setAlignment(Pos.CENTER);
 		}
+
+		private void	showPoster(Image image)
+		{
+			ticket = null;
+
+			if (image != null)
+				view.setImage(image);
+		}
 	}
 
 	// TODO #5: Complete the Cell classes for your three attributes.
@@ -586,7 +940,7 @@ public final class CollectionPane extends AbstractPane
 	// Allow editing (shallowly) in at least one of the three columns.
 
 	private final class GenreCell
-		extends TextFieldTableCell<Movie, String>
+		extends TextFieldTableCell<Row, String>
 	{
 		public GenreCell()
 		{
@@ -611,11 +965,11 @@ public final class CollectionPane extends AbstractPane
 		}
 	}
 	private final class YearCell
-		extends TextFieldTableCell<Movie, Integer>
+		extends TextFieldTableCell<Row, Number>
 	{
 		public YearCell()
 		{
-			super();	// Since values are Strings
+			super(new NumberStringConverter("0"));	// Years, ungrouped
 		}
 	
 		public void	updateItem(int value, boolean isEmpty)
@@ -636,7 +990,7 @@ public final class CollectionPane extends AbstractPane
 		}
 	}
 	private final class DirectorCell
-		extends TextFieldTableCell<Movie, String>
+		extends TextFieldTableCell<Row, String>
 	{
 		public DirectorCell()
 		{
@@ -666,13 +1020,12 @@ public final class CollectionPane extends AbstractPane
 
 	// This EventHander processes edits in the title column.
 	private final class TitleEditHandler
-		implements EventHandler<TableColumn.CellEditEvent<Movie, String>>
+		implements EventHandler<TableColumn.CellEditEvent<Row, String>>
 	{
-		public void	handle(TableColumn.CellEditEvent<Movie, String> t)
+		public void	handle(TableColumn.CellEditEvent<Row, String> t)
 		{
 			// Get the movie for the row that was edited
-			int	index = t.getTablePosition().getRow();
-			Movie	movie = movies.get(index);
+			Row	movie = t.getRowValue();
 
 			// Set its title to the new value that was entered
 			movie.setTitle(t.getNewValue());
@@ -689,13 +1042,12 @@ public final class CollectionPane extends AbstractPane
 	// Allow editing (shallowly) in at least one of the three columns.
 
 	private final class GenreEditHandler
-		implements EventHandler<TableColumn.CellEditEvent<Movie, String>>
+		implements EventHandler<TableColumn.CellEditEvent<Row, String>>
 	{
-		public void	handle(TableColumn.CellEditEvent<Movie, String> t)
+		public void	handle(TableColumn.CellEditEvent<Row, String> t)
 		{
 			// Get the movie for the row that was edited
-			int	index = t.getTablePosition().getRow();
-			Movie	movie = movies.get(index);
+			Row	movie = t.getRowValue();
 			
 			String s = t.getNewValue().toLowerCase();
 			int g = movie.getGenre();
@@ -716,27 +1068,26 @@ public final class CollectionPane extends AbstractPane
 	}
 	
 	private final class YearEditHandler
-		implements EventHandler<TableColumn.CellEditEvent<Movie, Integer>>
+		implements EventHandler<TableColumn.CellEditEvent<Row, Number>>
 	{
-		public void	handle(TableColumn.CellEditEvent<Movie, Integer> t)
+		public void	handle(TableColumn.CellEditEvent<Row, Number> t)
 		{
 			// Get the movie for the row that was edited
-			int	index = t.getTablePosition().getRow();
-			Movie	movie = movies.get(index);
+			Row	movie = t.getRowValue();
 
 			// Set its title to the new value that was entered
-			movie.setYear(t.getNewValue());
+			if (t.getNewValue() != null)
+				movie.setYear(t.getNewValue().intValue());
 		}
 	}
 
 	private final class DirectorEditHandler
-		implements EventHandler<TableColumn.CellEditEvent<Movie, String>>
+		implements EventHandler<TableColumn.CellEditEvent<Row, String>>
 	{
-		public void	handle(TableColumn.CellEditEvent<Movie, String> t)
+		public void	handle(TableColumn.CellEditEvent<Row, String> t)
 		{
 			// Get the movie for the row that was edited
-			int	index = t.getTablePosition().getRow();
-			Movie	movie = movies.get(index);
+			Row	movie = t.getRowValue();
 	
 			// Set its title to the new value that was entered
 			movie.setDirector(t.getNewValue());
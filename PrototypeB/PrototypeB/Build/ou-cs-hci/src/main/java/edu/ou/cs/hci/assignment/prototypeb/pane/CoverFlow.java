@@ -0,0 +1,515 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb.pane;
+
+//import java.lang.*;
+import java.util.*;
+import javafx.animation.*;
+import javafx.beans.Observable;
+import javafx.beans.property.*;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.*;
+import javafx.scene.*;
+import javafx.scene.control.Label;
+import javafx.scene.control.OverrunStyle;
+import javafx.scene.effect.Reflection;
+import javafx.scene.image.*;
+import javafx.scene.input.*;
+import javafx.scene.layout.*;
+import javafx.scene.paint.*;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.*;
+import javafx.util.Duration;
+import edu.ou.cs.hci.assignment.prototypeb.MovieStore.Row;
+
+//******************************************************************************
+
+/**
+ * The <CODE>CoverFlow</CODE> class shows the posters of a list of movies in a
+ * row, with the selected one large in the middle and the rest smaller to
+ * either side. Only the posters that fit in the width of the flow have
+ * nodes. As the flow scrolls, the nodes of posters that leave the window are
+ * reused for posters that enter it, so the number of nodes stays about the
+ * same for any number of movies. Posters are loaded through the shared
+ * {@link PosterCache}. Selecting a movie animates the flow over to it; far
+ * jumps skip to near the movie first, so posters in between aren't loaded.
+ *
+ * @version %I%, %G%
+ */
+public final class CoverFlow extends Region
+{
+	//**********************************************************************
+	// Private Class Members (Layout)
+	//**********************************************************************
+
+	private static final double	W = 60;		// Side poster width
+	private static final double	H = W * 1.5;	// Side poster height
+	private static final double	S = 2.0;		// Scale of selected poster
+	private static final double	SPACING = W * 0.5;	// Between side posters
+	private static final double	GAP = W * 1.25;	// Beside selected poster
+	private static final double	MARGIN = 12.0;	// Above posters
+
+	//**********************************************************************
+	// Private Class Members (Animation)
+	//**********************************************************************
+
+	private static final Duration	DURATION = Duration.seconds(0.4);
+
+	// Jumps over more movies than this start this far from the movie
+	private static final int		MAX_SCROLL = 8;
+
+	// Scroll distance, in pixels, that moves the flow by one movie
+	private static final double	SCROLL_STEP = 40.0;
+
+	//**********************************************************************
+	// Private Class Members (Effects)
+	//**********************************************************************
+
+	private static final LinearGradient	GRADIENT =
+		new LinearGradient(0.0, 0.0, 0.0, 1.0, true, CycleMethod.NO_CYCLE,
+						   new Stop(0.00, Color.web("#606040", 1.00)),
+						   new Stop(1.00, Color.web("#000000", 1.00)));
+
+	private static final Font		FONT =
+		Font.font("Serif", FontWeight.SEMI_BOLD, FontPosture.REGULAR, 16.0);
+
+	// Shown while posters load, created on first use
+	private static Image			placeholder;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	// Data
+	private final ObservableList<Row>	items;
+
+	// Layout
+	private final Group				posters;
+	private final Label				title;
+	private final Rectangle			clip;
+
+	// Slots in the window, by index from first, and unused slots
+	private ArrayList<Slot>			slots;
+	private ArrayList<Slot>			spare;
+	private final ArrayDeque<Slot>		pool;
+	private int						first;
+	private int						front = -1;	// Middle when ordered
+
+	// Selection and animation
+	private final IntegerProperty		selectedIndex;
+	private final DoubleProperty		position;	// Index at the middle
+	private Timeline					animation;
+	private double						scroll;	// Pixels not yet used
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public CoverFlow(ObservableList<Row> items)
+	{
+		this.items = items;
+
+		slots = new ArrayList<Slot>();
+		spare = new ArrayList<Slot>();
+		pool = new ArrayDeque<Slot>();
+
+		// One reflection for all posters, rather than one per poster
+		posters = new Group();
+		posters.setEffect(new Reflection(4.0, 0.25, 0.40, 0.0));
+
+		title = new Label();
+		title.setFont(FONT);
+		title.setTextFill(Color.WHITE);
+		title.setTextOverrun(OverrunStyle.CENTER_ELLIPSIS);
+		title.setManaged(false);
+
+		clip = new Rectangle();
+
+		getChildren().addAll(posters, title);
+		setClip(clip);
+		setBackground(new Background(new BackgroundFill(GRADIENT, null,
+														null)));
+		setMinHeight(0.0);
+		setFocusTraversable(true);
+
+		selectedIndex = new SimpleIntegerProperty(this, "selectedIndex", -1);
+		position = new SimpleDoubleProperty(this, "position", 0.0);
+
+		selectedIndex.addListener(this::changeSelection);
+		position.addListener(this::invalidate);
+		items.addListener(this::changeItems);
+
+		addEventHandler(KeyEvent.KEY_PRESSED, this::handleKeyPressed);
+		addEventHandler(ScrollEvent.SCROLL, this::handleScroll);
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// The index of the selected movie in the items, or -1 for none.
+	public IntegerProperty	selectedIndexProperty()
+	{
+		return selectedIndex;
+	}
+
+	public int	getSelectedIndex()
+	{
+		return selectedIndex.get();
+	}
+
+	public void	select(int index)
+	{
+		selectedIndex.set(index);
+	}
+
+	// Nodes made for posters so far, whether shown or not.
+	public int	getSlotCount()
+	{
+		return slots.size() + pool.size();
+	}
+
+	//**********************************************************************
+	// Override Methods (Region)
+	//**********************************************************************
+
+	protected double	computePrefHeight(double width)
+	{
+		return MARGIN + H * S * 1.4 + 24.0;
+	}
+
+	protected double	computePrefWidth(double height)
+	{
+		return GAP * 2.0 + W * S + SPACING * 10.0;
+	}
+
+	// Puts nodes on the posters in the window around the position, then
+	// places and sizes them for it. Runs once per frame while animating.
+	protected void	layoutChildren()
+	{
+		double	w = getWidth();
+		double	h = getHeight();
+		double	p = position.get();
+		int		n = items.size();
+
+		clip.setWidth(w);
+		clip.setHeight(h);
+
+		// Posters that fit on each side of the middle, plus one partly in
+		int		side = (int)Math.ceil(Math.max(0.0, 0.5 * w - GAP) /
+									  SPACING) + 1;
+		int		lo = Math.max(0, (int)Math.floor(p) - side);
+		int		hi = Math.min(n - 1, (int)Math.ceil(p) + side);
+
+		updateWindow(lo, hi);
+
+		// Bottoms of the posters line up, leaving room for the reflection
+		double	base = MARGIN + H * S;
+		int		middle = (int)Math.round(p);
+
+		for (Slot slot : slots)
+		{
+			double	d = slot.index - p;
+			double	a = Math.min(Math.abs(d), 1.0);
+			double	x = 0.5 * w + d * SPACING + Math.signum(d) * GAP * a;
+			double	s = (S - (S - 1.0) * a) / S;
+
+			slot.view.setScaleX(s);
+			slot.view.setScaleY(s);
+			slot.view.setLayoutX(x - 0.5 * W * S);
+			slot.view.setLayoutY(base - 0.5 * H * S * (1.0 + s));
+			slot.view.setOpacity(1.0 - 0.4 * a);
+		}
+
+		// Posters nearer the middle go in front, so reorder the nodes only
+		// when the movie nearest the middle changes
+		if (middle != front)
+		{
+			front = middle;
+			orderPosters();
+		}
+
+		if ((middle >= 0) && (middle < n))
+			title.setText(items.get(middle).getTitle());
+		else
+			title.setText("");
+
+		double	tw = Math.min(w, W * S * 2.5);
+
+		title.resizeRelocate(0.5 * (w - tw), Math.min(h - 20.0,
+						base + H * S * 0.4), tw, 20.0);
+		title.setAlignment(Pos.CENTER);
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	private static Image	getPlaceholder()
+	{
+		if (placeholder == null)
+			placeholder = PosterCache.createPlaceholder((int)(W * S),
+														(int)(H * S));
+
+		return placeholder;
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	// Puts slots on the items from lo to hi. Items still in the window keep
+	// their slots. Slots that left the window go back to the pool first, so
+	// the rest can come from it.
+	private void	updateWindow(int lo, int hi)
+	{
+		for (Slot slot : slots)
+			if ((slot.index < lo) || (slot.index > hi))
+				release(slot);
+
+		spare.clear();
+
+		for (int i=lo; i<=hi; i++)
+		{
+			int		k = i - first;
+			Slot	slot = (((k >= 0) && (k < slots.size())) ?
+							slots.get(k) : null);
+
+			if ((slot == null) || (slot.index != i))
+			{
+				slot = acquire();
+				front = -1;
+			}
+
+			slot.bind(i, items.get(i));
+			spare.add(slot);
+		}
+
+		ArrayList<Slot>	done = slots;
+
+		slots = spare;
+		spare = done;
+		first = lo;
+	}
+
+	private Slot	acquire()
+	{
+		Slot	slot = pool.poll();
+
+		if (slot == null)
+		{
+			slot = new Slot();
+			posters.getChildren().add(slot.view);
+		}
+
+		slot.view.setVisible(true);
+
+		return slot;
+	}
+
+	private void	release(Slot slot)
+	{
+		slot.unbind();
+		slot.view.setVisible(false);
+		pool.push(slot);
+	}
+
+	// Stacks the posters from the ends in toward the middle, all at once.
+	private void	orderPosters()
+	{
+		int		m = slots.size();
+		Node[]	nodes = new Node[m + pool.size()];
+		int		k = 0;
+
+		for (Slot slot : pool)
+			nodes[k++] = slot.view;
+
+		int	lo = 0;
+		int	hi = m - 1;
+
+		while (lo <= hi)
+		{
+			if (front - slots.get(lo).index > slots.get(hi).index - front)
+				nodes[k++] = slots.get(lo++).view;
+			else
+				nodes[k++] = slots.get(hi--).view;
+		}
+
+		posters.getChildren().setAll(nodes);
+	}
+
+	// Moves the flow to the movie at the index. Far jumps start nearby.
+	private void	scrollTo(int index)
+	{
+		if (animation != null)
+			animation.stop();
+
+		double	p = position.get();
+
+		// Nothing to animate before the flow is first shown
+		if ((getScene() == null) || (getWidth() <= 0.0))
+		{
+			position.set(index);
+			return;
+		}
+
+		if (Math.abs(index - p) > MAX_SCROLL)
+			position.set(index + Math.signum(p - index) * MAX_SCROLL);
+
+		animation = new Timeline(new KeyFrame(DURATION,
+			new KeyValue(position, index, Interpolator.EASE_OUT)));
+		animation.play();
+	}
+
+	//**********************************************************************
+	// Private Methods (Change Handlers)
+	//**********************************************************************
+
+	private void	changeSelection(Observable observable)
+	{
+		int	index = selectedIndex.get();
+
+		if ((index >= 0) && (index < items.size()))
+			scrollTo(index);
+	}
+
+	private void	changeItems(ListChangeListener.Change<? extends Row> change)
+	{
+		// Items at each index may be different now. Slots rebind to them on
+		// the next layout, and only reload posters for movies that changed.
+		int	n = items.size();
+
+		if (position.get() > n - 1)
+			position.set(Math.max(0, n - 1));
+
+		front = -1;
+		requestLayout();
+	}
+
+	private void	invalidate(Observable observable)
+	{
+		requestLayout();
+	}
+
+	//**********************************************************************
+	// Private Methods (Event Handlers)
+	//**********************************************************************
+
+	private void	handleKeyPressed(KeyEvent e)
+	{
+		int	index = Math.max(0, selectedIndex.get());
+		int	n = items.size();
+
+		if (n == 0)
+			return;
+
+		if (e.getCode() == KeyCode.LEFT)
+			select(Math.max(0, index - 1));
+		else if (e.getCode() == KeyCode.RIGHT)
+			select(Math.min(n - 1, index + 1));
+		else if (e.getCode() == KeyCode.HOME)
+			select(0);
+		else if (e.getCode() == KeyCode.END)
+			select(n - 1);
+		else
+			return;
+
+		e.consume();
+	}
+
+	// Scrolling moves the selection one movie per step, in either direction.
+	private void	handleScroll(ScrollEvent e)
+	{
+		int	n = items.size();
+
+		if (n == 0)
+			return;
+
+		scroll += ((Math.abs(e.getDeltaX()) > Math.abs(e.getDeltaY())) ?
+				   e.getDeltaX() : e.getDeltaY());
+
+		int	steps = (int)(scroll / SCROLL_STEP);
+
+		if (steps != 0)
+		{
+			int	index = Math.max(0, selectedIndex.get()) - steps;
+
+			scroll -= steps * SCROLL_STEP;
+			select(Math.max(0, Math.min(n - 1, index)));
+		}
+
+		e.consume();
+	}
+
+	private void	handleMouseClicked(MouseEvent e)
+	{
+		requestFocus();
+
+		for (Slot slot : slots)
+			if (slot.view == e.getSource())
+				select(slot.index);
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	// One poster node, shown for whichever movie is at its index.
+	private final class Slot
+	{
+		private final ImageView			view;
+		private int						index = -1;
+		private Row						row;
+		private PosterCache.Ticket			ticket;
+
+		public Slot()
+		{
+			view = new ImageView(getPlaceholder());
+			view.setCursor(Cursor.HAND);
+			view.addEventHandler(MouseEvent.MOUSE_CLICKED,
+								 CoverFlow.this::handleMouseClicked);
+		}
+
+		// Shows the movie's poster, unless it's already showing it.
+		public void	bind(int index, Row row)
+		{
+			this.index = index;
+
+			if (row == this.row)
+				return;
+
+			this.row = row;
+
+			PosterCache.getShared().cancel(ticket);
+			ticket = null;
+
+			view.setImage(getPlaceholder());
+			ticket = PosterCache.getShared().load(row.getImage(), W * S,
+												   H * S, this::showPoster);
+		}
+
+		// Stops loading the poster, since it's no longer in the window.
+		public void	unbind()
+		{
+			PosterCache.getShared().cancel(ticket);
+			ticket = null;
+			index = -1;
+			row = null;
+		}
+
+		private void	showPoster(Image image)
+		{
+			ticket = null;
+
+			if (image != null)
+				view.setImage(image);
+		}
+	}
+}
+
+//******************************************************************************
@@ -26,8 +26,9 @@ import javafx.scene.image.*;
 import javafx.scene.paint.*;
 import javafx.scene.text.*;
 import javafx.scene.layout.*;
+import javafx.util.Duration;
 import edu.ou.cs.hci.assignment.prototypeb.*;
-import edu.ou.cs.hci.resources.Resources;
+import edu.ou.cs.hci.assignment.prototypeb.MovieStore.Row;
 
 //******************************************************************************
 
@@ -46,6 +47,12 @@ public final class EditorPane extends AbstractPane
 	private static final String	NAME = "Editor";
 	private static final String	HINT = "Movie Metadata Editor";
 
+	// How long to wait after the last keystroke in a TextArea before sending
+	// the edits to the model. Zero sends each edit right away. Set it with
+	// -Dprototypeb.debounce=<milliseconds>.
+	private static final Duration	DEBOUNCE =
+		Duration.millis(Integer.getInteger("prototypeb.debounce", 0));
+
 	//**********************************************************************
 	// Private Class Members (Layout)
 	//**********************************************************************
@@ -75,12 +82,12 @@ public final class EditorPane extends AbstractPane
 	//**********************************************************************
 
 	// Data
-	private final List<List<String>>	mdata;		// Movie attributes
 	private final List<String>			gdata;		// Genre strings
 	private final List<String>			rdata;		// Rating strings
 
-	// Collection
-	private final List<Movie>			movies;	// Movie objects
+	// Collection (shared with all other panes through the catalog)
+	private final List<Row>			movies;	// Movie row views
+	private int						shown = -1;	// Movie in the editor
 
 	// Layout (widgets in same order as model)
 	private TextField				cTitle;
@@ -109,7 +116,8 @@ public final class EditorPane extends AbstractPane
 	private Button					cImageButton;
 
 	// Support
-	private boolean				ignoreRangeEvents;
+	private TextSync				summarySync;
+	private TextSync				commentsSync;
 
 	// Handlers
 	private final ActionHandler	actionHandler;
@@ -122,22 +130,40 @@ public final class EditorPane extends AbstractPane
 	{
 		super(controller, NAME, HINT);
 
-		// Load data sets from hardcoded file locations
-		mdata = Resources.getCSVData("data/movies.csv");
-		gdata = Resources.getLines("data/genres.txt");
-		rdata = Resources.getLines("data/ratings.txt");
-
-		// Convert the raw movie data into movie objects
-		movies = new ArrayList<Movie>();
+		// Use the data sets and movie objects that the model already loaded
+		Catalog	catalog = controller.getCatalog();
 
-		for (List<String> item : mdata)
-			movies.add(new Movie(item));
+		gdata = catalog.getGenres();
+		rdata = catalog.getRatings();
+		movies = catalog.getMovies();
 
 		// Create a listener for various widgets that emit ActionEvents
 		actionHandler = new ActionHandler();
 
 		// Construct the pane
 		setBase(buildPane());
+
+		// Keep the TextAreas in sync with the model through text deltas
+		summarySync = new TextSync(controller, this, DEBOUNCE, cSummary,
+								   Keys.MOVIE_SUMMARY,
+								   Keys.MOVIE_SUMMARY_DELTA,
+								   Keys.MOVIE_SUMMARY_ANCHOR,
+								   Keys.MOVIE_SUMMARY_CARET);
+		commentsSync = new TextSync(controller, this, DEBOUNCE, cComments,
+									Keys.MOVIE_COMMENTS,
+									Keys.MOVIE_COMMENTS_DELTA,
+									Keys.MOVIE_COMMENTS_ANCHOR,
+									Keys.MOVIE_COMMENTS_CARET);
+	}
+
+	//**********************************************************************
+	// Getters and Setters
+	//**********************************************************************
+
+	// For tests in this package to type into the summary as a user would.
+	TextSync	getSummarySync()
+	{
+		return summarySync;
 	}
 
 	//**********************************************************************
@@ -148,22 +174,22 @@ public final class EditorPane extends AbstractPane
 	// Set up the nodes in the view with data accessed through the controller.
 	public void	initialize()
 	{
-		cTitle.setText((String)controller.get("movie.title"));
-		cImageFile.setText((String)controller.get("movie.imageFile"));
-		cYear.getValueFactory().setValue((Integer)controller.get("movie.year"));
-		cRating.getSelectionModel().select((Integer)controller.get("movie.rating"));
-		cRuntime.setValue((Integer)controller.get("movie.runtime"));
+		cTitle.setText(controller.get(Keys.MOVIE_TITLE));
+		cImageFile.setText(controller.get(Keys.MOVIE_IMAGE_FILE));
+		cYear.getValueFactory().setValue(controller.getInt(Keys.MOVIE_YEAR));
+		cRating.getSelectionModel().select(controller.getInt(Keys.MOVIE_RATING));
+		cRuntime.setValue(controller.getInt(Keys.MOVIE_RUNTIME));
 
-		cAwardPicture.setSelected((Boolean)controller.get("movie.award.picture"));
-		cAwardDirecting.setSelected((Boolean)controller.get("movie.award.directing"));
-		cAwardCinematography.setSelected((Boolean)controller.get("movie.award.cinematography"));
-		cAwardActing.setSelected((Boolean)controller.get("movie.award.acting"));
+		cAwardPicture.setSelected(controller.getBoolean(Keys.MOVIE_AWARD_PICTURE));
+		cAwardDirecting.setSelected(controller.getBoolean(Keys.MOVIE_AWARD_DIRECTING));
+		cAwardCinematography.setSelected(controller.getBoolean(Keys.MOVIE_AWARD_CINEMATOGRAPHY));
+		cAwardActing.setSelected(controller.getBoolean(Keys.MOVIE_AWARD_ACTING));
 
-		cAverageReviewScore.getValueFactory().setValue((Double)controller.get("movie.averageReviewScore"));
-		cNumberOfReviews.getValueFactory().setValue((Integer)controller.get("movie.numberOfReviews"));
+		cAverageReviewScore.getValueFactory().setValue(controller.getDouble(Keys.MOVIE_AVERAGE_REVIEW_SCORE));
+		cNumberOfReviews.getValueFactory().setValue(controller.getInt(Keys.MOVIE_NUMBER_OF_REVIEWS));
 
 		// Map bit positions to genre hits/misses
-		int	genre = (Integer)controller.get("movie.genre");
+		int	genre = controller.getInt(Keys.MOVIE_GENRE);
 		int	n = 0;
 
 		for (CheckBox c : cGenres)
@@ -172,18 +198,17 @@ public final class EditorPane extends AbstractPane
 			n++;
 		}
 
-		cDirector.setText((String)controller.get("movie.director"));
-		cIsAnimated.setSelected((Boolean)controller.get("movie.isAnimated"));
-		cIsColor.setSelected((Boolean)controller.get("movie.isColor"));
+		cDirector.setText(controller.get(Keys.MOVIE_DIRECTOR));
+		cIsAnimated.setSelected(controller.getBoolean(Keys.MOVIE_IS_ANIMATED));
+		cIsColor.setSelected(controller.getBoolean(Keys.MOVIE_IS_COLOR));
 
-		cSummary.setText((String)controller.get("movie.summary"));
-		cComments.setText((String)controller.get("movie.comments"));
+		summarySync.setText(controller.get(Keys.MOVIE_SUMMARY));
+		commentsSync.setText(controller.get(Keys.MOVIE_COMMENTS));
 
 		try
 		{
-			cImageView.setImage(new Image(
-				FX_ICON + (String)controller.get("movie.imageFile"),
-				W, H, false, true));
+			cImageView.setImage(createFXImage(
+				controller.get(Keys.MOVIE_IMAGE_FILE), W, H));
 		}
 		catch (Exception ex)
 		{
@@ -228,12 +253,20 @@ public final class EditorPane extends AbstractPane
 		cImageButton.setOnAction(null);
 	}
 
+	// The controller calls this method to find out which keys to send here.
+	public String[]	getKeys()
+	{
+		return new String[] { "selectedMovieIndex", "movie.*" };
+	}
+
 	// The controller calls this method whenever something changes in the model.
 	// Update the nodes in the view to reflect the change.
 	public void	update(String key, Object value)
 	{
 		//System.out.println("update " + key + " to " + value);
 
+		updateMovie(key, value);
+
 		// ----- Updates for changes to the CollectionPane properties. -----
 
 		if ("selectedMovieIndex".equals(key))
@@ -276,8 +309,7 @@ public final class EditorPane extends AbstractPane
 
 			try
 			{
-				cImageView.setImage(new Image(FX_ICON + (String)value,
-											  W, H, false, true));
+				cImageView.setImage(createFXImage((String)value, W, H));
 			}
 			catch (Exception ex)
 			{
@@ -298,72 +330,174 @@ public final class EditorPane extends AbstractPane
 		}
 
 		// Apply updates that involve text+anchor+caret handling in TextAreas
-		if ("movie.summary".equals(key) ||
-			"movie.summary.anchor".equals(key) ||
-			"movie.summary.caret".equals(key))
-		{
-			String	text = (String)controller.get("movie.summary");
-			int	anchor = (Integer)controller.get("movie.summary.anchor");
-			int	caret = (Integer)controller.get("movie.summary.caret");
-
-			ignoreRangeEvents = true;
-			cSummary.setText(text);
-			cSummary.selectRange(anchor, caret);
-			ignoreRangeEvents = false;
-		}
-
-		if ("movie.comments".equals(key) ||
-			"movie.comments.anchor".equals(key) ||
-			"movie.comments.caret".equals(key))
-		{
-			String	text = (String)controller.get("movie.comments");
-			int	anchor = (Integer)controller.get("movie.comments.anchor");
-			int	caret = (Integer)controller.get("movie.comments.caret");
-
-			ignoreRangeEvents = true;
-			cComments.setText(text);
-			cComments.selectRange(anchor, caret);
-			ignoreRangeEvents = false;
-		}
+		summarySync.update(key, value);
+		commentsSync.update(key, value);
 	}
 
 	// Update all movie properties when selectedMovieIndex changes in the model.
+	// They are set as one batch, so each view gets a single update with all of
+	// them instead of one update per property.
 	private void	updateMoviePropertiesInModel()
+	{
+		controller.batch(this::setMoviePropertiesInModel);
+	}
+
+	private void	setMoviePropertiesInModel()
 	{
 		// Get the currently selected movie
-		int	index = (Integer)controller.get("selectedMovieIndex");
-		Movie	movie = movies.get(index);
+		int	index = controller.getInt(Keys.SELECTED_MOVIE_INDEX);
+
+		shown = index;
+
+		if (index < 0)
+			return;
+
+		Row	movie = movies.get(index);
 
 		// Update the title and image properties in the model
-		controller.set("movie.title", movie.getTitle());
-		controller.set("movie.imageFile", movie.getImage());
+		controller.set(Keys.MOVIE_TITLE, movie.getTitle());
+		controller.set(Keys.MOVIE_IMAGE_FILE, movie.getImage());
 
 		// TODO #3: Update the other 13 properties, summary, and comments below
 		//controller.set("movie.foo", movie.getFoo());
-		controller.set("movie.year", movie.getYear());
-		controller.set("movie.rating", movie.getRating());
-		controller.set("movie.runtime", movie.getRuntime());
+		controller.set(Keys.MOVIE_YEAR, movie.getYear());
+		controller.set(Keys.MOVIE_RATING, rdata.indexOf(movie.getRating()));
+		controller.set(Keys.MOVIE_RUNTIME, movie.getRuntime());
 		
-		controller.set("movie.award.picture", movie.getAwardPicture());
-		controller.set("movie.award.directing", movie.getAwardDirecting());		
-		controller.set("movie.award.cinematography", movie.getAwardCinematography());
-		controller.set("movie.award.acting", movie.getAwardActing());
+		controller.set(Keys.MOVIE_AWARD_PICTURE, movie.getAwardPicture());
+		controller.set(Keys.MOVIE_AWARD_DIRECTING, movie.getAwardDirecting());		
+		controller.set(Keys.MOVIE_AWARD_CINEMATOGRAPHY, movie.getAwardCinematography());
+		controller.set(Keys.MOVIE_AWARD_ACTING, movie.getAwardActing());
 		
-		controller.set("movie.averageReviewScore", movie.getAverageReviewScore());
-		controller.set("movie.numberOfReviews", movie.getNumberOfReviews());
+		controller.set(Keys.MOVIE_AVERAGE_REVIEW_SCORE, movie.getAverageReviewScore());
+		controller.set(Keys.MOVIE_NUMBER_OF_REVIEWS, movie.getNumberOfReviews());
 		
-		controller.set("movie.genre", movie.getGenre());
-		
-		controller.set("movie.summary", movie.getSummary());
+		controller.set(Keys.MOVIE_GENRE, movie.getGenre());
+
+		controller.set(Keys.MOVIE_DIRECTOR, movie.getDirector());
+		controller.set(Keys.MOVIE_IS_ANIMATED, movie.getIsAnimated());
+		controller.set(Keys.MOVIE_IS_COLOR, movie.getIsColor());
+
+		controller.set(Keys.MOVIE_SUMMARY, movie.getSummary());
 		// Update the text+anchor+caret properties used by TextAreas
-//		controller.set("movie.summary", "");
-		controller.set("movie.summary.anchor", 0);
-		controller.set("movie.summary.caret", 0);
-
-		controller.set("movie.comments", movie.getComments());
-//		controller.set("movie.comments", "");
-		controller.set("movie.comments.anchor", 0);
-		controller.set("movie.comments.caret", 0);
+//		controller.set(Keys.MOVIE_SUMMARY, "");
+		controller.set(Keys.MOVIE_SUMMARY_ANCHOR, 0);
+		controller.set(Keys.MOVIE_SUMMARY_CARET, 0);
+
+		controller.set(Keys.MOVIE_COMMENTS, movie.getComments());
+//		controller.set(Keys.MOVIE_COMMENTS, "");
+		controller.set(Keys.MOVIE_COMMENTS_ANCHOR, 0);
+		controller.set(Keys.MOVIE_COMMENTS_CARET, 0);
+	}
+
+	// Writes a change to a movie property in the model back into the movie
+	// that the properties were last set from, so the other panes see it and
+	// it's saved with the catalog. Changes arrive in the order they were made,
+	// so edits made just before selecting another movie still go to the movie
+	// they were made in. Values the movie already has aren't written, which
+	// includes all of the values just set from it.
+	private void	updateMovie(String key, Object value)
+	{
+		if ((shown < 0) || !key.startsWith("movie."))
+			return;
+
+		Row	movie = movies.get(shown);
+
+		if ("movie.title".equals(key))
+		{
+			if (!Objects.equals(value, movie.getTitle()))
+				movie.setTitle((String)value);
+		}
+		else if ("movie.imageFile".equals(key))
+		{
+			if (!Objects.equals(value, movie.getImage()))
+				movie.setImage((String)value);
+		}
+		else if ("movie.year".equals(key))
+		{
+			if ((Integer)value != movie.getYear())
+				movie.setYear((Integer)value);
+		}
+		else if ("movie.rating".equals(key))
+		{
+			int	i = (Integer)value;
+
+			if ((i >= 0) && (i < rdata.size()) &&
+				!rdata.get(i).equals(movie.getRating()))
+				movie.setRating(rdata.get(i));
+		}
+		else if ("movie.runtime".equals(key))
+		{
+			if ((Integer)value != movie.getRuntime())
+				movie.setRuntime((Integer)value);
+		}
+		else if ("movie.award.picture".equals(key))
+		{
+			if ((Boolean)value != movie.getAwardPicture())
+				movie.setAwardPicture((Boolean)value);
+		}
+		else if ("movie.award.directing".equals(key))
+		{
+			if ((Boolean)value != movie.getAwardDirecting())
+				movie.setAwardDirecting((Boolean)value);
+		}
+		else if ("movie.award.cinematography".equals(key))
+		{
+			if ((Boolean)value != movie.getAwardCinematography())
+				movie.setAwardCinematography((Boolean)value);
+		}
+		else if ("movie.award.acting".equals(key))
+		{
+			if ((Boolean)value != movie.getAwardActing())
+				movie.setAwardActing((Boolean)value);
+		}
+		else if ("movie.averageReviewScore".equals(key))
+		{
+			if ((Double)value != movie.getAverageReviewScore())
+				movie.setAverageReviewScore((Double)value);
+		}
+		else if ("movie.numberOfReviews".equals(key))
+		{
+			if ((Integer)value != movie.getNumberOfReviews())
+				movie.setNumberOfReviews((Integer)value);
+		}
+		else if ("movie.genre".equals(key))
+		{
+			if ((Integer)value != movie.getGenre())
+				movie.setGenre((Integer)value);
+		}
+		else if ("movie.director".equals(key))
+		{
+			if (!Objects.equals(value, movie.getDirector()))
+				movie.setDirector((String)value);
+		}
+		else if ("movie.isAnimated".equals(key))
+		{
+			if ((Boolean)value != movie.getIsAnimated())
+				movie.setIsAnimated((Boolean)value);
+		}
+		else if ("movie.isColor".equals(key))
+		{
+			if ((Boolean)value != movie.getIsColor())
+				movie.setIsColor((Boolean)value);
+		}
+		else if (Keys.MOVIE_SUMMARY.getName().equals(key) ||
+				 Keys.MOVIE_SUMMARY_DELTA.getName().equals(key))
+		{
+			// Text and deltas alike; the model has the whole edited text
+			String	text = controller.get(Keys.MOVIE_SUMMARY);
+
+			if (!Objects.equals(text, movie.getSummary()))
+				movie.setSummary(text);
+		}
+		else if (Keys.MOVIE_COMMENTS.getName().equals(key) ||
+				 Keys.MOVIE_COMMENTS_DELTA.getName().equals(key))
+		{
+			String	text = controller.get(Keys.MOVIE_COMMENTS);
+
+			if (!Objects.equals(text, movie.getComments()))
+				movie.setComments(text);
+		}
 	}
 
 	//**********************************************************************
@@ -437,7 +571,6 @@ public final class EditorPane extends AbstractPane
 		cIsAnimated = buildCheckBox("Animated");
 		cIsColor = buildCheckBox("Color");
 
-		// Note: Buggy! Currently moves the caret to the start every time.
 		cSummary = new TextArea();
 		cSummary.setMinSize(200, 0);
 		cSummary.setPrefRowCount(10);
@@ -446,7 +579,6 @@ public final class EditorPane extends AbstractPane
 		cSummary.anchorProperty().addListener(this::changeRange);
 		cSummary.caretPositionProperty().addListener(this::changeRange);
 
-		// Note: Buggy! Currently moves the caret to the start every time.
 		cComments = new TextArea();
 		cComments.setPrefColumnCount(72);
 		cComments.setWrapText(true);
@@ -545,7 +677,7 @@ public final class EditorPane extends AbstractPane
 							   String oldValue, String newValue)
 	{
 		if (observable == cRating.getSelectionModel().selectedItemProperty())
-			controller.set("movie.rating", rdata.indexOf(newValue));
+			controller.set(Keys.MOVIE_RATING, rdata.indexOf(newValue));
 	}
 
 	// For Slider, Spinner<Double>
@@ -553,9 +685,9 @@ public final class EditorPane extends AbstractPane
 								  Number oldValue, Number newValue)
 	{
 		if (observable == cRuntime.valueProperty())
-			controller.set("movie.runtime", (int)Math.floor((Double)newValue));
+			controller.set(Keys.MOVIE_RUNTIME, (int)Math.floor(newValue.doubleValue()));
 		else if (observable == cAverageReviewScore.valueProperty())
-			controller.set("movie.averageReviewScore", newValue);
+			controller.set(Keys.MOVIE_AVERAGE_REVIEW_SCORE, newValue.doubleValue());
 	}
 
 	// For Spinner<Integer>
@@ -563,9 +695,9 @@ public final class EditorPane extends AbstractPane
 								  Number oldValue, Number newValue)
 	{
 		if (observable == cYear.valueProperty())
-			controller.set("movie.year", newValue);
+			controller.set(Keys.MOVIE_YEAR, newValue.intValue());
 		else if (observable == cNumberOfReviews.valueProperty())
-			controller.set("movie.numberOfReviews", newValue);
+			controller.set(Keys.MOVIE_NUMBER_OF_REVIEWS, newValue.intValue());
 	}
 
 	// For TextArea (changes to the text itself)
@@ -573,29 +705,21 @@ public final class EditorPane extends AbstractPane
 								  String oldValue, String newValue)
 	{
 		if (observable == cSummary.textProperty())
-			controller.set("movie.summary", newValue);
+			summarySync.changeText(oldValue, newValue);
 		else if (observable == cComments.textProperty())
-			controller.set("movie.comments", newValue);
+			commentsSync.changeText(oldValue, newValue);
 	}
 
 	// For TextArea (changes to range = caret position + selection anchor)
 	private void	changeRange(ObservableValue<? extends Number> observable,
 								Number oldValue, Number newValue)
 	{
-		// Ignore changes to TextArea range that come indirectly from the model.
-		if (ignoreRangeEvents)
-			return;
-
-		// Handle changes to TextArea range that come directly from the user.
-		if (observable == cSummary.caretPositionProperty())
-			controller.set("movie.summary.caret", newValue);
-		else if (observable == cComments.caretPositionProperty())
-			controller.set("movie.comments.caret", newValue);
-
-		if (observable == cSummary.anchorProperty())
-			controller.set("movie.summary.anchor", newValue);
-		else if (observable == cComments.anchorProperty())
-			controller.set("movie.comments.anchor", newValue);
+		if ((observable == cSummary.caretPositionProperty()) ||
+			(observable == cSummary.anchorProperty()))
+			summarySync.changeRange();
+		else if ((observable == cComments.caretPositionProperty()) ||
+				 (observable == cComments.anchorProperty()))
+			commentsSync.changeRange();
 	}
 
 	//**********************************************************************
@@ -611,27 +735,27 @@ public final class EditorPane extends AbstractPane
 			Object	source = e.getSource();
 
 			if (source == cTitle)
-				controller.set("movie.title", cTitle.getText());
+				controller.set(Keys.MOVIE_TITLE, cTitle.getText());
 			else if (source == cImageFile)
-				controller.set("movie.imageFile", cImageFile.getText());
+				controller.set(Keys.MOVIE_IMAGE_FILE, cImageFile.getText());
 			else if (source == cAwardPicture)
-				controller.set("movie.award.picture",
+				controller.set(Keys.MOVIE_AWARD_PICTURE,
 							   cAwardPicture.isSelected());
 			else if (source == cAwardDirecting)
-				controller.set("movie.award.directing",
+				controller.set(Keys.MOVIE_AWARD_DIRECTING,
 							   cAwardDirecting.isSelected());
 			else if (source == cAwardCinematography)
-				controller.set("movie.award.cinematography",
+				controller.set(Keys.MOVIE_AWARD_CINEMATOGRAPHY,
 							   cAwardCinematography.isSelected());
 			else if (source == cAwardActing)
-				controller.set("movie.award.acting",
+				controller.set(Keys.MOVIE_AWARD_ACTING,
 							   cAwardActing.isSelected());
 			else if (source == cDirector)
-				controller.set("movie.director", cDirector.getText());
+				controller.set(Keys.MOVIE_DIRECTOR, cDirector.getText());
 			else if (source == cIsAnimated)
-				controller.set("movie.isAnimated", cIsAnimated.isSelected());
+				controller.set(Keys.MOVIE_IS_ANIMATED, cIsAnimated.isSelected());
 			else if (source == cIsColor)
-				controller.set("movie.isColor", cIsColor.isSelected());
+				controller.set(Keys.MOVIE_IS_COLOR, cIsColor.isSelected());
 			else if (source == cImageButton)
 				controller.trigger("choosing new image file for movie");
 			else
@@ -640,7 +764,7 @@ public final class EditorPane extends AbstractPane
 
 		private void	handleGenres(Object source)
 		{
-			int		genre = (Integer)controller.get("movie.genre");
+			int		genre = controller.getInt(Keys.MOVIE_GENRE);
 			int		n = 0;
 			boolean	changed = false;
 
@@ -656,7 +780,7 @@ public final class EditorPane extends AbstractPane
 			}
 
 			if (changed)
-				controller.set("movie.genre", genre);
+				controller.set(Keys.MOVIE_GENRE, genre);
 		}
 	}
 }
@@ -0,0 +1,294 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb.pane;
+
+//import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.scene.image.*;
+import javafx.scene.paint.Color;
+import edu.ou.cs.hci.resources.Thumbnails;
+
+//******************************************************************************
+
+/**
+ * The <CODE>PosterCache</CODE> class decodes movie poster images in the
+ * background and keeps the decoded images in a least-recently-used cache. The
+ * cache is keyed by file and size, and evicts images once their total pixel
+ * memory goes over a budget. Requests for an image that is already being
+ * decoded share the same decode. Each request returns a ticket that can be
+ * cancelled, such as when a table cell is reused for another row before its
+ * poster arrives. All methods must be called on the JavaFX thread, and all
+ * callbacks are made on it.
+ *
+ * @version %I%, %G%
+ */
+public final class PosterCache
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final long		DEFAULT_BUDGET = 32L * 1024L * 1024L;
+	private static final int		DEFAULT_THREADS = 2;
+
+	// Shared by all panes in all views, created on first use
+	private static PosterCache		shared;
+
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	// Decoded images, least recently used first
+	private final LinkedHashMap<String, Image>	cache;
+	private final long							budget;	// Bytes of pixels
+	private long								bytes;
+
+	// Decodes that haven't finished yet
+	private final HashMap<String, Request>		pending;
+	private final ExecutorService				executor;
+
+	// Statistics
+	private long								hits;
+	private long								misses;
+	private long								evictions;
+	private long								cancels;
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public PosterCache(long budget, int threads)
+	{
+		this.budget = budget;
+
+		cache = new LinkedHashMap<String, Image>(256, 0.75f, true);
+		pending = new HashMap<String, Request>();
+		executor = Executors.newFixedThreadPool(threads, r -> {
+				Thread	thread = new Thread(r, "poster-loader");
+
+				thread.setDaemon(true);
+				thread.setPriority(Thread.NORM_PRIORITY - 1);
+
+				return thread;
+			});
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	public static PosterCache	getShared()
+	{
+		if (shared == null)
+			shared = new PosterCache(DEFAULT_BUDGET, DEFAULT_THREADS);
+
+		return shared;
+	}
+
+	// A plain image of the given size to show while a poster is loading.
+	public static Image	createPlaceholder(int w, int h)
+	{
+		WritableImage	image = new WritableImage(w, h);
+		PixelWriter		writer = image.getPixelWriter();
+
+		for (int y=0; y<h; y++)
+			for (int x=0; x<w; x++)
+				writer.setColor(x, y, Color.LIGHTGRAY);
+
+		return image;
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// Asks for the poster in the file (relative to FX_ICON) at the given size.
+	// If the poster is cached, the callback gets it right away and the method
+	// returns null. Otherwise the callback gets it later, or gets null if it
+	// can't be decoded, unless the returned ticket is cancelled first.
+	public Ticket	load(String file, double w, double h, Consumer<Image> callback)
+	{
+		String	key = file + "@" + w + "x" + h;
+		Image	image = cache.get(key);
+
+		if (image != null)
+		{
+			hits++;
+			callback.accept(image);
+
+			return null;
+		}
+
+		misses++;
+
+		Request	request = pending.get(key);
+
+		if (request == null)
+		{
+			request = new Request(key, AbstractPane.FX_ICON + file, w, h);
+			pending.put(key, request);
+			request.future = executor.submit(request);
+		}
+
+		Ticket	ticket = new Ticket(request, callback);
+
+		request.tickets.add(ticket);
+
+		return ticket;
+	}
+
+	// Cancels a request. The decode itself is abandoned if nothing else is
+	// waiting for it.
+	public void	cancel(Ticket ticket)
+	{
+		if (ticket == null)
+			return;
+
+		Request	request = ticket.request;
+
+		if (!request.tickets.remove(ticket))
+			return;
+
+		if (request.tickets.isEmpty())
+		{
+			request.future.cancel(false);
+			pending.remove(request.key);
+			cancels++;
+		}
+	}
+
+	//**********************************************************************
+	// Override Methods (Object)
+	//**********************************************************************
+
+	public String	toString()
+	{
+		return cache.size() + " posters, " + (bytes / 1024L) + " of " +
+			(budget / 1024L) + " KB, " + hits + " hits, " + misses +
+			" misses, " + evictions + " evictions, " + cancels + " cancels";
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	// Called on the JavaFX thread once a decode finishes.
+	private void	finish(Request request, Image image)
+	{
+		// Ignore decodes that were cancelled after they started
+		if (pending.get(request.key) != request)
+			return;
+
+		pending.remove(request.key);
+
+		if ((image != null) && image.isError())
+			image = null;
+
+		if (image != null)
+			put(request.key, image);
+
+		for (Ticket ticket : request.tickets)
+			ticket.callback.accept(image);
+
+		request.tickets.clear();
+	}
+
+	private void	put(String key, Image image)
+	{
+		cache.put(key, image);
+		bytes += sizeOf(image);
+
+		// Evict least recently used images until back under budget
+		Iterator<Map.Entry<String, Image>>	it = cache.entrySet().iterator();
+
+		while ((bytes > budget) && it.hasNext())
+		{
+			Map.Entry<String, Image>	entry = it.next();
+
+			if (entry.getKey().equals(key))
+				continue;
+
+			bytes -= sizeOf(entry.getValue());
+			it.remove();
+			evictions++;
+		}
+	}
+
+	private static long	sizeOf(Image image)
+	{
+		return 4L * (long)image.getWidth() * (long)image.getHeight();
+	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	// One decode of one poster at one size, shared by all tickets for it.
+	private final class Request
+		implements Runnable
+	{
+		private final String			key;
+		private final String			url;
+		private final double			w;
+		private final double			h;
+
+		private final ArrayList<Ticket>	tickets;
+		private Future<?>				future;
+
+		public Request(String key, String url, double w, double h)
+		{
+			this.key = key;
+			this.url = url;
+			this.w = w;
+			this.h = h;
+
+			tickets = new ArrayList<Ticket>(1);
+		}
+
+		// Runs on a loader thread. Image decodes synchronously here, since it
+		// isn't asked to load in the background. The nearest thumbnail level
+		// is decoded rather than the full-size poster.
+		public void	run()
+		{
+			Image	image;
+
+			try
+			{
+				image = new Image(Thumbnails.getURL(url, w, h),
+								  w, h, false, true);
+			}
+			catch (Exception ex)
+			{
+				image = null;
+			}
+
+			final Image	result = image;
+
+			Platform.runLater(() -> finish(this, result));
+		}
+	}
+
+	/**
+	 * A request for a poster made by one caller, such as one table cell.
+	 */
+	public static final class Ticket
+	{
+		private final Request			request;
+		private final Consumer<Image>	callback;
+
+		private Ticket(Request request, Consumer<Image> callback)
+		{
+			this.request = request;
+			this.callback = callback;
+		}
+	}
+}
+
+//******************************************************************************
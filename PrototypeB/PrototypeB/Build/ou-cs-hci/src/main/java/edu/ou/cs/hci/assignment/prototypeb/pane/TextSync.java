@@ -0,0 +1,271 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb.pane;
+
+//import java.lang.*;
+import javafx.animation.PauseTransition;
+import javafx.event.*;
+import javafx.scene.control.*;
+import javafx.util.Duration;
+import edu.ou.cs.hci.assignment.prototypeb.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>TextSync</CODE> class keeps a TextArea in sync with its text,
+ * anchor, and caret in the model. The user's edits are sent as deltas,
+ * composed over the debounce window if there is one. Deltas from other views
+ * are patched into the text in place. If edits are still waiting to be sent,
+ * they are moved over the delta, so typing in two views at once loses
+ * neither. Whole text from the model, such as for a newly selected movie,
+ * replaces the text and any edits waiting to be sent.
+ *
+ * @version %I%, %G%
+ */
+final class TextSync
+{
+	//**********************************************************************
+	// Private Members
+	//**********************************************************************
+
+	private final Controller			controller;
+	private final Object				source;		// Of the deltas sent
+	private final Duration				debounce;
+	private final TextArea				area;
+	private final Key<String>			textKey;
+	private final Key<TextDelta>		deltaKey;
+	private final Key.IntKey			anchorKey;
+	private final Key.IntKey			caretKey;
+	private final PauseTransition		timer;
+
+	private TextDelta					pending;		// Edits not sent
+	private boolean					rangeChanged;	// Range not sent
+	private boolean					ignoreEvents;	// From the model
+
+	//**********************************************************************
+	// Constructors and Finalizer
+	//**********************************************************************
+
+	public TextSync(Controller controller, Object source, Duration debounce,
+					TextArea area, Key<String> textKey,
+					Key<TextDelta> deltaKey, Key.IntKey anchorKey,
+					Key.IntKey caretKey)
+	{
+		this.controller = controller;
+		this.source = source;
+		this.debounce = debounce;
+		this.area = area;
+		this.textKey = textKey;
+		this.deltaKey = deltaKey;
+		this.anchorKey = anchorKey;
+		this.caretKey = caretKey;
+
+		timer = new PauseTransition(debounce);
+		timer.setOnFinished(this::handleTimer);
+	}
+
+	//**********************************************************************
+	// Getters and Setters
+	//**********************************************************************
+
+	public TextArea	getArea()
+	{
+		return area;
+	}
+
+	//**********************************************************************
+	// Public Methods
+	//**********************************************************************
+
+	// Replaces the whole text without sending anything to the model.
+	public void	setText(String text)
+	{
+		ignoreEvents = true;
+		area.setText(text);
+		ignoreEvents = false;
+	}
+
+	// Handles an edit made by the user.
+	public void	changeText(String oldValue, String newValue)
+	{
+		if (ignoreEvents)
+			return;
+
+		TextDelta	delta = TextDelta.diff(oldValue, newValue, source);
+
+		if (pending == null)
+			pending = delta;
+		else
+			pending = TextDelta.compose(pending, delta, newValue);
+
+		if (debounce.greaterThan(Duration.ZERO))
+			timer.playFromStart();
+		else
+			send();
+	}
+
+	// Handles a change to the caret or anchor made by the user. If there
+	// are edits waiting to be sent, the range is sent along with them.
+	public void	changeRange()
+	{
+		if (ignoreEvents)
+			return;
+
+		rangeChanged = true;
+
+		if (pending == null)
+			send();
+	}
+
+	// Handles an update from the model.
+	public void	update(String key, Object value)
+	{
+		if (textKey.getName().equals(key))
+		{
+			discard();
+			setText((String)value);
+		}
+		else if (deltaKey.getName().equals(key))
+		{
+			patch((TextDelta)value);
+		}
+		else if (!anchorKey.getName().equals(key) &&
+				 !caretKey.getName().equals(key))
+		{
+			return;
+		}
+		else if (pending != null)	// Keep the range of the local edits
+		{
+			return;
+		}
+
+		ignoreEvents = true;
+		area.selectRange(controller.getInt(anchorKey),
+						 controller.getInt(caretKey));
+		ignoreEvents = false;
+	}
+
+	// Sends the edits and range waiting to be sent, without waiting for the
+	// debounce window to end.
+	public void	send()
+	{
+		timer.stop();
+
+		if (pending != null)
+		{
+			controller.edit(textKey, deltaKey, pending);
+			pending = null;
+		}
+
+		if (rangeChanged)
+		{
+			controller.set(anchorKey, area.getAnchor());
+			controller.set(caretKey, area.getCaretPosition());
+			rangeChanged = false;
+		}
+	}
+
+	//**********************************************************************
+	// Private Methods
+	//**********************************************************************
+
+	private void	patch(TextDelta delta)
+	{
+		if (delta.getSource() == source)	// Already shown
+			return;
+
+		if (pending != null)
+		{
+			rebase(delta);
+			return;
+		}
+
+		// Patch in place only if the text is the one the delta was made
+		// for. Otherwise fall back to the model's whole text.
+		if ((delta.getSource() == null) ||
+			(area.getLength() != delta.getOldLength()))
+		{
+			discard();
+			setText(controller.get(textKey));
+			return;
+		}
+
+		replace(delta);
+	}
+
+	// Moves the edits waiting to be sent over a delta from elsewhere, and
+	// patches the text with the delta moved over the edits. If the delta
+	// might include edits already shown here, or wasn't made to the text
+	// the edits were, the delta is remade from that text to the model's.
+	private void	rebase(TextDelta delta)
+	{
+		if ((delta.getSource() == null) ||
+			(delta.getOldLength() != pending.getOldLength()))
+		{
+			String	text = area.getText();
+			String	old = pending.invert(text, null).apply(text);
+
+			delta = TextDelta.diff(old, controller.get(textKey), null);
+		}
+
+		TextDelta	local = pending;
+
+		pending = local.rebase(delta, false);
+
+		int		anchor = area.getAnchor();
+		int		caret = area.getCaretPosition();
+		TextDelta	patch = delta.rebase(local, true);
+
+		replace(patch);
+
+		ignoreEvents = true;
+		area.selectRange(shift(anchor, patch), shift(caret, patch));
+		ignoreEvents = false;
+	}
+
+	private void	replace(TextDelta delta)
+	{
+		int	offset = delta.getOffset();
+
+		ignoreEvents = true;
+		area.replaceText(offset, offset + delta.getRemoved(),
+						 delta.getInserted());
+		ignoreEvents = false;
+	}
+
+	private void	discard()
+	{
+		timer.stop();
+		pending = null;
+		rangeChanged = false;
+	}
+
+	private void	handleTimer(ActionEvent e)
+	{
+		send();
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	// Where a position in the text ends up after the delta is applied.
+	private static int	shift(int position, TextDelta delta)
+	{
+		int	offset = delta.getOffset();
+
+		if (position < offset)
+			return position;
+
+		if (position >= offset + delta.getRemoved())
+			return position + delta.getNewLength() - delta.getOldLength();
+
+		return offset + delta.getInserted().length();
+	}
+}
+
+//******************************************************************************
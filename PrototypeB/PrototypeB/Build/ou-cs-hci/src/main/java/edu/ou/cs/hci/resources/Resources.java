@@ -23,6 +23,8 @@ package edu.ou.cs.hci.resources;
 import java.io.*;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 import javafx.scene.image.Image;
 import javax.swing.ImageIcon;
 import org.apache.commons.csv.*;
@@ -45,6 +47,12 @@ public final class Resources
 	private static final CSVFormat	FORMAT =
 		CSVFormat.DEFAULT.withAllowMissingColumnNames(true);
 
+	// For splitting large CSV files into chunks that are parsed in parallel.
+	// Chunks end on record boundaries. At most a few chunks per worker thread
+	// are in flight at once, which bounds the raw text held in memory.
+	private static final int		CHUNK_CHARS = 1 << 20;
+	private static final int		CHUNKS_PER_THREAD = 2;
+
 	//**********************************************************************
 	// Public Class Members
 	//**********************************************************************
@@ -65,6 +73,16 @@ public final class Resources
 		return getCSVData(getResource(filename));
 	}
 
+	// Parses comma separated values (CSV) in a resource file located relative
+	// to this class file, accumulating records into one container per chunk.
+	// Large files are parsed in parallel. The containers are in file order.
+	public static <A> List<A>	getCSVChunks(String filename,
+							Supplier<A> supplier,
+							BiConsumer<A, CSVRecord> accumulator)
+	{
+		return getCSVChunks(getResource(filename), supplier, accumulator);
+	}
+
 	// Slurps the lines in a resource file located relative to this class file.
 	// Resource files can be in subdirectories. If so, specify the filename
 	// with a relative path. For example, use filename "docs/names.txt" to
@@ -164,6 +182,95 @@ public final class Resources
 		return data;
 	}
 
+	// Parses a comma separated values (CSV) file, at the specified URL, into
+	// one container per chunk of the file, without first building lists of
+	// strings. The file is read sequentially and cut into chunks at record
+	// boundaries. Each chunk gets a new container from the supplier, and the
+	// accumulator adds the chunk's records to it on the common fork-join pool.
+	// The containers are returned in file order.
+	public static <A> List<A>	getCSVChunks(URL url, Supplier<A> supplier,
+							BiConsumer<A, CSVRecord> accumulator)
+	{
+		ArrayList<A>				data = new ArrayList<A>();
+		ArrayDeque<ForkJoinTask<A>>	pending =
+			new ArrayDeque<ForkJoinTask<A>>();
+		ForkJoinPool				pool = ForkJoinPool.commonPool();
+		int						limit = CHUNKS_PER_THREAD *
+			Math.max(1, pool.getParallelism());
+
+		try (BufferedReader br = openReader(url))
+		{
+			char[]		buffer = new char[CHUNK_CHARS];
+			int		length = 0;		// Number of chars in the buffer
+			int		boundary = -1;		// Last record boundary in buffer
+			boolean	quoted = false;	// Inside a quoted field?
+			int		n;
+
+			while ((n = br.read(buffer, length, buffer.length - length)) >= 0)
+			{
+				// Quotes toggle in and out of quoted fields. Escaped quotes
+				// come in pairs, so they don't change the state. Only line
+				// breaks outside of quoted fields end records.
+				for (int i=length; i<length+n; i++)
+				{
+					char	c = buffer[i];
+
+					if (c == '"')
+						quoted = !quoted;
+					else if ((c == '\n') && !quoted)
+						boundary = i;
+				}
+
+				length += n;
+
+				if (length < buffer.length)		// Keep filling the buffer
+					continue;
+
+				if (boundary < 0)		// Record is bigger than the buffer
+				{
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					continue;
+				}
+
+				// Keep a bounded number of chunks in flight, oldest first
+				if (pending.size() >= limit)
+					data.add(pending.removeFirst().join());
+
+				String	chunk = new String(buffer, 0, boundary + 1);
+
+				pending.addLast(pool.submit(
+					new ChunkParser<A>(chunk, supplier, accumulator)));
+
+				// Move the partial record after the boundary to the front
+				length -= boundary + 1;
+				System.arraycopy(buffer, boundary + 1, buffer, 0, length);
+				boundary = -1;
+			}
+
+			// Parse whatever is left, which is the whole file if it's small
+			if (length > 0)
+			{
+				String			chunk = new String(buffer, 0, length);
+				ChunkParser<A>	last =
+					new ChunkParser<A>(chunk, supplier, accumulator);
+
+				while (!pending.isEmpty())
+					data.add(pending.removeFirst().join());
+
+				data.add(last.call());
+			}
+		}
+		catch (IOException ex)
+		{
+			ex.printStackTrace();
+		}
+
+		while (!pending.isEmpty())
+			data.add(pending.removeFirst().join());
+
+		return data;
+	}
+
 	// Slurps a comma separated values (CSV) file, at the specified URL, as a
 	// list of data records. Each data record is itself a list of strings. This
 	// version doesn't work when fields contain commas, even if inside quotes.
@@ -211,6 +318,16 @@ public final class Resources
 		return v;
 	}
 
+	// Opens a buffered reader on the specified URL.
+	private static BufferedReader	openReader(URL url)
+		throws IOException
+	{
+		InputStream		is = url.openStream();
+		InputStreamReader	ir = new InputStreamReader(is);
+
+		return new BufferedReader(ir);
+	}
+
 	// Appends lines from the specified reader to an array of strings.
 	public static void	appendLines(Reader r, ArrayList<String> v)
 		throws IOException
@@ -227,6 +344,39 @@ public final class Resources
 		}
 		while (line != null);
 	}
+
+	//**********************************************************************
+	// Inner Classes
+	//**********************************************************************
+
+	// Parses one chunk of CSV text into a container. Chunks always start and
+	// end on record boundaries, so each one can be parsed independently.
+	private static final class ChunkParser<A>
+		implements Callable<A>
+	{
+		private final String					text;
+		private final Supplier<A>				supplier;
+		private final BiConsumer<A, CSVRecord>	accumulator;
+
+		public ChunkParser(String text, Supplier<A> supplier,
+						   BiConsumer<A, CSVRecord> accumulator)
+		{
+			this.text = text;
+			this.supplier = supplier;
+			this.accumulator = accumulator;
+		}
+
+		public A	call()
+			throws IOException
+		{
+			A	container = supplier.get();
+
+			for (CSVRecord item : FORMAT.parse(new StringReader(text)))
+				accumulator.accept(container, item);
+
+			return container;
+		}
+	}
 }
 
 //******************************************************************************
@@ -0,0 +1,221 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+// Notes:
+//
+// Thumbnails are written under ~/.ou-cs-hci/thumbnails by default. Set the
+// system property "ou.cs.hci.thumbnails" to use a different directory. It is
+// always safe to delete the directory; thumbnails are rebuilt as needed.
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.resources;
+
+//import java.lang.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+
+//******************************************************************************
+
+/**
+ * The <CODE>Thumbnails</CODE> class keeps a chain of pre-scaled copies (mip
+ * levels) of image resources on disk, so that small views of an image decode a
+ * small file instead of the full-size original. Each level is half the size of
+ * the next, all at the 2:3 aspect ratio of a movie poster. Levels are built
+ * the first time an image is asked for, or ahead of time by running this class
+ * with the names of the resource directories to process. Levels larger than the
+ * original are never built; lookups that need them get the original instead.
+ *
+ * @version %I%, %G%
+ */
+public final class Thumbnails
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	// Level sizes, smallest first. Each is twice the size of the previous.
+	private static final int[]		LEVEL_W = {  40,  80, 160, 320 };
+	private static final int[]		LEVEL_H = {  60, 120, 240, 480 };
+
+	private static final String	FORMAT = "png";
+
+	// Where level files are written
+	private static final File		DIR = new File(System.getProperty(
+		"ou.cs.hci.thumbnails", System.getProperty("user.home") +
+		File.separator + ".ou-cs-hci" + File.separator + "thumbnails"));
+
+	// Built levels by image, as an array of URLs with null for each level
+	// that doesn't exist. Filled in the first time each image is asked for.
+	private static final ConcurrentHashMap<String, String[]>	levels =
+		new ConcurrentHashMap<String, String[]>();
+
+	//**********************************************************************
+	// Main
+	//**********************************************************************
+
+	// Builds the levels for every image in each named resource directory, or
+	// in the poster directory if none are named. Only works for resources that
+	// are files on disk, not packed in a jar.
+	public static void	main(String[] args)
+		throws Exception
+	{
+		if (args.length == 0)
+			args = new String[] { "example/fx/icon" };
+
+		for (String dir : args)
+		{
+			URL	url = Resources.getResource(dir);
+
+			if ((url == null) || !"file".equals(url.getProtocol()))
+			{
+				System.err.println("thumbnails: can't list " + dir);
+				continue;
+			}
+
+			File[]	files = new File(url.toURI()).listFiles();
+			long	t0 = System.nanoTime();
+			int		n = 0;
+
+			Arrays.sort(files);
+
+			for (File file : files)
+			{
+				if (file.isFile() && !file.isHidden())
+				{
+					getLevels(Resources.RSRC + dir + "/" + file.getName());
+					n++;
+				}
+			}
+
+			long	t1 = System.nanoTime();
+
+			System.out.println("thumbnails: " + n + " images in " + dir +
+							   " in " + ((t1 - t0) / 1000000L) + " ms");
+		}
+
+		System.out.println("thumbnails: written to " + DIR);
+	}
+
+	//**********************************************************************
+	// Public Class Methods
+	//**********************************************************************
+
+	// Gets the URL of the smallest level of an image that is at least as
+	// large as w x h, building the levels first if need be. The path is the
+	// same one given to javafx.scene.image.Image, such as FX_ICON + filename.
+	// Returns the path itself when no level is large enough (or the levels
+	// can't be built), so the result can always be handed to Image.
+	public static String	getURL(String path, double w, double h)
+	{
+		String[]	urls = getLevels(path);
+
+		for (int i=0; i<urls.length; i++)
+			if ((urls[i] != null) && (LEVEL_W[i] >= w) && (LEVEL_H[i] >= h))
+				return urls[i];
+
+		return path;
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	private static String[]	getLevels(String path)
+	{
+		return levels.computeIfAbsent(path, Thumbnails::build);
+	}
+
+	// Builds any missing or out-of-date levels for the image at the path,
+	// scaling each level down from the next larger one.
+	private static String[]	build(String path)
+	{
+		String[]	urls = new String[LEVEL_W.length];
+
+		try
+		{
+			URL	source = Thumbnails.class.getClassLoader().getResource(path);
+
+			if (source == null)
+				return urls;
+
+			long		modified = source.openConnection().getLastModified();
+			File[]		files = new File[LEVEL_W.length];
+			boolean	stale = false;
+
+			for (int i=0; i<files.length; i++)
+			{
+				files[i] = new File(DIR, getName(path, i));
+
+				if (!files[i].exists() || (files[i].lastModified() < modified))
+					stale = true;
+			}
+
+			if (stale)
+			{
+				BufferedImage	image = ImageIO.read(source);
+
+				if (image == null)
+					return urls;
+
+				DIR.mkdirs();
+
+				for (int i=files.length-1; i>=0; i--)
+				{
+					files[i].delete();
+
+					if ((LEVEL_W[i] > image.getWidth()) ||
+						(LEVEL_H[i] > image.getHeight()))
+						continue;
+
+					image = scale(image, LEVEL_W[i], LEVEL_H[i]);
+					ImageIO.write(image, FORMAT, files[i]);
+				}
+			}
+
+			for (int i=0; i<files.length; i++)
+				if (files[i].exists())
+					urls[i] = files[i].toURI().toString();
+		}
+		catch (Exception ex)
+		{
+			System.err.println("thumbnails: can't build " + path + ": " + ex);
+		}
+
+		return urls;
+	}
+
+	// Level file names flatten the resource path, so "a/b/c.jpg" at 40 x 60
+	// becomes "a_b_c.jpg@40x60.png".
+	private static String	getName(String path, int level)
+	{
+		return path.replace('/', '_').replace('\\', '_') + "@" +
+			LEVEL_W[level] + "x" + LEVEL_H[level] + "." + FORMAT;
+	}
+
+	private static BufferedImage	scale(BufferedImage image, int w, int h)
+	{
+		if ((image.getWidth() == w) && (image.getHeight() == h))
+			return image;
+
+		BufferedImage	scaled = new BufferedImage(w, h,
+												   BufferedImage.TYPE_INT_ARGB);
+		Graphics2D		g = scaled.createGraphics();
+
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+						   RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING,
+						   RenderingHints.VALUE_RENDER_QUALITY);
+		g.drawImage(image, 0, 0, w, h, null);
+		g.dispose();
+
+		return scaled;
+	}
+}
+
+//******************************************************************************
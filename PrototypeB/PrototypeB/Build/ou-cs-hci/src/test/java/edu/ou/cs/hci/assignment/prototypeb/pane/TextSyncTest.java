@@ -0,0 +1,149 @@
+//******************************************************************************
+// Copyright (C) 2020 University of Oklahoma Board of Trustees.
+//******************************************************************************
+//
+//******************************************************************************
+
+package edu.ou.cs.hci.assignment.prototypeb.pane;
+
+//import java.lang.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.concurrent.*;
+import javafx.application.Platform;
+import edu.ou.cs.hci.assignment.prototypeb.*;
+
+//******************************************************************************
+
+/**
+ * The <CODE>TextSyncTest</CODE> class checks that edits typed at the same time
+ * in two views both end up in the text. It opens two views on one model, as
+ * with two windows, and types into the movie summary of each. The debounce
+ * window is too long to end during the test, so the test decides when each
+ * view sends its edits, and the other view gets them while it still has edits
+ * of its own waiting. Each case checks that both views and the model end up
+ * with the same text. Edits are journaled to a catalog in a temporary folder.
+ * Exits with status 1 if any case fails.
+ *
+ * @version %I%, %G%
+ */
+public final class TextSyncTest
+{
+	//**********************************************************************
+	// Private Class Members
+	//**********************************************************************
+
+	private static final String	TEXT = "The quick brown fox";
+
+	private static Controller		controller;
+	private static TextSync		sync1;
+	private static TextSync		sync2;
+	private static int				failures;
+
+	//**********************************************************************
+	// Main
+	//**********************************************************************
+
+	public static void	main(String[] args)
+		throws Exception
+	{
+		File	folder = Files.createTempDirectory("textsync").toFile();
+
+		System.setProperty("prototypeb.catalog",
+						   new File(folder, "movies.cat").getPath());
+		System.setProperty("prototypeb.debounce", "3600000");
+
+		Platform.startup(() -> {});
+
+		run(() -> {
+				controller = new Controller();
+				controller.setModel(new Model(controller));
+
+				sync1 = open("View 1", 40.0);
+				sync2 = open("View 2", 120.0);
+			});
+
+		// The first view types, then the second one types and sends
+		check("apart", 0, 0, "A", 19, 0, "B", "AThe quick brown foxB");
+		check("same place", 4, 0, "a", 4, 0, "b", "The baquick brown fox");
+		check("touching", 4, 5, "slow", 10, 5, "red", "The slow red fox");
+		check("overlapping", 4, 5, "slow", 4, 11, "red", "The redslow fox");
+		check("inside", 10, 5, "", 4, 15, "cat", "The cat");
+		check("around", 4, 15, "cat", 10, 5, "", "The cat");
+
+		System.out.println("textsync: " + failures + " failed");
+		System.exit((failures == 0) ? 0 : 1);
+	}
+
+	//**********************************************************************
+	// Private Class Methods
+	//**********************************************************************
+
+	private static TextSync	open(String name, double xy)
+	{
+		View	view = new View(controller, name, xy, xy);
+
+		controller.addView(view);
+
+		for (AbstractPane pane : view.getPanes())
+			if (pane instanceof EditorPane)
+				return ((EditorPane)pane).getSummarySync();
+
+		throw new IllegalStateException("No editor pane in " + name);
+	}
+
+	// Starts both views on the text. The first view types the edit at a1
+	// and keeps it waiting. The second view types the edit at a2 and sends
+	// it, so the first view gets it over its own. Then the first view sends.
+	private static void	check(String name, int a1, int r1, String s1,
+								  int a2, int r2, String s2, String expected)
+		throws Exception
+	{
+		run(() -> controller.set(Keys.MOVIE_SUMMARY, TEXT));
+		run(() -> sync1.getArea().replaceText(a1, a1 + r1, s1));
+		run(() -> {
+				sync2.getArea().replaceText(a2, a2 + r2, s2);
+				sync2.send();
+			});
+		run(() -> sync1.send());
+
+		String[]	texts = new String[3];
+
+		run(() -> {
+				texts[0] = sync1.getArea().getText();
+				texts[1] = sync2.getArea().getText();
+				texts[2] = controller.get(Keys.MOVIE_SUMMARY);
+			});
+
+		boolean	passed = (expected.equals(texts[0]) &&
+						  expected.equals(texts[1]) &&
+						  expected.equals(texts[2]));
+
+		System.out.println("  " + (passed ? "passed " : "FAILED ") + name +
+						   ": \"" + texts[0] + "\", \"" + texts[1] +
+						   "\", model \"" + texts[2] + "\"");
+
+		if (!passed)
+			failures++;
+	}
+
+	// Runs on the JavaFX thread, then waits for the model to send out what
+	// it changed, which it does in a later runnable on that thread.
+	private static void	run(Runnable runnable)
+		throws Exception
+	{
+		await(runnable);
+		await(() -> {});
+	}
+
+	private static void	await(Runnable runnable)
+		throws Exception
+	{
+		FutureTask<Void>	task = new FutureTask<Void>(runnable, null);
+
+		Platform.runLater(task);
+		task.get();
+	}
+}
+
+//******************************************************************************